@@ -0,0 +1,254 @@
+package com.tunduh.timemanagement.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tunduh.timemanagement.entity.UserEntity;
+import com.tunduh.timemanagement.service.IdempotencyService;
+import com.tunduh.timemanagement.utils.response.WebResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Runs after JWT authentication. A mutating request carrying an Idempotency-Key is executed once per user and key;
+// retries get the stored response replayed without reaching the controller. Reusing a key for a different request
+// is rejected with 422, and a retry that arrives while the first request is still running gets 409.
+@Component
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final Set<String> MUTATING_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    // Streaming and spooled uploads cannot be buffered and replayed.
+    @Value("${app.idempotency.excluded-paths:/api/tasks/sync/stream,/api/tasks/sync/jobs,/api/events/**}")
+    private String[] excludedPaths;
+
+    @Value("${app.idempotency.max-request-bytes:10485760}")
+    private int maxRequestBytes;
+
+    @Value("${app.idempotency.max-response-bytes:1048576}")
+    private int maxResponseBytes;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!MUTATING_METHODS.contains(request.getMethod()) || !StringUtils.hasText(request.getHeader(HEADER))) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String excluded : excludedPaths) {
+            if (pathMatcher.match(excluded.trim(), path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserEntity user)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String key = request.getHeader(HEADER);
+        if (key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        // Form and multipart bodies are parsed by the container from the original stream, so they are fingerprinted
+        // by their parameters instead of their bytes.
+        boolean form = isForm(request);
+        byte[] body = form ? formParameters(request) : request.getInputStream().readNBytes(maxRequestBytes + 1);
+        if (body.length > maxRequestBytes) {
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body is too large for idempotent replay");
+            return;
+        }
+        String requestHash = hash(request, body);
+
+        Optional<IdempotencyService.StoredResponse> stored = idempotencyService.find(user.getId(), key);
+        if (stored.isPresent()) {
+            replayOrReject(stored.get(), requestHash, response);
+            return;
+        }
+        if (!idempotencyService.reserve(user.getId(), key, requestHash)) {
+            Optional<IdempotencyService.StoredResponse> winner = idempotencyService.find(user.getId(), key);
+            if (winner.isPresent()) {
+                replayOrReject(winner.get(), requestHash, response);
+            } else {
+                writeError(response, HttpStatus.CONFLICT, "A request with this " + HEADER + " is still in progress");
+            }
+            return;
+        }
+
+        HttpServletRequest wrappedRequest = form ? request : new CachedBodyRequest(request, body);
+        ContentCachingResponseWrapper wrappedResponse = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(wrappedRequest, wrappedResponse);
+            int status = wrappedResponse.getStatus();
+            // Server errors are not remembered so that a retry can succeed.
+            if (status < 500 && wrappedResponse.getContentSize() <= maxResponseBytes) {
+                idempotencyService.complete(user.getId(), key, requestHash, status,
+                        wrappedResponse.getContentType(), wrappedResponse.getContentAsByteArray());
+                completed = true;
+            }
+        } finally {
+            if (!completed) {
+                idempotencyService.release(user.getId(), key);
+            }
+            wrappedResponse.copyBodyToResponse();
+        }
+    }
+
+    private void replayOrReject(IdempotencyService.StoredResponse stored, String requestHash,
+                                HttpServletResponse response) throws IOException {
+        if (!stored.requestHash().equals(requestHash)) {
+            writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, HEADER + " was already used for a different request");
+            return;
+        }
+        if (!stored.completed()) {
+            writeError(response, HttpStatus.CONFLICT, "A request with this " + HEADER + " is still in progress");
+            return;
+        }
+        response.setStatus(stored.statusCode());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.body() != null) {
+            response.setContentLength(stored.body().length);
+            response.getOutputStream().write(stored.body());
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), WebResponse.builder()
+                .message(message)
+                .status(status.getReasonPhrase())
+                .build());
+    }
+
+    private boolean isForm(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && (contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)
+                || contentType.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE));
+    }
+
+    private byte[] formParameters(HttpServletRequest request) {
+        StringBuilder parameters = new StringBuilder();
+        new TreeMap<>(request.getParameterMap()).forEach((name, values) ->
+                parameters.append(name).append('=').append(String.join(",", values)).append('&'));
+        return parameters.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String hash(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ' ');
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            if (request.getQueryString() != null) {
+                digest.update((byte) '?');
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Serves the body that was already read for fingerprinting to the rest of the chain.
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
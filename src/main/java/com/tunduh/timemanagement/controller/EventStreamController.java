@@ -0,0 +1,31 @@
+package com.tunduh.timemanagement.controller;
+
+import com.tunduh.timemanagement.entity.UserEntity;
+import com.tunduh.timemanagement.service.EventStreamService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Events", description = "Live updates for the authenticated user")
+public class EventStreamController {
+    private final EventStreamService eventStreamService;
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream session, task completion and balance changes as server-sent events")
+    public SseEmitter stream(Authentication authentication) {
+        UserEntity user = (UserEntity) authentication.getPrincipal();
+        log.info("Opening event stream for user: {}", user.getId());
+        return eventStreamService.subscribe(user.getId());
+    }
+}
@@ -0,0 +1,45 @@
+package com.tunduh.timemanagement.controller;
+
+import com.tunduh.timemanagement.dto.response.LeaderboardEntryResponse;
+import com.tunduh.timemanagement.dto.response.LeaderboardResponse;
+import com.tunduh.timemanagement.entity.UserEntity;
+import com.tunduh.timemanagement.service.LeaderboardService;
+import com.tunduh.timemanagement.utils.response.Response;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+@RequiredArgsConstructor
+@Tag(name = "Leaderboard", description = "Points leaderboard operations")
+public class LeaderboardController {
+    private final LeaderboardService leaderboardService;
+
+    @GetMapping
+    @Operation(summary = "Get the top of the global or weekly points leaderboard, with the current user's rank")
+    public ResponseEntity<?> getLeaderboard(
+            Authentication authentication,
+            @Parameter(description = "GLOBAL or WEEKLY") @RequestParam(defaultValue = "GLOBAL") String period,
+            @Parameter(description = "Number of entries") @RequestParam(defaultValue = "10") int limit
+    ) {
+        UserEntity user = (UserEntity) authentication.getPrincipal();
+        LeaderboardResponse leaderboard = leaderboardService.getLeaderboard(LeaderboardService.Period.of(period), limit, user.getId());
+        return Response.renderJSON(leaderboard, "Leaderboard retrieved successfully");
+    }
+
+    @GetMapping("/me")
+    @Operation(summary = "Get the current user's rank on the global or weekly points leaderboard")
+    public ResponseEntity<?> getMyRank(
+            Authentication authentication,
+            @Parameter(description = "GLOBAL or WEEKLY") @RequestParam(defaultValue = "GLOBAL") String period
+    ) {
+        UserEntity user = (UserEntity) authentication.getPrincipal();
+        LeaderboardEntryResponse rank = leaderboardService.getRank(LeaderboardService.Period.of(period), user.getId());
+        return Response.renderJSON(rank, "Leaderboard rank retrieved successfully");
+    }
+}
@@ -4,24 +4,39 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.tunduh.timemanagement.dto.request.TaskRequest;
 import com.tunduh.timemanagement.dto.request.TaskSessionRequest;
 import com.tunduh.timemanagement.dto.request.TaskSyncRequest;
+import com.tunduh.timemanagement.dto.response.SyncJobResponse;
+import com.tunduh.timemanagement.dto.response.TaskChangesResponse;
 import com.tunduh.timemanagement.dto.response.TaskResponse;
 import com.tunduh.timemanagement.dto.response.TaskSessionResponse;
 import com.tunduh.timemanagement.dto.response.TaskSyncResponse;
 import com.tunduh.timemanagement.entity.UserEntity;
+import com.tunduh.timemanagement.service.SyncJobService;
 import com.tunduh.timemanagement.service.TaskService;
+import com.tunduh.timemanagement.service.TaskSyncStreamService;
 import com.tunduh.timemanagement.utils.pagination.CustomPagination;
 import com.tunduh.timemanagement.utils.response.Response;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -31,6 +46,8 @@ import java.util.List;
 @Tag(name = "Tasks", description = "Task management operations")
 public class TaskController {
     private final TaskService taskService;
+    private final TaskSyncStreamService taskSyncStreamService;
+    private final SyncJobService syncJobService;
 
     @PostMapping
     @Operation(summary = "Create a new task")
@@ -57,15 +74,45 @@ public class TaskController {
             @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
             @Parameter(description = "Sort parameter (e.g., 'title,asc' or 'createdAt,desc')") @RequestParam(required = false) String sort,
             @Parameter(description = "Filter by title") @RequestParam(required = false) String title,
-            @Parameter(description = "Filter by status") @RequestParam(required = false) String status) {
+            @Parameter(description = "Filter by status") @RequestParam(required = false) String status,
+            @Parameter(description = "List occurrences and one-off tasks created from this date (inclusive)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "List occurrences and one-off tasks created up to this date (inclusive)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
         UserEntity principal = (UserEntity) authentication.getPrincipal();
         String userId = principal.getId();
 
-        CustomPagination<TaskResponse> paginatedTasks = taskService.getAllTasks(userId, page, size, sort, title, status);
+        CustomPagination<TaskResponse> paginatedTasks = taskService.getAllTasks(userId, page, size, sort, title, status, from, to);
 
         return Response.renderJSON(paginatedTasks, "Successfully retrieved all tasks");
     }
 
+    @GetMapping("/occurrences")
+    @Operation(summary = "Get recurring task occurrences in a date range", description = "Merges persisted occurrences with occurrences computed from recurring tasks")
+    public ResponseEntity<?> getOccurrences(
+            Authentication authentication,
+            @Parameter(description = "First date (inclusive)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last date (inclusive)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Filter by title") @RequestParam(required = false) String title,
+            @Parameter(description = "Filter by status") @RequestParam(required = false) String status) {
+        UserEntity principal = (UserEntity) authentication.getPrincipal();
+        CustomPagination<TaskResponse> occurrences = taskService.getOccurrences(principal.getId(), from, to, page, size, title, status);
+        return Response.renderJSON(occurrences, "Successfully retrieved occurrences");
+    }
+
+    @PutMapping("/{templateId}/occurrences/{date}")
+    @Operation(summary = "Update a single occurrence of a recurring task")
+    public ResponseEntity<?> updateOccurrence(
+            @PathVariable String templateId,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @Valid @RequestBody TaskRequest taskRequest,
+            Authentication authentication) {
+        UserEntity user = (UserEntity) authentication.getPrincipal();
+        log.info("Updating occurrence {} of task {} for user: {}", date, templateId, user.getId());
+        TaskResponse updatedTask = taskService.updateOccurrence(templateId, date, taskRequest, user.getId());
+        return Response.renderJSON(updatedTask, "Occurrence updated successfully!");
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get a task by ID")
     public ResponseEntity<?> getTaskById(@PathVariable String id, Authentication authentication) {
@@ -126,6 +173,14 @@ public class TaskController {
         return Response.renderJSON(session, "Task session stopped successfully");
     }
 
+    @GetMapping("/sessions/active")
+    @Operation(summary = "Get running and paused task sessions with live elapsed time")
+    public ResponseEntity<?> getActiveSessions(Authentication authentication) {
+        UserEntity user = (UserEntity) authentication.getPrincipal();
+        List<TaskSessionResponse> sessions = taskService.getActiveSessions(user.getId());
+        return Response.renderJSON(sessions);
+    }
+
     @PutMapping("/sessions/{sessionId}/notes")
     @Operation(summary = "Update task session notes")
     public ResponseEntity<?> updateTaskSessionNotes(@PathVariable String sessionId, @RequestBody String notes, Authentication authentication) {
@@ -146,6 +201,17 @@ public class TaskController {
         return Response.renderJSON(sessions);
     }
 
+    @GetMapping("/changes")
+    @Operation(summary = "Get tasks, sessions and deletions changed since a cursor", description = "Pass the returned cursor as 'since' on the next call; start with 0. A resyncRequired response means local state must be dropped and the feed restarted from 0")
+    public ResponseEntity<?> getChanges(
+            @Parameter(description = "Cursor returned by the previous call") @RequestParam(defaultValue = "0") String since,
+            @Parameter(description = "Maximum rows per entity type") @RequestParam(defaultValue = "500") int limit,
+            Authentication authentication) {
+        UserEntity user = (UserEntity) authentication.getPrincipal();
+        TaskChangesResponse changes = taskService.getChanges(user.getId(), since, limit);
+        return Response.renderJSON(changes);
+    }
+
     @PostMapping("/sync")
     @Operation(summary = "Synchronize tasks between devices")
     public ResponseEntity<?> synchronizeTasks(@RequestBody List<TaskSyncRequest> syncRequests, Authentication authentication) {
@@ -153,4 +219,42 @@ public class TaskController {
         List<TaskSyncResponse> syncResponses = taskService.synchronizeTasks(user.getId(), syncRequests);
         return Response.renderJSON(syncResponses, "Tasks synchronized successfully");
     }
+
+    @PostMapping(value = "/sync/stream", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Synchronize a large task payload incrementally",
+            description = "Reads a JSON array of sync entries in windows and writes one TaskSyncResponse per line (NDJSON) as each window commits")
+    public void synchronizeTasksStream(HttpServletRequest request, HttpServletResponse response,
+                                       Authentication authentication) throws IOException {
+        UserEntity user = (UserEntity) authentication.getPrincipal();
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        taskSyncStreamService.synchronize(user.getId(), request.getInputStream(), response.getOutputStream());
+    }
+
+    @PostMapping(value = "/sync/jobs", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Start an asynchronous bulk sync",
+            description = "Spools the JSON array of sync entries and returns a job id immediately; poll the job for progress")
+    public ResponseEntity<?> createSyncJob(HttpServletRequest request, Authentication authentication) throws IOException {
+        UserEntity user = (UserEntity) authentication.getPrincipal();
+        SyncJobResponse job = syncJobService.submit(user.getId(), request.getInputStream());
+        return Response.renderJSON(job, "Sync job accepted", HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/sync/jobs/{jobId}")
+    @Operation(summary = "Get the progress of an asynchronous sync job")
+    public ResponseEntity<?> getSyncJob(@PathVariable String jobId, Authentication authentication) {
+        UserEntity user = (UserEntity) authentication.getPrincipal();
+        return Response.renderJSON(syncJobService.getJob(jobId, user.getId()));
+    }
+
+    @GetMapping(value = "/sync/jobs/{jobId}/result", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Download the results of a completed sync job",
+            description = "One TaskSyncResponse per line, in the order of the submitted entries")
+    public ResponseEntity<Resource> getSyncJobResult(@PathVariable String jobId, Authentication authentication) {
+        UserEntity user = (UserEntity) authentication.getPrincipal();
+        Path result = syncJobService.getResultFile(jobId, user.getId());
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"sync-" + jobId + ".ndjson\"")
+                .body(new FileSystemResource(result));
+    }
 }
\ No newline at end of file
@@ -9,12 +9,15 @@ import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.DateTimeException;
 import java.time.LocalTime;
+import java.time.ZoneId;
 
 @RestController
 @RequestMapping("/api/users")
@@ -52,6 +55,21 @@ public class UserController {
         return Response.renderJSON(updatedUser, "Reset time set successfully");
     }
 
+    @PutMapping("/time-zone")
+    @Operation(summary = "Set time zone used for recurring tasks")
+    public ResponseEntity<?> setTimeZone(@RequestParam String zone, Authentication authentication) {
+        UserEntity user = (UserEntity) authentication.getPrincipal();
+        ZoneId timeZone;
+        try {
+            timeZone = ZoneId.of(zone);
+        } catch (DateTimeException e) {
+            return Response.renderJSON(null, "Unknown time zone: " + zone, HttpStatus.BAD_REQUEST);
+        }
+        logger.info("Setting time zone to {} for user {}", timeZone, user.getId());
+        UserResponse updatedUser = userService.setTimeZone(user.getId(), timeZone);
+        return Response.renderJSON(updatedUser, "Time zone set successfully");
+    }
+
     @PutMapping("/add-points")
     @Operation(summary = "Add points to user")
     public ResponseEntity<?> addPoints(@RequestParam int points, Authentication authentication) {
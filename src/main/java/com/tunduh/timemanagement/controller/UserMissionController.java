@@ -1,6 +1,7 @@
 package com.tunduh.timemanagement.controller;
 
 import com.tunduh.timemanagement.dto.response.AdminMissionResponse;
+import com.tunduh.timemanagement.dto.response.MissionProgressResponse;
 import com.tunduh.timemanagement.dto.response.UserMissionResponse;
 import com.tunduh.timemanagement.entity.UserEntity;
 import com.tunduh.timemanagement.service.UserMissionService;
@@ -27,11 +28,13 @@ public class UserMissionController {
     public ResponseEntity<?> getAvailableMissions(
             Authentication authentication,
             @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Id of the last mission of the previous page; when set, page is ignored and the next page is read by keyset")
+            @RequestParam(required = false) String after
     ) {
         UserEntity user = (UserEntity) authentication.getPrincipal();
 
-        CustomPagination<AdminMissionResponse> availableMissions = userMissionService.getAvailableMissions(user.getId(), page, size);
+        CustomPagination<AdminMissionResponse> availableMissions = userMissionService.getAvailableMissions(user.getId(), page, size, after);
 
         return Response.renderJSON(availableMissions, "Available missions retrieved successfully");
     }
@@ -86,6 +89,14 @@ public class UserMissionController {
         return Response.renderJSON(userMission, "User mission progress retrieved successfully");
     }
 
+    @GetMapping("/{missionId}/progress")
+    @Operation(summary = "Get the stored progress counter of a claimed mission for the current user")
+    public ResponseEntity<?> getMissionProgress(@PathVariable String missionId, Authentication authentication) {
+        UserEntity user = (UserEntity) authentication.getPrincipal();
+        MissionProgressResponse progress = userMissionService.getMissionProgress(user.getId(), missionId);
+        return Response.renderJSON(progress, "Mission progress retrieved successfully");
+    }
+
     @PostMapping("/{missionId}/claim")
     @Operation(summary = "Claim a mission for the current user")
     public ResponseEntity<?> claimMission(@PathVariable String missionId, Authentication authentication) {
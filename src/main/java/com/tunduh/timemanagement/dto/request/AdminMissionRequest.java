@@ -1,10 +1,14 @@
 package com.tunduh.timemanagement.dto.request;
 
 import com.tunduh.timemanagement.entity.MissionEntity;
+import com.tunduh.timemanagement.utils.criteria.CriteriaCondition;
+import com.tunduh.timemanagement.utils.criteria.CriteriaMetric;
+import com.tunduh.timemanagement.utils.criteria.CriteriaWindow;
 import jakarta.persistence.Column;
 import lombok.Data;
 import jakarta.validation.constraints.*;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 public class AdminMissionRequest {
@@ -25,6 +29,13 @@ public class AdminMissionRequest {
     @NotNull(message = "Mission type is required")
     private MissionEntity.Type type;
 
+    // Optional completion rule; without a metric the mission counts what its type implies.
+    private CriteriaMetric criteriaMetric;
+
+    private CriteriaWindow criteriaWindow;
+
+    private List<CriteriaCondition> criteriaFilter;
+
     @NotNull(message = "Mission icon is required")
     private String missionIcon;
 
@@ -3,10 +3,14 @@ package com.tunduh.timemanagement.dto.request;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
+import java.time.LocalDate;
+
 @Data
 public class TaskSessionRequest {
     @NotNull(message = "Task ID is required")
     private String taskId;
 
     private String notes;
+
+    private LocalDate occurrenceDate;
 }
\ No newline at end of file
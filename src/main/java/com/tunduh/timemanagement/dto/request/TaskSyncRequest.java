@@ -4,6 +4,7 @@ import lombok.Data;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 @Data
 public class TaskSyncRequest {
@@ -15,6 +16,10 @@ public class TaskSyncRequest {
     private Integer duration;
     private String priority;
     private Long version;
+    // Server version the client's edits are based on; falls back to version for older clients.
+    private Long baseVersion;
+    // Fields the client edited; all fields when absent.
+    private Set<String> changedFields;
     private LocalDateTime lastSyncedAt;
     private List<TaskSessionSyncRequest> sessions;
 }
\ No newline at end of file
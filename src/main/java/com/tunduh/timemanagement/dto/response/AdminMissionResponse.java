@@ -1,9 +1,13 @@
 package com.tunduh.timemanagement.dto.response;
 
 import com.tunduh.timemanagement.entity.MissionEntity;
+import com.tunduh.timemanagement.utils.criteria.CriteriaCondition;
+import com.tunduh.timemanagement.utils.criteria.CriteriaMetric;
+import com.tunduh.timemanagement.utils.criteria.CriteriaWindow;
 import lombok.Data;
 import lombok.Builder;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
@@ -16,9 +20,13 @@ public class AdminMissionResponse {
     private Integer criteriaCompleted;
     private String missionIcon;
     private MissionEntity.Type type;
+    private CriteriaMetric criteriaMetric;
+    private CriteriaWindow criteriaWindow;
+    private List<CriteriaCondition> criteriaFilter;
     private LocalDateTime startDate;
     private LocalDateTime endDate;
     private MissionEntity.MissionStatus status;
+    private LocalDateTime expiredAt;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.tunduh.timemanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FieldConflictResponse implements Serializable {
+    private String field;
+    private Object serverValue;
+    private Object clientValue;
+}
@@ -0,0 +1,17 @@
+package com.tunduh.timemanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LeaderboardEntryResponse {
+    private long rank;
+    private String userId;
+    private String username;
+    private int points;
+}
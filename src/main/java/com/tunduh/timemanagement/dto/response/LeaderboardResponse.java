@@ -0,0 +1,23 @@
+package com.tunduh.timemanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LeaderboardResponse {
+    private String period;
+    // First day of the week for the weekly board; null for the global board.
+    private LocalDate periodStart;
+    private long totalUsers;
+    private List<LeaderboardEntryResponse> entries;
+    // The requesting user's position; null when the user has no points in the period.
+    private LeaderboardEntryResponse me;
+}
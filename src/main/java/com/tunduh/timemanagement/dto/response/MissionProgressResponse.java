@@ -1,5 +1,6 @@
 package com.tunduh.timemanagement.dto.response;
 
+import com.tunduh.timemanagement.entity.MissionEntity;
 import lombok.Builder;
 import lombok.Data;
 
@@ -8,9 +9,11 @@ import lombok.Data;
 public class MissionProgressResponse {
     private String missionId;
     private String missionName;
-    private int completedTasks;
-    private int totalRequiredTasks;
-    private long completedDuration;
-    private long totalRequiredDuration;
+    private MissionEntity.Type type;
+    // Both values are in the unit shown to the user: minutes, tasks or points.
+    private long progressValue;
+    private long targetValue;
+    private String unit;
     private double progressPercentage;
-}
\ No newline at end of file
+    private boolean completed;
+}
@@ -0,0 +1,27 @@
+package com.tunduh.timemanagement.dto.response;
+
+import com.tunduh.timemanagement.entity.SyncJobEntity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncJobResponse implements Serializable {
+    private String id;
+    private SyncJobEntity.JobStatus status;
+    private long totalEntries;
+    private long processedEntries;
+    private long conflictedEntries;
+    private String error;
+    private String resultUrl;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,22 @@
+package com.tunduh.timemanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskChangesResponse {
+    private List<TaskResponse> tasks;
+    private List<TaskSessionResponse> sessions;
+    private List<TombstoneResponse> deleted;
+    private String cursor;
+    private boolean hasMore;
+    // The cursor is older than the tombstone retention window; drop local state and restart from cursor "0".
+    private boolean resyncRequired;
+}
@@ -34,6 +34,10 @@ public class TaskResponse implements Serializable {
     private LocalDateTime repetitionEndDate;
     private Integer repetitionInterval;
     private String taskPicture;
+    private String templateId;
+    private LocalDate occurrenceDate;
+    private boolean virtual;
+    private Long version;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
\ No newline at end of file
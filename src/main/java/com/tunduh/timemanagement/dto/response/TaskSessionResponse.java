@@ -15,6 +15,7 @@ public class TaskSessionResponse implements Serializable {
     private LocalDateTime startTime;
     private LocalDateTime endTime;
     private Long durationInSeconds;
+    private Long elapsedInSeconds;
     private TaskSessionEntity.SessionStatus status;
     private String notes;
     private LocalDateTime createdAt;
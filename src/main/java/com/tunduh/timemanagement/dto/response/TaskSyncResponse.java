@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
@@ -23,4 +24,5 @@ public class TaskSyncResponse implements Serializable {
     private LocalDateTime lastSyncedAt;
     private Long version;
     private boolean conflicted;
+    private List<FieldConflictResponse> conflicts;
 }
\ No newline at end of file
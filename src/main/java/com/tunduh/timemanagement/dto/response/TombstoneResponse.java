@@ -0,0 +1,18 @@
+package com.tunduh.timemanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TombstoneResponse {
+    private String entityType;
+    private String entityId;
+    private LocalDateTime deletedAt;
+}
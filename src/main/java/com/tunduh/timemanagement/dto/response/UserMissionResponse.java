@@ -25,6 +25,8 @@ public class UserMissionResponse {
     private Boolean isRewardClaimed;
     private LocalDateTime completedAt;
     private LocalDateTime rewardClaimedAt;
+    private LocalDateTime expiredAt;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private MissionProgressResponse progress;
 }
\ No newline at end of file
@@ -1,5 +1,9 @@
 package com.tunduh.timemanagement.entity;
 
+import com.tunduh.timemanagement.utils.criteria.CriteriaCondition;
+import com.tunduh.timemanagement.utils.criteria.CriteriaConditionsConverter;
+import com.tunduh.timemanagement.utils.criteria.CriteriaMetric;
+import com.tunduh.timemanagement.utils.criteria.CriteriaWindow;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,10 +14,13 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "missions")
+@Table(name = "missions", indexes = {
+        @Index(name = "idx_missions_status_end_date", columnList = "status, end_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -38,6 +45,20 @@ public class MissionEntity {
     @Column(nullable = false)
     private Integer criteriaCompleted;
 
+    // Completion rule, see MissionCriteria. Missions without a metric count what their type implies, since the
+    // start date and without a filter.
+    @Enumerated(EnumType.STRING)
+    @Column(name = "criteria_metric")
+    private CriteriaMetric criteriaMetric;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "criteria_window")
+    private CriteriaWindow criteriaWindow;
+
+    @Convert(converter = CriteriaConditionsConverter.class)
+    @Column(name = "criteria_filter", columnDefinition = "TEXT")
+    private List<CriteriaCondition> criteriaFilter;
+
     @Column(name = "mission_icon")
     private String missionIcon;
 
@@ -55,6 +76,9 @@ public class MissionEntity {
     @Enumerated(EnumType.STRING)
     private MissionStatus status;
 
+    // Set when MissionLifecycleSweeper moves the mission to EXPIRED.
+    private LocalDateTime expiredAt;
+
     @OneToMany(mappedBy = "mission", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<UserMissionEntity> userMissions = new HashSet<>();
 
@@ -65,7 +89,7 @@ public class MissionEntity {
     private LocalDateTime updatedAt;
 
     public enum MissionStatus {
-        ACTIVE, INACTIVE, COMPLETED
+        ACTIVE, INACTIVE, COMPLETED, EXPIRED
     }
 
     public enum Type {
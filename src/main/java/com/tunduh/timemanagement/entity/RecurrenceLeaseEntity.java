@@ -0,0 +1,27 @@
+package com.tunduh.timemanagement.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "recurrence_leases")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecurrenceLeaseEntity {
+    @Id
+    @Column(name = "partition_id")
+    private Integer partitionId;
+
+    @Column(name = "owner")
+    private String owner;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+}
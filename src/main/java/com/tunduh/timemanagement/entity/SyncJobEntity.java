@@ -0,0 +1,66 @@
+package com.tunduh.timemanagement.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// An asynchronous bulk sync. The payload is spooled on the accepting node, so only that node processes the job.
+// spoolOffset and resultBytes are the checkpoint: they move in the same transaction as each applied chunk.
+@Entity
+@Table(name = "sync_jobs", indexes = {
+        @Index(name = "idx_sync_jobs_node_status", columnList = "node_id, status"),
+        @Index(name = "idx_sync_jobs_user_created_at", columnList = "user_id, created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyncJobEntity {
+    @Id
+    private String id;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "node_id", nullable = false)
+    private String nodeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private JobStatus status;
+
+    @Column(name = "total_entries", nullable = false)
+    private long totalEntries;
+
+    @Column(name = "processed_entries", nullable = false)
+    private long processedEntries;
+
+    @Column(name = "conflicted_entries", nullable = false)
+    private long conflictedEntries;
+
+    @Column(name = "spool_offset", nullable = false)
+    private long spoolOffset;
+
+    @Column(name = "result_bytes", nullable = false)
+    private long resultBytes;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public enum JobStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -0,0 +1,40 @@
+package com.tunduh.timemanagement.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Written by the change-feed delete triggers, not by the application.
+@Entity
+@Table(name = "sync_tombstones", indexes = {
+        @Index(name = "idx_sync_tombstones_user_change_xid", columnList = "user_id, change_xid, change_seq"),
+        @Index(name = "idx_sync_tombstones_deleted_at", columnList = "deleted_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyncTombstoneEntity {
+    @Id
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
+    @Column(name = "change_xid")
+    private Long changeXid;
+
+    @Column(name = "entity_type", nullable = false)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private String entityId;
+
+    @Column(name = "user_id")
+    private String userId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
@@ -6,6 +6,7 @@ import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
@@ -15,7 +16,11 @@ import java.util.Set;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_next_due_at", columnList = "next_due_at"),
+        @Index(name = "idx_tasks_recurrence_parent", columnList = "recurrence_parent_id, occurrence_date"),
+        @Index(name = "idx_tasks_user_change_xid", columnList = "user_id, change_xid, change_seq")
+})
 public class TaskEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -39,10 +44,14 @@ public class TaskEntity {
     @Column(nullable = false)
     private String priority;
 
-    @ElementCollection
-    @CollectionTable(name = "task_repetition_dates", joinColumns = @JoinColumn(name = "task_id"))
-    @Column(name = "date")
-    private Set<Integer> repetitionDates;
+    @Column(name = "repetition_weekday_mask")
+    private Integer repetitionWeekdayMask;
+
+    @Column(name = "repetition_month_day_mask")
+    private Integer repetitionMonthDayMask;
+
+    @Column(name = "repetition_year_day_mask")
+    private byte[] repetitionYearDayMask;
 
     @EnumValidator(enumClass = TaskEntity.RepetitionType.class, message = "Invalid repetition type")
     @Column(name = "repetition_type")
@@ -58,13 +67,48 @@ public class TaskEntity {
     @Column(name = "repetition_interval")
     private Integer repetitionInterval;
 
+    @Column(name = "next_occurrence_at")
+    private LocalDateTime nextOccurrenceAt;
+
+    // UTC time the generator picks up nextOccurrenceAt; null until it has been derived from the user's zone, and
+    // after the schedule has ended.
+    @Column(name = "next_due_at")
+    private LocalDateTime nextDueAt;
+
+    // When nextDueAt was last derived. Null asks the generator to derive it, which it does once even when the
+    // template has no next occurrence.
+    @Column(name = "next_due_computed_at")
+    private LocalDateTime nextDueComputedAt;
+
+    @Column(name = "recurrence_parent_id")
+    private String recurrenceParentId;
+
+    @Column(name = "occurrence_date")
+    private LocalDate occurrenceDate;
+
     private LocalDateTime completedAt;
 
+    // Sum of completed session durations. Only changed through atomic increments and reconciliation, never by
+    // flushing the entity, so a stale in-memory copy cannot overwrite it.
+    @Builder.Default
+    @Column(name = "completed_duration_seconds", nullable = false, updatable = false, columnDefinition = "bigint default 0")
+    private Long completedDurationSeconds = 0L;
+
     @OneToMany(mappedBy = "task", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<TaskSessionEntity> sessions = new HashSet<>();
 
+    @Version
     private Long version;
 
+    @Column(name = "details_version")
+    private Long detailsVersion;
+
+    @Column(name = "status_version")
+    private Long statusVersion;
+
+    @Column(name = "planning_version")
+    private Long planningVersion;
+
     @ManyToOne
     @JoinColumn(name = "user_id")
     private UserEntity user;
@@ -72,6 +116,16 @@ public class TaskEntity {
     @Column(name = "task_picture")
     private String taskPicture;
 
+    // Maintained by database triggers, see ChangeFeedMigration.
+    @Column(name = "change_seq", insertable = false, updatable = false)
+    private Long changeSeq;
+
+    @Column(name = "change_xid", insertable = false, updatable = false)
+    private Long changeXid;
+
+    @Column(name = "changed_at", insertable = false, updatable = false)
+    private LocalDateTime changedAt;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
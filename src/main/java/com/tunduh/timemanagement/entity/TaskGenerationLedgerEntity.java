@@ -0,0 +1,41 @@
+package com.tunduh.timemanagement.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "task_generation_ledger", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_task_generation_ledger_occurrence", columnNames = {"template_id", "occurrence_date"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TaskGenerationLedgerEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "template_id", nullable = false)
+    private String templateId;
+
+    @Column(name = "occurrence_date", nullable = false)
+    private LocalDate occurrenceDate;
+
+    @Column(name = "instance_id", nullable = false)
+    private String instanceId;
+
+    @Column(name = "node_id")
+    private String nodeId;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -12,7 +12,9 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "task_sessions")
+@Table(name = "task_sessions", indexes = {
+        @Index(name = "idx_task_sessions_change_xid", columnList = "change_xid, change_seq")
+})
 public class TaskSessionEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -38,6 +40,16 @@ public class TaskSessionEntity {
     @Column(columnDefinition = "TEXT")
     private String notes;
 
+    // Maintained by database triggers, see ChangeFeedMigration.
+    @Column(name = "change_seq", insertable = false, updatable = false)
+    private Long changeSeq;
+
+    @Column(name = "change_xid", insertable = false, updatable = false)
+    private Long changeXid;
+
+    @Column(name = "changed_at", insertable = false, updatable = false)
+    private LocalDateTime changedAt;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
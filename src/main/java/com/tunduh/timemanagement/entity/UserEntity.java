@@ -20,7 +20,9 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_time_zone", columnList = "time_zone")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -55,6 +57,9 @@ public class UserEntity implements UserDetails {
 
     private LocalDate lastResetDate;
 
+    @Column(name = "time_zone")
+    private String timeZone;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<UserMissionEntity> userMissions = new HashSet<>();
 
@@ -11,7 +11,11 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_missions")
+@Table(name = "user_missions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_missions_user_mission", columnNames = {"user_id", "mission_id"})
+}, indexes = {
+        @Index(name = "idx_user_missions_mission_completed", columnList = "mission_id, is_completed")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -39,6 +43,14 @@ public class UserMissionEntity {
 
     private LocalDateTime rewardClaimedAt;
 
+    // Seconds for TIME_BASED missions, tasks for TASK_BASED and points for POINT_BASED; maintained by
+    // MissionProgressTracker. NULL until first computed.
+    @Column(name = "progress_value")
+    private Long progressValue;
+
+    // Set when the mission expired before this claim was completed; the row is closed and no longer evaluated.
+    private LocalDateTime expiredAt;
+
     @Column(name = "user_mission_icon")
     private String userMissionIcon;
 
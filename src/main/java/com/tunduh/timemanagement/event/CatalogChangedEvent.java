@@ -0,0 +1,9 @@
+package com.tunduh.timemanagement.event;
+
+// id is the changed item, or null when any number of items may have changed.
+public record CatalogChangedEvent(Catalog catalog, String id) {
+
+    public enum Catalog {
+        MISSIONS, SHOP_ITEMS
+    }
+}
@@ -0,0 +1,6 @@
+package com.tunduh.timemanagement.event;
+
+import com.tunduh.timemanagement.dto.response.TaskSessionResponse;
+
+public record SessionChangedEvent(String userId, String action, TaskSessionResponse session) {
+}
@@ -0,0 +1,8 @@
+package com.tunduh.timemanagement.event;
+
+import com.tunduh.timemanagement.entity.TaskSessionEntity;
+
+import java.util.List;
+
+public record SessionsSyncedEvent(List<TaskSessionEntity> sessions) {
+}
@@ -0,0 +1,6 @@
+package com.tunduh.timemanagement.event;
+
+import java.time.LocalDateTime;
+
+public record TaskCompletedEvent(String userId, String taskId, LocalDateTime completedAt) {
+}
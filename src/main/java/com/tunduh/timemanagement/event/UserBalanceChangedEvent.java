@@ -0,0 +1,4 @@
+package com.tunduh.timemanagement.event;
+
+public record UserBalanceChangedEvent(String userId, Integer energy, Integer userPoint) {
+}
@@ -0,0 +1,92 @@
+package com.tunduh.timemanagement.migration;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Installs the change_seq sequence and the triggers that stamp every insert/update of tasks and task_sessions
+// and record deletes in sync_tombstones. Triggers rather than entity callbacks, so JDBC batch writes are
+// covered too. Each change also records the id of the transaction that wrote it, which is what the feed uses to
+// tell whether a change can still be joined by an earlier one. Every statement is idempotent.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class ChangeFeedMigration implements CommandLineRunner {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeedMigration.class);
+
+    private static final String[] STATEMENTS = {
+            "CREATE SEQUENCE IF NOT EXISTS change_seq",
+            "CREATE TABLE IF NOT EXISTS sync_tombstone_horizon (id int PRIMARY KEY, " +
+                    "change_xid bigint NOT NULL, change_seq bigint NOT NULL)",
+            "CREATE OR REPLACE FUNCTION stamp_change_seq() RETURNS trigger AS $$ " +
+                    "BEGIN NEW.change_seq := nextval('change_seq'); NEW.changed_at := clock_timestamp(); " +
+                    "NEW.change_xid := CAST(CAST(pg_current_xact_id() AS text) AS bigint); RETURN NEW; END; " +
+                    "$$ LANGUAGE plpgsql",
+            "CREATE OR REPLACE FUNCTION record_task_tombstone() RETURNS trigger AS $$ " +
+                    "BEGIN INSERT INTO sync_tombstones (change_seq, change_xid, entity_type, entity_id, user_id, deleted_at) " +
+                    "VALUES (nextval('change_seq'), CAST(CAST(pg_current_xact_id() AS text) AS bigint), " +
+                    "'TASK', OLD.id, OLD.user_id, clock_timestamp()); RETURN OLD; END; " +
+                    "$$ LANGUAGE plpgsql",
+            "CREATE OR REPLACE FUNCTION record_session_tombstone() RETURNS trigger AS $$ " +
+                    "BEGIN INSERT INTO sync_tombstones (change_seq, change_xid, entity_type, entity_id, user_id, deleted_at) " +
+                    "VALUES (nextval('change_seq'), CAST(CAST(pg_current_xact_id() AS text) AS bigint), 'SESSION', OLD.id, " +
+                    "(SELECT user_id FROM tasks WHERE id = OLD.task_id), clock_timestamp()); RETURN OLD; END; " +
+                    "$$ LANGUAGE plpgsql"
+    };
+
+    // Name, table and definition of each trigger. A trigger that already exists is left alone: dropping and
+    // recreating it takes an exclusive lock on the table and leaves a window in which writes from other nodes are
+    // neither stamped nor tombstoned.
+    private static final String[][] TRIGGERS = {
+            {"tasks_change_seq", "tasks", "CREATE TRIGGER tasks_change_seq BEFORE INSERT OR UPDATE ON tasks " +
+                    "FOR EACH ROW EXECUTE FUNCTION stamp_change_seq()"},
+            {"task_sessions_change_seq", "task_sessions", "CREATE TRIGGER task_sessions_change_seq " +
+                    "BEFORE INSERT OR UPDATE ON task_sessions FOR EACH ROW EXECUTE FUNCTION stamp_change_seq()"},
+            {"tasks_tombstone", "tasks", "CREATE TRIGGER tasks_tombstone AFTER DELETE ON tasks " +
+                    "FOR EACH ROW EXECUTE FUNCTION record_task_tombstone()"},
+            {"task_sessions_tombstone", "task_sessions", "CREATE TRIGGER task_sessions_tombstone " +
+                    "BEFORE DELETE ON task_sessions FOR EACH ROW EXECUTE FUNCTION record_session_tombstone()"}
+    };
+
+    private static final String TRIGGER_EXISTS_SQL = "SELECT EXISTS (SELECT 1 FROM pg_trigger " +
+            "WHERE tgname = ? AND tgrelid = to_regclass(?) AND NOT tgisinternal)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(String... args) {
+        for (String statement : STATEMENTS) {
+            jdbcTemplate.execute(statement);
+        }
+        for (String[] trigger : TRIGGERS) {
+            installTrigger(trigger[0], trigger[1], trigger[2]);
+        }
+        int tasks = jdbcTemplate.update("UPDATE tasks SET change_seq = change_seq " +
+                "WHERE change_seq IS NULL OR change_xid IS NULL");
+        int sessions = jdbcTemplate.update("UPDATE task_sessions SET change_seq = change_seq " +
+                "WHERE change_seq IS NULL OR change_xid IS NULL");
+        // Tombstones from before transaction ids were recorded sort ahead of everything else.
+        jdbcTemplate.update("UPDATE sync_tombstones SET change_xid = 0 WHERE change_xid IS NULL");
+        if (tasks > 0 || sessions > 0) {
+            logger.info("Assigned change sequence to {} tasks and {} sessions", tasks, sessions);
+        }
+    }
+
+    // Nodes booting at the same time serialize on an advisory lock, so only one of them creates a missing trigger.
+    private void installTrigger(String name, String table, String definition) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(hashtext('change_feed_triggers'))", Object.class);
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRIGGER_EXISTS_SQL, Boolean.class, name, table))) {
+                jdbcTemplate.execute(definition);
+                logger.info("Created trigger {} on {}", name, table);
+            }
+        });
+    }
+}
@@ -0,0 +1,23 @@
+package com.tunduh.timemanagement.migration;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Tables created by Hibernate carry a check constraint listing the enum values that existed at the time, and schema
+// update never widens it. Drops the constraint so missions can move to EXPIRED; the column is still only written
+// through MissionStatus.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 4)
+@RequiredArgsConstructor
+public class MissionStatusMigration implements CommandLineRunner {
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        jdbcTemplate.execute("ALTER TABLE missions DROP CONSTRAINT IF EXISTS missions_status_check");
+    }
+}
@@ -0,0 +1,102 @@
+package com.tunduh.timemanagement.migration;
+
+import com.tunduh.timemanagement.entity.TaskEntity;
+import com.tunduh.timemanagement.utils.RecurrenceUtil;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Moves the day numbers stored in the legacy task_repetition_dates table onto the inline recurrence masks of
+// tasks. Only tasks whose masks are still empty are touched, so the runner is a no-op once data has moved. The
+// recurrence scheduler can run before this runner and compute a template's next occurrence from its empty masks,
+// so the stored next occurrence and due time are cleared for the recurrence backfill to derive them again.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class RepetitionDatesMigration implements CommandLineRunner {
+    private static final Logger logger = LoggerFactory.getLogger(RepetitionDatesMigration.class);
+    private static final int BATCH_SIZE = 500;
+
+    private static final String SELECT_PENDING_SQL = "SELECT d.task_id, t.repetition_type, d.date " +
+            "FROM task_repetition_dates d JOIN tasks t ON t.id = d.task_id " +
+            "WHERE t.repetition_type IN ('WEEKLY', 'MONTHLY', 'YEARLY') " +
+            "AND t.repetition_weekday_mask IS NULL " +
+            "AND t.repetition_month_day_mask IS NULL " +
+            "AND t.repetition_year_day_mask IS NULL " +
+            "ORDER BY d.task_id";
+
+    private static final String UPDATE_MASKS_SQL = "UPDATE tasks SET repetition_weekday_mask = ?, " +
+            "repetition_month_day_mask = ?, repetition_year_day_mask = ?, next_occurrence_at = NULL, next_due_at = NULL, " +
+            "next_due_computed_at = NULL WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        Boolean legacyTableExists = jdbcTemplate.queryForObject(
+                "SELECT to_regclass('task_repetition_dates') IS NOT NULL", Boolean.class);
+        if (!Boolean.TRUE.equals(legacyTableExists)) {
+            return;
+        }
+
+        List<TaskEntity> batch = new ArrayList<>();
+        long[] migrated = {0};
+        TaskEntity[] current = {null};
+        Set<Integer> dates = new HashSet<>();
+
+        jdbcTemplate.query(SELECT_PENDING_SQL, rs -> {
+            String taskId = rs.getString("task_id");
+            if (current[0] == null || !current[0].getId().equals(taskId)) {
+                if (current[0] != null) {
+                    RecurrenceUtil.applyRepetitionDates(current[0], dates);
+                    batch.add(current[0]);
+                    if (batch.size() >= BATCH_SIZE) {
+                        migrated[0] += flush(batch);
+                    }
+                }
+                current[0] = TaskEntity.builder()
+                        .id(taskId)
+                        .repetitionType(TaskEntity.RepetitionType.valueOf(rs.getString("repetition_type")))
+                        .build();
+                dates.clear();
+            }
+            dates.add(rs.getInt("date"));
+        });
+
+        if (current[0] != null) {
+            RecurrenceUtil.applyRepetitionDates(current[0], dates);
+            batch.add(current[0]);
+        }
+        migrated[0] += flush(batch);
+
+        if (migrated[0] > 0) {
+            logger.info("Migrated repetition dates of {} tasks to recurrence masks", migrated[0]);
+        }
+    }
+
+    private int flush(List<TaskEntity> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_MASKS_SQL, batch, batch.size(), (ps, task) -> {
+            ps.setObject(1, task.getRepetitionWeekdayMask(), Types.INTEGER);
+            ps.setObject(2, task.getRepetitionMonthDayMask(), Types.INTEGER);
+            ps.setBytes(3, task.getRepetitionYearDayMask());
+            ps.setString(4, task.getId());
+        });
+        int flushed = batch.size();
+        batch.clear();
+        return flushed;
+    }
+}
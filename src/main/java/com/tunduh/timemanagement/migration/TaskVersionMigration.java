@@ -0,0 +1,29 @@
+package com.tunduh.timemanagement.migration;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// tasks.version became the optimistic lock column; rows written before that may hold NULL, which JPA would
+// treat as a new entity.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@RequiredArgsConstructor
+public class TaskVersionMigration implements CommandLineRunner {
+    private static final Logger logger = LoggerFactory.getLogger(TaskVersionMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        int updated = jdbcTemplate.update("UPDATE tasks SET version = 0 WHERE version IS NULL");
+        if (updated > 0) {
+            logger.info("Initialized optimistic lock version on {} tasks", updated);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.tunduh.timemanagement.migration;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Schema update cannot add the (user_id, mission_id) unique constraint while concurrent claims have left duplicate
+// rows behind. Keeps the most advanced row of each pair (reward claimed, then completed, then oldest), removes the
+// rest and adds the constraint if it is still missing.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+@RequiredArgsConstructor
+public class UserMissionUniqueMigration implements CommandLineRunner {
+    private static final Logger logger = LoggerFactory.getLogger(UserMissionUniqueMigration.class);
+
+    private static final String DELETE_DUPLICATES_SQL = "DELETE FROM user_missions WHERE id IN (" +
+            "SELECT id FROM (SELECT id, ROW_NUMBER() OVER (PARTITION BY user_id, mission_id " +
+            "ORDER BY is_reward_claimed DESC, is_completed DESC, created_at, id) AS rank FROM user_missions) r " +
+            "WHERE r.rank > 1)";
+    private static final String ADD_CONSTRAINT_SQL = "DO $$ BEGIN " +
+            "IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_user_missions_user_mission') THEN " +
+            "ALTER TABLE user_missions ADD CONSTRAINT uk_user_missions_user_mission UNIQUE (user_id, mission_id); " +
+            "END IF; END $$";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        int removed = jdbcTemplate.update(DELETE_DUPLICATES_SQL);
+        if (removed > 0) {
+            logger.warn("Removed {} duplicate user mission claims", removed);
+        }
+        jdbcTemplate.execute(ADD_CONSTRAINT_SQL);
+    }
+}
@@ -0,0 +1,25 @@
+package com.tunduh.timemanagement.repository;
+
+import com.tunduh.timemanagement.entity.IdempotencyKeyEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyEntity, String> {
+    @Query("SELECT k FROM IdempotencyKeyEntity k " +
+            "WHERE k.userId = :userId AND k.idempotencyKey = :key AND k.expiresAt > :now " +
+            "AND (k.statusCode IS NOT NULL OR k.reservedUntil > :now)")
+    Optional<IdempotencyKeyEntity> findActive(@Param("userId") String userId,
+                                              @Param("key") String key,
+                                              @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKeyEntity k WHERE k.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -32,4 +32,37 @@ public interface MissionRepository extends JpaRepository<MissionEntity, String>,
     List<Map<String, Object>> getMissionDataByUserId(@Param("userId") String userId);
 
     Page<MissionEntity> findAll(Pageable pageable);
+
+    // Active missions in their date window that the user has not claimed. The status and end date range is served
+    // by the (status, end_date) index, the NOT EXISTS probe by the unique (user_id, mission_id) constraint on
+    // user_missions.
+    @Query(value = "SELECT m FROM MissionEntity m WHERE m.status = :status AND m.startDate <= :now " +
+            "AND m.endDate > :now AND NOT EXISTS (SELECT 1 FROM UserMissionEntity um " +
+            "WHERE um.mission = m AND um.user.id = :userId) ORDER BY m.endDate, m.id",
+            countQuery = "SELECT COUNT(m) FROM MissionEntity m WHERE m.status = :status AND m.startDate <= :now " +
+                    "AND m.endDate > :now AND NOT EXISTS (SELECT 1 FROM UserMissionEntity um " +
+                    "WHERE um.mission = m AND um.user.id = :userId)")
+    Page<MissionEntity> findAvailableForUser(@Param("userId") String userId,
+                                             @Param("status") MissionEntity.MissionStatus status,
+                                             @Param("now") LocalDateTime now, Pageable pageable);
+
+    // Keyset variant of findAvailableForUser: the page after (afterEndDate, afterId) in the same order.
+    @Query("SELECT m FROM MissionEntity m WHERE m.status = :status AND m.startDate <= :now " +
+            "AND m.endDate > :now AND (m.endDate > :afterEndDate OR (m.endDate = :afterEndDate AND m.id > :afterId)) " +
+            "AND NOT EXISTS (SELECT 1 FROM UserMissionEntity um WHERE um.mission = m AND um.user.id = :userId) " +
+            "ORDER BY m.endDate, m.id")
+    List<MissionEntity> findAvailableForUserAfter(@Param("userId") String userId,
+                                                  @Param("status") MissionEntity.MissionStatus status,
+                                                  @Param("now") LocalDateTime now,
+                                                  @Param("afterEndDate") LocalDateTime afterEndDate,
+                                                  @Param("afterId") String afterId, Pageable pageable);
+
+    @Query("SELECT COUNT(m) FROM MissionEntity m WHERE m.status = :status AND m.startDate <= :now " +
+            "AND m.endDate > :now AND NOT EXISTS (SELECT 1 FROM UserMissionEntity um " +
+            "WHERE um.mission = m AND um.user.id = :userId)")
+    long countAvailableForUser(@Param("userId") String userId, @Param("status") MissionEntity.MissionStatus status,
+                               @Param("now") LocalDateTime now);
+
+    // Missions whose progress can still move: not expired and not past their end date.
+    List<MissionEntity> findByStatusNotAndEndDateAfter(MissionEntity.MissionStatus status, LocalDateTime now);
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.tunduh.timemanagement.repository;
+
+import com.tunduh.timemanagement.entity.SyncJobEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SyncJobRepository extends JpaRepository<SyncJobEntity, String> {
+    Optional<SyncJobEntity> findByIdAndUserId(String id, String userId);
+
+    long countByUserIdAndStatusIn(String userId, Collection<SyncJobEntity.JobStatus> statuses);
+
+    List<SyncJobEntity> findByNodeIdAndStatusInOrderByCreatedAt(String nodeId, Collection<SyncJobEntity.JobStatus> statuses);
+
+    List<SyncJobEntity> findByNodeIdAndStatusInAndCompletedAtBefore(String nodeId,
+                                                                   Collection<SyncJobEntity.JobStatus> statuses,
+                                                                   LocalDateTime completedBefore);
+}
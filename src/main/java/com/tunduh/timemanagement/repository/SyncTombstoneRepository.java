@@ -0,0 +1,28 @@
+package com.tunduh.timemanagement.repository;
+
+import com.tunduh.timemanagement.entity.SyncTombstoneEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstoneEntity, Long> {
+    @Query("SELECT d FROM SyncTombstoneEntity d " +
+            "WHERE d.userId = :userId AND d.changeXid < :visibleXid " +
+            "AND (d.changeXid > :sinceXid OR (d.changeXid = :sinceXid AND d.changeSeq > :sinceSeq)) " +
+            "ORDER BY d.changeXid, d.changeSeq")
+    List<SyncTombstoneEntity> findChangesSince(@Param("userId") String userId,
+                                               @Param("sinceXid") long sinceXid,
+                                               @Param("sinceSeq") long sinceSeq,
+                                               @Param("visibleXid") long visibleXid,
+                                               Pageable pageable);
+
+    // The oldest transaction still running. Every transaction with a lower id has committed or rolled back, so the
+    // changes below it can no longer grow.
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)", nativeQuery = true)
+    long findVisibleXidHorizon();
+}
@@ -0,0 +1,18 @@
+package com.tunduh.timemanagement.repository;
+
+import com.tunduh.timemanagement.entity.TaskGenerationLedgerEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TaskGenerationLedgerRepository extends JpaRepository<TaskGenerationLedgerEntity, String> {
+    Optional<TaskGenerationLedgerEntity> findByTemplateIdAndOccurrenceDate(String templateId, LocalDate occurrenceDate);
+
+    List<TaskGenerationLedgerEntity> findByTemplateIdInAndOccurrenceDateBetween(Collection<String> templateIds,
+                                                                              LocalDate from, LocalDate to);
+}
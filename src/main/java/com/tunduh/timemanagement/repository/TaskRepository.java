@@ -6,6 +6,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -27,6 +28,13 @@ public interface TaskRepository extends JpaRepository<TaskEntity, String>, JpaSp
 
     List<TaskEntity> findByIdIn(List<String> taskIds);
 
+    @Modifying
+    @Query("UPDATE TaskEntity t SET t.completedDurationSeconds = t.completedDurationSeconds + :seconds WHERE t.id = :taskId")
+    int addCompletedDuration(@Param("taskId") String taskId, @Param("seconds") long seconds);
+
+    @Query("SELECT t.completedDurationSeconds FROM TaskEntity t WHERE t.id = :taskId")
+    Long findCompletedDurationSeconds(@Param("taskId") String taskId);
+
     @Query("SELECT new map(DATE(t.createdAt) as date, COUNT(t) as count) " +
             "FROM TaskEntity t " +
             "WHERE t.user.id = :userId AND t.createdAt >= :startDate " +
@@ -50,27 +58,75 @@ public interface TaskRepository extends JpaRepository<TaskEntity, String>, JpaSp
             "AND (t.repetitionEndDate IS NULL OR t.repetitionEndDate >= :currentDate)")
     List<TaskEntity> findAllActiveRecurringTasks(@Param("currentDate") LocalDateTime currentDate);
 
+    @Query("SELECT t FROM TaskEntity t JOIN FETCH t.user u " +
+            "WHERE t.nextDueAt <= :now " +
+            "AND t.repetitionType != com.tunduh.timemanagement.entity.TaskEntity.RepetitionType.NONE " +
+            "AND t.id > :lastId AND t.id < :upperId " +
+            "ORDER BY t.id")
+    List<TaskEntity> findDueRecurringTasksAfter(@Param("now") LocalDateTime now,
+                                                @Param("lastId") String lastId,
+                                                @Param("upperId") String upperId,
+                                                Pageable pageable);
+
+    @Query("SELECT t FROM TaskEntity t JOIN FETCH t.user u " +
+            "WHERE t.nextDueComputedAt IS NULL " +
+            "AND t.repetitionType != com.tunduh.timemanagement.entity.TaskEntity.RepetitionType.NONE " +
+            "AND (t.repetitionEndDate IS NULL OR t.repetitionEndDate >= :currentDate) " +
+            "AND t.id > :lastId AND t.id < :upperId " +
+            "ORDER BY t.id")
+    List<TaskEntity> findRecurringTasksWithoutNextDueAfter(@Param("currentDate") LocalDateTime currentDate,
+                                                           @Param("lastId") String lastId,
+                                                           @Param("upperId") String upperId,
+                                                           Pageable pageable);
+
+    // Due times are derived from the user's zone; dropping them makes the generator derive them again.
+    @Modifying
+    @Query("UPDATE TaskEntity t SET t.nextDueAt = null, t.nextDueComputedAt = null WHERE t.user.id = :userId " +
+            "AND t.repetitionType != com.tunduh.timemanagement.entity.TaskEntity.RepetitionType.NONE")
+    int clearNextDue(@Param("userId") String userId);
+
+    @Query("SELECT t FROM TaskEntity t " +
+            "WHERE t.user.id = :userId " +
+            "AND t.repetitionType != com.tunduh.timemanagement.entity.TaskEntity.RepetitionType.NONE " +
+            "AND (t.repetitionStartDate IS NULL OR t.repetitionStartDate < :rangeEnd) " +
+            "AND (t.repetitionEndDate IS NULL OR t.repetitionEndDate >= :rangeStart)")
+    List<TaskEntity> findRecurringTemplatesForUserInRange(@Param("userId") String userId,
+                                                          @Param("rangeStart") LocalDateTime rangeStart,
+                                                          @Param("rangeEnd") LocalDateTime rangeEnd);
+
+    @Query("SELECT t FROM TaskEntity t " +
+            "WHERE t.user.id = :userId AND t.changeXid < :visibleXid " +
+            "AND (t.changeXid > :sinceXid OR (t.changeXid = :sinceXid AND t.changeSeq > :sinceSeq)) " +
+            "ORDER BY t.changeXid, t.changeSeq")
+    List<TaskEntity> findChangesSince(@Param("userId") String userId,
+                                      @Param("sinceXid") long sinceXid,
+                                      @Param("sinceSeq") long sinceSeq,
+                                      @Param("visibleXid") long visibleXid,
+                                      Pageable pageable);
+
+    List<TaskEntity> findByUserIdAndOccurrenceDateBetween(String userId, LocalDate from, LocalDate to);
+
     @Query("SELECT t FROM TaskEntity t " +
             "WHERE t.repetitionType = com.tunduh.timemanagement.entity.TaskEntity.RepetitionType.DAILY " +
             "AND (t.repetitionEndDate IS NULL OR t.repetitionEndDate >= :currentDate)")
     List<TaskEntity> findDailyRecurringTasks(@Param("currentDate") LocalDateTime currentDate);
 
-    @Query("SELECT t FROM TaskEntity t " +
-            "WHERE t.repetitionType = com.tunduh.timemanagement.entity.TaskEntity.RepetitionType.WEEKLY " +
-            "AND :dayOfWeek MEMBER OF t.repetitionDates " +
-            "AND (t.repetitionEndDate IS NULL OR t.repetitionEndDate >= :currentDate)")
+    @Query(value = "SELECT * FROM tasks t " +
+            "WHERE t.repetition_type = 'WEEKLY' " +
+            "AND (t.repetition_weekday_mask & (1 << (:dayOfWeek - 1))) <> 0 " +
+            "AND (t.repetition_end_date IS NULL OR t.repetition_end_date >= :currentDate)", nativeQuery = true)
     List<TaskEntity> findWeeklyRecurringTasks(@Param("currentDate") LocalDateTime currentDate, @Param("dayOfWeek") int dayOfWeek);
 
-    @Query("SELECT t FROM TaskEntity t " +
-            "WHERE t.repetitionType = com.tunduh.timemanagement.entity.TaskEntity.RepetitionType.MONTHLY " +
-            "AND :dayOfMonth MEMBER OF t.repetitionDates " +
-            "AND (t.repetitionEndDate IS NULL OR t.repetitionEndDate >= :currentDate)")
+    @Query(value = "SELECT * FROM tasks t " +
+            "WHERE t.repetition_type = 'MONTHLY' " +
+            "AND (t.repetition_month_day_mask & (1 << (:dayOfMonth - 1))) <> 0 " +
+            "AND (t.repetition_end_date IS NULL OR t.repetition_end_date >= :currentDate)", nativeQuery = true)
     List<TaskEntity> findMonthlyRecurringTasks(@Param("currentDate") LocalDateTime currentDate, @Param("dayOfMonth") int dayOfMonth);
 
-    @Query("SELECT t FROM TaskEntity t " +
-            "WHERE t.repetitionType = com.tunduh.timemanagement.entity.TaskEntity.RepetitionType.YEARLY " +
-            "AND :dayOfYear MEMBER OF t.repetitionDates " +
-            "AND (t.repetitionEndDate IS NULL OR t.repetitionEndDate >= :currentDate)")
+    @Query(value = "SELECT * FROM tasks t " +
+            "WHERE t.repetition_type = 'YEARLY' " +
+            "AND get_bit(t.repetition_year_day_mask, :dayOfYear - 1) = 1 " +
+            "AND (t.repetition_end_date IS NULL OR t.repetition_end_date >= :currentDate)", nativeQuery = true)
     List<TaskEntity> findYearlyRecurringTasks(@Param("currentDate") LocalDateTime currentDate, @Param("dayOfYear") int dayOfYear);
 
     @Query("SELECT t FROM TaskEntity t " +
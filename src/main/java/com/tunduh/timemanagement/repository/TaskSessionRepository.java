@@ -5,9 +5,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,4 +21,21 @@ public interface TaskSessionRepository extends JpaRepository<TaskSessionEntity,
     void deleteByTaskId(String taskId);
     Optional<TaskSessionEntity> findByIdAndTaskUserId(String sessionId, String userId);
     List<TaskSessionEntity> findByTaskUserIdAndStartTimeAfter(String userId, LocalDateTime startTime);
+
+    @Query("SELECT s FROM TaskSessionEntity s JOIN FETCH s.task t " +
+            "WHERE t.user.id = :userId AND s.changeXid < :visibleXid " +
+            "AND (s.changeXid > :sinceXid OR (s.changeXid = :sinceXid AND s.changeSeq > :sinceSeq)) " +
+            "ORDER BY s.changeXid, s.changeSeq")
+    List<TaskSessionEntity> findChangesSince(@Param("userId") String userId,
+                                             @Param("sinceXid") long sinceXid,
+                                             @Param("sinceSeq") long sinceSeq,
+                                             @Param("visibleXid") long visibleXid,
+                                             Pageable pageable);
+
+    @Query("SELECT s FROM TaskSessionEntity s JOIN FETCH s.task t WHERE t.user.id = :userId AND s.status IN :statuses")
+    List<TaskSessionEntity> findByUserIdAndStatusIn(@Param("userId") String userId,
+                                                    @Param("statuses") Collection<TaskSessionEntity.SessionStatus> statuses);
+
+    @Query("SELECT s FROM TaskSessionEntity s JOIN FETCH s.task t JOIN FETCH t.user WHERE s.status IN :statuses")
+    List<TaskSessionEntity> findByStatusInWithTaskAndUser(@Param("statuses") Collection<TaskSessionEntity.SessionStatus> statuses);
 }
\ No newline at end of file
@@ -3,9 +3,14 @@ package com.tunduh.timemanagement.repository;
 import com.tunduh.timemanagement.entity.UserMissionEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,7 +23,19 @@ public interface UserMissionRepository extends JpaRepository<UserMissionEntity,
 
     List<UserMissionEntity> findByUserId(String userId);
 
+    @EntityGraph(attributePaths = {"mission", "user"})
     Page<UserMissionEntity> findByUserId(String userId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"mission", "user"})
     Page<UserMissionEntity> findByUserIdAndIsCompleted(String userId, boolean b, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"mission"})
+    @Query("SELECT um FROM UserMissionEntity um WHERE um.user.id IN :userIds AND um.isCompleted = false " +
+            "AND um.expiredAt IS NULL")
+    List<UserMissionEntity> findOpenByUserIds(@Param("userIds") Collection<String> userIds);
+
+    @Modifying
+    @Query("UPDATE UserMissionEntity um SET um.expiredAt = null WHERE um.mission.id = :missionId " +
+            "AND um.expiredAt IS NOT NULL")
+    int reopenExpired(@Param("missionId") String missionId);
 }
\ No newline at end of file
@@ -0,0 +1,380 @@
+package com.tunduh.timemanagement.service;
+
+import com.tunduh.timemanagement.entity.TaskSessionEntity;
+import com.tunduh.timemanagement.event.SessionsSyncedEvent;
+import com.tunduh.timemanagement.repository.TaskSessionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// Holds the IN_PROGRESS and PAUSED sessions of this process so timer operations do not hit the database.
+// Transitions are written back to task_sessions in batches; the database copy lags by at most one flush
+// interval and is the source the registry is rebuilt from on startup. Each entry remembers the row version it was
+// based on: a flush only applies while the row is still at that version. When another node or writer moved the row
+// on, the flush reloads it and re-applies the transition this node acknowledged if it is the later one, or takes the
+// row's state otherwise. Operations check the row version first, so a stale local copy is never acted on.
+@Component
+@RequiredArgsConstructor
+public class ActiveSessionRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(ActiveSessionRegistry.class);
+    private static final int STRIPES = 64;
+
+    private static final String FLUSH_SQL = "UPDATE task_sessions SET status = ?, start_time = ?, " +
+            "duration_in_seconds = ?, updated_at = ?, version = version + 1 " +
+            "WHERE id = ? AND version = ? AND status <> 'COMPLETED'";
+    private static final String SELECT_ROWS_SQL = "SELECT id, status, start_time, duration_in_seconds, updated_at, " +
+            "version FROM task_sessions WHERE id = ANY(?)";
+
+    private final TaskSessionRepository taskSessionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, ActiveSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> sessionsByUser = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    // Sessions whose flush is running, including the reload after a version conflict.
+    private final Set<String> flushing = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    @PostConstruct
+    void init() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        Gauge.builder("sessions.active", sessions, Map::size).register(meterRegistry);
+        Gauge.builder("sessions.flush.pending", dirty, Set::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<TaskSessionEntity> active = taskSessionRepository.findByStatusInWithTaskAndUser(
+                List.of(TaskSessionEntity.SessionStatus.IN_PROGRESS, TaskSessionEntity.SessionStatus.PAUSED));
+        active.forEach(this::register);
+        logger.info("Rebuilt active session registry with {} sessions", active.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionsSynced(SessionsSyncedEvent event) {
+        event.sessions().forEach(this::register);
+    }
+
+    public void register(TaskSessionEntity session) {
+        if (session.getStatus() == TaskSessionEntity.SessionStatus.COMPLETED) {
+            remove(session.getId());
+            return;
+        }
+        ActiveSession active = ActiveSession.from(session);
+        ReentrantLock lock = lockFor(active.getId());
+        lock.lock();
+        try {
+            sessions.put(active.getId(), active);
+            sessionsByUser.computeIfAbsent(active.getUserId(), id -> ConcurrentHashMap.newKeySet()).add(active.getId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Applies an operation to a live session under its stripe lock and queues it for flushing. Empty when the
+    // session is not registered here, belongs to another user, or its row was completed or written elsewhere since
+    // the entry was based on it; such an entry is evicted so the caller can register the row again. An entry with a
+    // transition still to flush is kept, since the flush reconciles it with the row.
+    public <T> Optional<T> update(String sessionId, String userId, Function<ActiveSession, T> operation) {
+        if (!sessions.containsKey(sessionId)) {
+            return Optional.empty();
+        }
+        SessionRow row = loadRows(List.of(sessionId)).get(sessionId);
+        ReentrantLock lock = lockFor(sessionId);
+        lock.lock();
+        try {
+            ActiveSession active = sessions.get(sessionId);
+            if (active == null || !active.getUserId().equals(userId)) {
+                return Optional.empty();
+            }
+            boolean unflushed = dirty.contains(sessionId) || flushing.contains(sessionId);
+            if (row == null || row.status() == TaskSessionEntity.SessionStatus.COMPLETED
+                    || (!unflushed && row.version() > active.getVersion())) {
+                if (unflushed) {
+                    logger.warn("Dropped {} of session {}: it was completed or deleted elsewhere",
+                            active.getStatus(), sessionId);
+                }
+                remove(sessionId);
+                return Optional.empty();
+            }
+            T result = operation.apply(active);
+            active.setUpdatedAt(LocalDateTime.now());
+            dirty.add(sessionId);
+            return Optional.ofNullable(result);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Optional<ActiveSession> find(String sessionId, String userId) {
+        ReentrantLock lock = lockFor(sessionId);
+        lock.lock();
+        try {
+            ActiveSession active = sessions.get(sessionId);
+            return active != null && active.getUserId().equals(userId) ? Optional.of(active.copy()) : Optional.empty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<ActiveSession> findByUser(String userId) {
+        List<ActiveSession> result = new ArrayList<>();
+        for (String sessionId : sessionsByUser.getOrDefault(userId, Set.of())) {
+            find(sessionId, userId).ifPresent(result::add);
+        }
+        return result;
+    }
+
+    public void remove(String sessionId) {
+        ReentrantLock lock = lockFor(sessionId);
+        lock.lock();
+        try {
+            ActiveSession active = sessions.remove(sessionId);
+            dirty.remove(sessionId);
+            if (active != null) {
+                Set<String> userSessions = sessionsByUser.get(active.getUserId());
+                if (userSessions != null) {
+                    userSessions.remove(sessionId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void evictTask(String taskId) {
+        for (ActiveSession active : new ArrayList<>(sessions.values())) {
+            if (active.getTaskId().equals(taskId)) {
+                remove(active.getId());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.sessions.flush-interval-ms:1000}")
+    public void flush() {
+        List<ActiveSession> pending = new ArrayList<>();
+        Iterator<String> iterator = dirty.iterator();
+        while (iterator.hasNext()) {
+            String sessionId = iterator.next();
+            iterator.remove();
+            ReentrantLock lock = lockFor(sessionId);
+            lock.lock();
+            try {
+                ActiveSession active = sessions.get(sessionId);
+                if (active != null) {
+                    pending.add(active.copy());
+                    flushing.add(sessionId);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        int[][] counts;
+        try {
+            counts = jdbcTemplate.batchUpdate(FLUSH_SQL, pending, pending.size(), (ps, active) -> {
+                ps.setString(1, active.getStatus().name());
+                ps.setTimestamp(2, Timestamp.valueOf(active.getStartTime()));
+                ps.setLong(3, active.getDurationInSeconds());
+                ps.setTimestamp(4, Timestamp.valueOf(active.getUpdatedAt()));
+                ps.setString(5, active.getId());
+                ps.setLong(6, active.getVersion());
+            });
+        } catch (RuntimeException e) {
+            pending.forEach(active -> {
+                flushing.remove(active.getId());
+                dirty.add(active.getId());
+            });
+            logger.error("Failed to flush {} active sessions, will retry", pending.size(), e);
+            return;
+        }
+
+        List<ActiveSession> stale = new ArrayList<>();
+        for (int i = 0; i < pending.size(); i++) {
+            ActiveSession flushed = pending.get(i);
+            if (counts[0][i] > 0) {
+                advanceVersion(flushed);
+                flushing.remove(flushed.getId());
+            } else {
+                stale.add(flushed);
+            }
+        }
+        if (!stale.isEmpty()) {
+            resolveStale(stale);
+            stale.forEach(active -> flushing.remove(active.getId()));
+        }
+    }
+
+    // The rows were written elsewhere after the entries were based on them. A transition this node acknowledged
+    // later than the row's last write is re-based on the row and flushed again; otherwise the row wins, and an entry
+    // whose row was completed or deleted is dropped.
+    private void resolveStale(List<ActiveSession> stale) {
+        Map<String, SessionRow> rows;
+        try {
+            rows = loadRows(stale.stream().map(ActiveSession::getId).toList());
+        } catch (RuntimeException e) {
+            stale.forEach(active -> dirty.add(active.getId()));
+            logger.error("Failed to reload {} active sessions after a version conflict, will retry", stale.size(), e);
+            return;
+        }
+        for (ActiveSession flushed : stale) {
+            ReentrantLock lock = lockFor(flushed.getId());
+            lock.lock();
+            try {
+                ActiveSession active = sessions.get(flushed.getId());
+                if (active == null) {
+                    continue;
+                }
+                SessionRow row = rows.get(flushed.getId());
+                if (row == null || row.status() == TaskSessionEntity.SessionStatus.COMPLETED) {
+                    remove(active.getId());
+                    logger.warn("Dropped {} of session {}: it was completed or deleted elsewhere",
+                            active.getStatus(), active.getId());
+                } else if (row.updatedAt() == null || active.getUpdatedAt().isAfter(row.updatedAt())) {
+                    active.setVersion(row.version());
+                    dirty.add(active.getId());
+                    logger.warn("Re-applying {} of session {} over version {} written elsewhere",
+                            active.getStatus(), active.getId(), row.version());
+                } else {
+                    logger.warn("Rejected {} of session {}: version {} written elsewhere is newer ({})",
+                            active.getStatus(), active.getId(), row.version(), row.status());
+                    active.setStatus(row.status());
+                    active.setStartTime(row.startTime());
+                    active.setDurationInSeconds(row.durationInSeconds());
+                    active.setUpdatedAt(row.updatedAt());
+                    active.setVersion(row.version());
+                    dirty.remove(active.getId());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private Map<String, SessionRow> loadRows(List<String> sessionIds) {
+        Map<String, SessionRow> rows = new HashMap<>();
+        jdbcTemplate.query(SELECT_ROWS_SQL, rs -> {
+            Timestamp updatedAt = rs.getTimestamp("updated_at");
+            rows.put(rs.getString("id"), new SessionRow(
+                    TaskSessionEntity.SessionStatus.valueOf(rs.getString("status")),
+                    rs.getTimestamp("start_time").toLocalDateTime(),
+                    rs.getLong("duration_in_seconds"),
+                    updatedAt != null ? updatedAt.toLocalDateTime() : null,
+                    rs.getLong("version")));
+        }, (Object) sessionIds.toArray(new String[0]));
+        return rows;
+    }
+
+    // The row now carries the flushed state at the next version; later changes to the entry are based on it.
+    private void advanceVersion(ActiveSession flushed) {
+        ReentrantLock lock = lockFor(flushed.getId());
+        lock.lock();
+        try {
+            ActiveSession active = sessions.get(flushed.getId());
+            if (active != null && active.getVersion() == flushed.getVersion()) {
+                active.setVersion(flushed.getVersion() + 1);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private ReentrantLock lockFor(String sessionId) {
+        return locks[(sessionId.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    private record SessionRow(TaskSessionEntity.SessionStatus status, LocalDateTime startTime, long durationInSeconds,
+                              LocalDateTime updatedAt, long version) {
+    }
+
+    @Data
+    public static class ActiveSession {
+        private String id;
+        private String taskId;
+        private String userId;
+        private LocalDateTime startTime;
+        private Long durationInSeconds;
+        private TaskSessionEntity.SessionStatus status;
+        private String notes;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+        private long version;
+
+        public static ActiveSession from(TaskSessionEntity session) {
+            ActiveSession active = new ActiveSession();
+            active.setId(session.getId());
+            active.setTaskId(session.getTask().getId());
+            active.setUserId(session.getTask().getUser().getId());
+            active.setStartTime(session.getStartTime());
+            active.setDurationInSeconds(session.getDurationInSeconds());
+            active.setStatus(session.getStatus());
+            active.setNotes(session.getNotes());
+            active.setCreatedAt(session.getCreatedAt());
+            active.setUpdatedAt(session.getUpdatedAt() != null ? session.getUpdatedAt() : LocalDateTime.now());
+            active.setVersion(session.getVersion() != null ? session.getVersion() : 0L);
+            return active;
+        }
+
+        ActiveSession copy() {
+            ActiveSession copy = new ActiveSession();
+            copy.setId(id);
+            copy.setTaskId(taskId);
+            copy.setUserId(userId);
+            copy.setStartTime(startTime);
+            copy.setDurationInSeconds(durationInSeconds);
+            copy.setStatus(status);
+            copy.setNotes(notes);
+            copy.setCreatedAt(createdAt);
+            copy.setUpdatedAt(updatedAt);
+            copy.setVersion(version);
+            return copy;
+        }
+
+        // False once the row has been written at a later version than this entry was based on.
+        public boolean isCurrentFor(TaskSessionEntity session) {
+            return session.getVersion() == null || version >= session.getVersion();
+        }
+
+        public long elapsedSeconds(LocalDateTime now) {
+            return status == TaskSessionEntity.SessionStatus.IN_PROGRESS
+                    ? durationInSeconds + Duration.between(startTime, now).getSeconds()
+                    : durationInSeconds;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.tunduh.timemanagement.service;
+
+import com.tunduh.timemanagement.entity.MissionEntity;
+import com.tunduh.timemanagement.event.CatalogChangedEvent;
+import com.tunduh.timemanagement.repository.MissionRepository;
+import com.tunduh.timemanagement.repository.ShopItemRepository;
+import com.tunduh.timemanagement.utils.catalog.CatalogMission;
+import com.tunduh.timemanagement.utils.catalog.CatalogShopItem;
+import com.tunduh.timemanagement.utils.catalog.CatalogSnapshot;
+import com.tunduh.timemanagement.utils.criteria.MissionCriteria;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Read-through copies of the mission and shop catalogs. Each catalog is loaded whole into an immutable snapshot the
+// first time it is read, and admin writes patch the affected item into a new snapshot after commit, so readers never
+// see a half applied change and never wait for a reload. A catalog larger than app.catalog.max-items is not held;
+// its reads go to the database as before. Every node keeps its own copy; the periodic rebuild brings in changes
+// made on other nodes.
+@Service
+@RequiredArgsConstructor
+public class CatalogCache {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogCache.class);
+
+    private final MissionRepository missionRepository;
+    private final ShopItemRepository shopItemRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.catalog.max-items:10000}")
+    private int maxItems;
+
+    private Slot<CatalogMission> missions;
+    private Slot<CatalogShopItem> shopItems;
+
+    @PostConstruct
+    void init() {
+        missions = new Slot<>(CatalogChangedEvent.Catalog.MISSIONS, missionRepository::count,
+                () -> missionRepository.findAll(Sort.by("createdAt", "id")).stream().map(CatalogMission::of).toList(),
+                id -> missionRepository.findById(id).map(CatalogMission::of),
+                CatalogMission::id, CatalogMission.SORT_KEYS);
+        shopItems = new Slot<>(CatalogChangedEvent.Catalog.SHOP_ITEMS, shopItemRepository::count,
+                () -> shopItemRepository.findAll(Sort.by("createdAt", "id")).stream().map(CatalogShopItem::of).toList(),
+                id -> shopItemRepository.findById(id).map(CatalogShopItem::of),
+                CatalogShopItem::id, CatalogShopItem.SORT_KEYS);
+    }
+
+    // Empty when the catalog is too large to hold; the caller then queries the repository.
+    public Optional<CatalogSnapshot<CatalogMission>> missions() {
+        return missions.get();
+    }
+
+    public Optional<CatalogSnapshot<CatalogShopItem>> shopItems() {
+        return shopItems.get();
+    }
+
+    // Completion rules of the missions whose progress can still move, for the batch evaluators.
+    public List<MissionCriteria> liveMissionCriteria(LocalDateTime now) {
+        return missions()
+                .map(snapshot -> snapshot.items().stream().filter(mission -> mission.isLive(now))
+                        .map(CatalogMission::criteria).toList())
+                .orElseGet(() -> missionRepository.findByStatusNotAndEndDateAfter(MissionEntity.MissionStatus.EXPIRED,
+                        now).stream().map(MissionCriteria::of).toList());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.refresh-interval-ms:600000}",
+            initialDelayString = "${app.catalog.refresh-interval-ms:600000}")
+    public void rebuild() {
+        missions.rebuild();
+        shopItems.rebuild();
+    }
+
+    // After commit, so a rolled back write never reaches the snapshot.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        Slot<?> slot = event.catalog() == CatalogChangedEvent.Catalog.MISSIONS ? missions : shopItems;
+        if (event.id() == null) {
+            slot.rebuild();
+        } else {
+            slot.refresh(event.id());
+        }
+    }
+
+    private final class Slot<T> {
+        private final String name;
+        private final Supplier<Long> count;
+        private final Supplier<List<T>> loadAll;
+        private final Function<String, Optional<T>> loadOne;
+        private final Function<T, String> idOf;
+        private final Map<String, Comparator<T>> sortKeys;
+        private final Counter hits;
+        private final Counter misses;
+        private final Timer rebuildTimer;
+
+        private volatile CatalogSnapshot<T> snapshot;
+        private volatile boolean oversized;
+
+        Slot(CatalogChangedEvent.Catalog catalog, Supplier<Long> count, Supplier<List<T>> loadAll,
+             Function<String, Optional<T>> loadOne, Function<T, String> idOf, Map<String, Comparator<T>> sortKeys) {
+            this.name = catalog.name().toLowerCase();
+            this.count = count;
+            this.loadAll = loadAll;
+            this.loadOne = loadOne;
+            this.idOf = idOf;
+            this.sortKeys = sortKeys;
+            this.hits = meterRegistry.counter("catalog.requests", "catalog", name, "result", "hit");
+            this.misses = meterRegistry.counter("catalog.requests", "catalog", name, "result", "miss");
+            this.rebuildTimer = meterRegistry.timer("catalog.rebuild", "catalog", name);
+            Gauge.builder("catalog.hit.ratio", this, Slot::hitRatio).tag("catalog", name).register(meterRegistry);
+            Gauge.builder("catalog.size", this, slot -> slot.snapshot != null ? slot.snapshot.size() : 0)
+                    .tag("catalog", name).register(meterRegistry);
+        }
+
+        Optional<CatalogSnapshot<T>> get() {
+            CatalogSnapshot<T> current = snapshot;
+            if (current != null) {
+                hits.increment();
+                return Optional.of(current);
+            }
+            misses.increment();
+            if (oversized) {
+                return Optional.empty();
+            }
+            loadIfAbsent();
+            return Optional.ofNullable(snapshot);
+        }
+
+        // Concurrent first reads load the catalog once.
+        synchronized void loadIfAbsent() {
+            if (snapshot == null && !oversized) {
+                rebuild();
+            }
+        }
+
+        synchronized void rebuild() {
+            long startedAt = System.nanoTime();
+            long items = count.get();
+            if (items > maxItems) {
+                if (!oversized) {
+                    logger.warn("Catalog {} has {} items, more than the {} held in memory; serving it from the database",
+                            name, items, maxItems);
+                }
+                oversized = true;
+                snapshot = null;
+                return;
+            }
+            snapshot = CatalogSnapshot.of(loadAll.get(), idOf, sortKeys);
+            oversized = false;
+            rebuildTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            logger.debug("Loaded catalog {}: {} items", name, snapshot.size());
+        }
+
+        // Copy-on-write patch of one item; a catalog not held yet is loaded whole on its next read.
+        synchronized void refresh(String id) {
+            CatalogSnapshot<T> current = snapshot;
+            if (current == null) {
+                return;
+            }
+            CatalogSnapshot<T> next = current.with(id, loadOne.apply(id).orElse(null));
+            if (next.size() > maxItems) {
+                rebuild();
+                return;
+            }
+            snapshot = next;
+        }
+
+        double hitRatio() {
+            double requests = hits.count() + misses.count();
+            return requests == 0 ? 0 : hits.count() / requests;
+        }
+    }
+}
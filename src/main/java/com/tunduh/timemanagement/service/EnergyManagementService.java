@@ -1,8 +1,10 @@
 package com.tunduh.timemanagement.service;
 
 import com.tunduh.timemanagement.entity.UserEntity;
+import com.tunduh.timemanagement.event.UserBalanceChangedEvent;
 import com.tunduh.timemanagement.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -11,6 +13,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class EnergyManagementService {
 
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public void decreaseEnergy(String userId, int energyToDecrease) {
@@ -20,6 +23,7 @@ public class EnergyManagementService {
         int newEnergy = user.getEnergy() - energyToDecrease;
         user.setEnergy(newEnergy);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserBalanceChangedEvent(userId, user.getEnergy(), user.getUserPoint()));
     }
 
     @Transactional
@@ -30,5 +34,6 @@ public class EnergyManagementService {
         int newEnergy = user.getEnergy() + energyToIncrease;
         user.setEnergy(newEnergy);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserBalanceChangedEvent(userId, user.getEnergy(), user.getUserPoint()));
     }
 }
\ No newline at end of file
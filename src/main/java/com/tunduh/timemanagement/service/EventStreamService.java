@@ -0,0 +1,213 @@
+package com.tunduh.timemanagement.service;
+
+import com.tunduh.timemanagement.event.SessionChangedEvent;
+import com.tunduh.timemanagement.event.TaskCompletedEvent;
+import com.tunduh.timemanagement.event.UserBalanceChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Pushes per-user events to open SSE connections. Connections are async servlet requests, so an idle stream
+// holds no thread. Publishing never blocks: after the publishing transaction commits, an event is only queued on
+// each of the user's connections, in publish order. Every connection has a bounded queue drained by at most one
+// sender thread at a time, so a slow or half-open client only delays its own stream. A connection whose queue
+// overflows or whose send stalls past the send timeout is completed and dropped; the client reconnects.
+@Service
+@RequiredArgsConstructor
+public class EventStreamService {
+    private static final Logger logger = LoggerFactory.getLogger(EventStreamService.class);
+    private static final long IDLE = Long.MIN_VALUE;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Set<Subscriber>> subscribersByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private ExecutorService senders;
+
+    @Value("${app.events.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${app.events.fan-out-threads:4}")
+    private int fanOutThreads;
+
+    @Value("${app.events.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.events.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @PostConstruct
+    void init() {
+        senders = Executors.newFixedThreadPool(Math.max(1, fanOutThreads));
+        Gauge.builder("events.connections", connections, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+        subscribersByUser.values().forEach(subscribers ->
+                subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    public SseEmitter subscribe(String userId) {
+        Subscriber subscriber = new Subscriber(new SseEmitter(emitterTimeoutMs));
+        Set<Subscriber> subscribers = subscribersByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet());
+        subscribers.add(subscriber);
+        connections.incrementAndGet();
+
+        Runnable unsubscribe = () -> {
+            subscriber.closed.set(true);
+            if (subscribers.remove(subscriber)) {
+                connections.decrementAndGet();
+            }
+            subscribersByUser.computeIfPresent(userId, (id, current) -> current.isEmpty() ? null : current);
+        };
+        subscriber.emitter.onCompletion(unsubscribe);
+        subscriber.emitter.onTimeout(unsubscribe);
+        subscriber.emitter.onError(error -> unsubscribe.run());
+
+        subscriber.enqueue(SseEmitter.event().name("connected").data(userId));
+        return subscriber.emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionChanged(SessionChangedEvent event) {
+        publish(event.userId(), "session", event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskCompleted(TaskCompletedEvent event) {
+        publish(event.userId(), "task-completed", event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBalanceChanged(UserBalanceChangedEvent event) {
+        publish(event.userId(), "balance", event);
+    }
+
+    // Keeps proxies and load balancers from closing idle streams. A heartbeat that does not fit in a queue means
+    // the client has stopped reading, and the stream is dropped.
+    @Scheduled(fixedDelayString = "${app.events.heartbeat-ms:25000}")
+    public void heartbeat() {
+        subscribersByUser.values().forEach(subscribers ->
+                subscribers.forEach(subscriber -> subscriber.enqueue(SseEmitter.event().comment("heartbeat"))));
+    }
+
+    // A blocked write only ends when the container's socket timeout fires; completing the stream stops anything
+    // more from being queued for it and releases the connection.
+    @Scheduled(fixedDelayString = "${app.events.stall-check-ms:1000}")
+    public void dropStalledStreams() {
+        long now = System.nanoTime();
+        subscribersByUser.values().forEach(subscribers -> subscribers.forEach(subscriber -> {
+            if (subscriber.sendStalled(now)) {
+                subscriber.drop("send timed out");
+            }
+        }));
+    }
+
+    // Queued under the user's subscriber set so every connection of the user sees the same order.
+    private void publish(String userId, String name, Object payload) {
+        Set<Subscriber> subscribers = subscribersByUser.get(userId);
+        if (subscribers == null || subscribers.isEmpty()) {
+            return;
+        }
+        synchronized (subscribers) {
+            subscribers.forEach(subscriber -> subscriber.enqueue(SseEmitter.event().name(name).data(payload)));
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue =
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile long sendStartedAt = IDLE;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                drop("event queue is full");
+                return;
+            }
+            scheduleDrain();
+        }
+
+        boolean sendStalled(long now) {
+            long startedAt = sendStartedAt;
+            return startedAt != IDLE && now - startedAt > TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        }
+
+        void drop(String reason) {
+            if (closed.compareAndSet(false, true)) {
+                queue.clear();
+                meterRegistry.counter("events.connections.dropped").increment();
+                logger.debug("Dropping event stream: {}", reason);
+                emitter.complete();
+            }
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    sendStartedAt = System.nanoTime();
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        logger.debug("Dropping closed event stream: {}", e.getMessage());
+                        closed.set(true);
+                        emitter.completeWithError(e);
+                    } finally {
+                        sendStartedAt = IDLE;
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            // An event queued after the last poll but before the flag was cleared found the drain still running.
+            if (!closed.get() && !queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.tunduh.timemanagement.service;
+
+import com.tunduh.timemanagement.entity.IdempotencyKeyEntity;
+import com.tunduh.timemanagement.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+// Remembers responses per (user, Idempotency-Key). Small completed responses are kept in an LRU bounded by entry
+// count and body bytes in front of the idempotency_keys table; larger ones are served from the table. The table also
+// holds the in-flight reservation that makes concurrent retries of the same key wait for the first one instead of
+// running the request twice. A reservation is only held for a short lease, so a node that dies before completing or
+// releasing it blocks retries for minutes rather than for the whole TTL.
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final String DELETE_EXPIRED_KEY_SQL = "DELETE FROM idempotency_keys " +
+            "WHERE user_id = ? AND idempotency_key = ? AND (expires_at <= ? " +
+            "OR (status_code IS NULL AND (reserved_until IS NULL OR reserved_until <= ?)))";
+    private static final String RESERVE_SQL = "INSERT INTO idempotency_keys (id, user_id, idempotency_key, " +
+            "request_hash, created_at, expires_at, reserved_until) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (user_id, idempotency_key) DO NOTHING";
+    private static final String COMPLETE_SQL = "UPDATE idempotency_keys SET status_code = ?, content_type = ?, " +
+            "response_body = ?, reserved_until = NULL WHERE user_id = ? AND idempotency_key = ? AND status_code IS NULL";
+    private static final String RELEASE_SQL = "DELETE FROM idempotency_keys " +
+            "WHERE user_id = ? AND idempotency_key = ? AND status_code IS NULL";
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    // Longer than any request should take; a reservation older than this is taken over by the next retry.
+    @Value("${app.idempotency.in-flight-seconds:300}")
+    private long inFlightSeconds;
+
+    @Value("${app.idempotency.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${app.idempotency.cache-max-bytes:67108864}")
+    private long cacheMaxBytes;
+
+    @Value("${app.idempotency.cache-max-body-bytes:16384}")
+    private int cacheMaxBodyBytes;
+
+    private Map<String, StoredResponse> cache;
+    private long cachedBytes;
+
+    @PostConstruct
+    void init() {
+        cache = new LinkedHashMap<>(16, 0.75f, true);
+        Gauge.builder("idempotency.cache.size", this, service -> service.cacheSize()).register(meterRegistry);
+        Gauge.builder("idempotency.cache.bytes", this, service -> service.cachedBytes()).register(meterRegistry);
+    }
+
+    public Optional<StoredResponse> find(String userId, String key) {
+        LocalDateTime now = LocalDateTime.now();
+        String cacheKey = cacheKey(userId, key);
+        synchronized (cache) {
+            StoredResponse cached = cache.get(cacheKey);
+            if (cached != null) {
+                if (cached.expiresAt().isAfter(now)) {
+                    meterRegistry.counter("idempotency.lookups", "result", "hit", "source", "memory").increment();
+                    return Optional.of(cached);
+                }
+                forget(cacheKey);
+            }
+        }
+
+        Optional<StoredResponse> stored = idempotencyKeyRepository.findActive(userId, key, now).map(StoredResponse::of);
+        if (stored.isPresent()) {
+            meterRegistry.counter("idempotency.lookups", "result", "hit", "source", "database").increment();
+            if (stored.get().completed()) {
+                remember(cacheKey, stored.get());
+            }
+        } else {
+            meterRegistry.counter("idempotency.lookups", "result", "miss", "source", "database").increment();
+        }
+        return stored;
+    }
+
+    // Claims the key for a new request; false means another request holds or completed it in the meantime. An
+    // expired response or a reservation whose lease lapsed is removed first, so its key can be claimed again.
+    public boolean reserve(String userId, String key, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update(DELETE_EXPIRED_KEY_SQL, userId, key, Timestamp.valueOf(now), Timestamp.valueOf(now));
+        return jdbcTemplate.update(RESERVE_SQL, UUID.randomUUID().toString(), userId, key, requestHash,
+                Timestamp.valueOf(now), Timestamp.valueOf(now.plusHours(ttlHours)),
+                Timestamp.valueOf(now.plusSeconds(inFlightSeconds))) == 1;
+    }
+
+    public void complete(String userId, String key, String requestHash, int statusCode, String contentType, byte[] body) {
+        if (jdbcTemplate.update(COMPLETE_SQL, statusCode, contentType, body, userId, key) == 0) {
+            // The reservation lapsed and a retry took the key over; its response is the one that is kept.
+            logger.warn("Idempotency key of user {} was taken over before its request completed", userId);
+            return;
+        }
+        remember(cacheKey(userId, key), new StoredResponse(requestHash, statusCode, contentType, body,
+                LocalDateTime.now().plusHours(ttlHours)));
+    }
+
+    // Drops an unfinished reservation so the client can retry the request.
+    public void release(String userId, String key) {
+        jdbcTemplate.update(RELEASE_SQL, userId, key);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = idempotencyKeyRepository.deleteExpired(now);
+        synchronized (cache) {
+            cache.entrySet().removeIf(entry -> {
+                if (entry.getValue().expiresAt().isAfter(now)) {
+                    return false;
+                }
+                cachedBytes -= bodySize(entry.getValue());
+                return true;
+            });
+        }
+        if (purged > 0) {
+            logger.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    // Evicts least recently used responses until both the entry and the byte bound hold again.
+    private void remember(String cacheKey, StoredResponse response) {
+        if (bodySize(response) > cacheMaxBodyBytes) {
+            return;
+        }
+        synchronized (cache) {
+            forget(cacheKey);
+            cache.put(cacheKey, response);
+            cachedBytes += bodySize(response);
+            Iterator<StoredResponse> eldest = cache.values().iterator();
+            while (eldest.hasNext() && (cache.size() > cacheSize || cachedBytes > cacheMaxBytes)) {
+                cachedBytes -= bodySize(eldest.next());
+                eldest.remove();
+            }
+        }
+    }
+
+    private void forget(String cacheKey) {
+        synchronized (cache) {
+            StoredResponse removed = cache.remove(cacheKey);
+            if (removed != null) {
+                cachedBytes -= bodySize(removed);
+            }
+        }
+    }
+
+    private int cacheSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private long cachedBytes() {
+        synchronized (cache) {
+            return cachedBytes;
+        }
+    }
+
+    private static int bodySize(StoredResponse response) {
+        return response.body() != null ? response.body().length : 0;
+    }
+
+    private String cacheKey(String userId, String key) {
+        return userId + '\u0000' + key;
+    }
+
+    public record StoredResponse(String requestHash, Integer statusCode, String contentType, byte[] body,
+                                 LocalDateTime expiresAt) {
+        static StoredResponse of(IdempotencyKeyEntity entity) {
+            return new StoredResponse(entity.getRequestHash(), entity.getStatusCode(), entity.getContentType(),
+                    entity.getResponseBody(), entity.getExpiresAt());
+        }
+
+        public boolean completed() {
+            return statusCode != null;
+        }
+    }
+}
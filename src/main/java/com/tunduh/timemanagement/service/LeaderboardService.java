@@ -0,0 +1,203 @@
+package com.tunduh.timemanagement.service;
+
+import com.tunduh.timemanagement.dto.response.LeaderboardEntryResponse;
+import com.tunduh.timemanagement.dto.response.LeaderboardResponse;
+import com.tunduh.timemanagement.event.UserBalanceChangedEvent;
+import com.tunduh.timemanagement.utils.ScoreBoard;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Points leaderboards held in memory: the global board ranks current balances, the weekly board ranks points
+// earned since the start of the week. Both are loaded from the database at startup and on a fixed interval, and
+// follow balance changes in between, so top-N and rank reads never query the users table. Every node keeps its own
+// copy; the periodic rebuild brings in changes made on other nodes.
+@Service
+@RequiredArgsConstructor
+public class LeaderboardService {
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
+
+    private static final String SELECT_BALANCES_SQL = "SELECT id, username, COALESCE(user_point, 0) AS points FROM users";
+    private static final String SELECT_WEEKLY_SQL = "SELECT user_id, SUM(points_change) AS points FROM transactions " +
+            "WHERE points_change > 0 AND created_at >= ? GROUP BY user_id";
+    private static final String SELECT_USERNAMES_SQL = "SELECT id, username FROM users WHERE id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.leaderboard.zone:UTC}")
+    private String zone;
+
+    @Value("${app.leaderboard.max-limit:100}")
+    private int maxLimit;
+
+    private final Map<String, String> usernames = new ConcurrentHashMap<>();
+    private volatile ScoreBoard globalBoard = new ScoreBoard();
+    private volatile WeeklyBoard weeklyBoard;
+
+    public enum Period {
+        GLOBAL, WEEKLY;
+
+        public static Period of(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown leaderboard period: " + value);
+            }
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        weeklyBoard = new WeeklyBoard(weekStart(), new ScoreBoard());
+        Gauge.builder("leaderboard.users", this, service -> service.globalBoard.size()).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.leaderboard.rebuild-interval-ms:300000}",
+            initialDelayString = "${app.leaderboard.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        ScoreBoard global = new ScoreBoard();
+        jdbcTemplate.query(SELECT_BALANCES_SQL, rs -> {
+            String userId = rs.getString("id");
+            global.set(userId, rs.getInt("points"));
+            if (rs.getString("username") != null) {
+                usernames.put(userId, rs.getString("username"));
+            }
+        });
+
+        LocalDate weekStart = weekStart();
+        ScoreBoard weekly = new ScoreBoard();
+        jdbcTemplate.query(SELECT_WEEKLY_SQL, rs -> {
+            weekly.set(rs.getString("user_id"), rs.getInt("points"));
+        }, Timestamp.valueOf(localStartOf(weekStart)));
+
+        globalBoard = global;
+        weeklyBoard = new WeeklyBoard(weekStart, weekly);
+        logger.info("Loaded leaderboards: {} users, {} with points this week, took {} ms", global.size(), weekly.size(),
+                System.currentTimeMillis() - startedAt);
+    }
+
+    // After commit, so a rolled back change never reaches the boards. Only increases count towards the week.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBalanceChanged(UserBalanceChangedEvent event) {
+        if (event.userPoint() == null) {
+            return;
+        }
+        Integer previous = globalBoard.set(event.userId(), event.userPoint());
+        int earned = event.userPoint() - (previous != null ? previous : 0);
+        if (earned > 0) {
+            currentWeek().board().add(event.userId(), earned);
+        }
+        // The same event is published when the profile changes.
+        usernames.remove(event.userId());
+    }
+
+    public LeaderboardResponse getLeaderboard(Period period, int limit, String userId) {
+        int size = Math.max(1, Math.min(limit, maxLimit));
+        WeeklyBoard week = period == Period.WEEKLY ? currentWeek() : null;
+        ScoreBoard board = week != null ? week.board() : globalBoard;
+
+        List<ScoreBoard.Entry> top = board.top(size);
+        ScoreBoard.Entry me = userId != null ? board.entry(userId).orElse(null) : null;
+        List<String> userIds = new ArrayList<>();
+        top.forEach(entry -> userIds.add(entry.userId()));
+        if (me != null) {
+            userIds.add(me.userId());
+        }
+        resolveUsernames(userIds);
+
+        List<LeaderboardEntryResponse> entries = new ArrayList<>(top.size());
+        top.forEach(entry -> entries.add(mapToEntryResponse(entry)));
+        return LeaderboardResponse.builder()
+                .period(period.name())
+                .periodStart(week != null ? week.weekStart() : null)
+                .totalUsers(board.size())
+                .entries(entries)
+                .me(me != null ? mapToEntryResponse(me) : null)
+                .build();
+    }
+
+    public LeaderboardEntryResponse getRank(Period period, String userId) {
+        ScoreBoard board = period == Period.WEEKLY ? currentWeek().board() : globalBoard;
+        ScoreBoard.Entry entry = board.entry(userId).orElse(new ScoreBoard.Entry(userId, 0, board.size() + 1));
+        resolveUsernames(List.of(userId));
+        return mapToEntryResponse(entry);
+    }
+
+    // Starts an empty board when the week has rolled over since the last event or read.
+    private WeeklyBoard currentWeek() {
+        WeeklyBoard week = weeklyBoard;
+        LocalDate weekStart = weekStart();
+        if (week.weekStart().equals(weekStart)) {
+            return week;
+        }
+        synchronized (this) {
+            if (!weeklyBoard.weekStart().equals(weekStart)) {
+                logger.info("Weekly leaderboard rolled over to {}", weekStart);
+                weeklyBoard = new WeeklyBoard(weekStart, new ScoreBoard());
+            }
+            return weeklyBoard;
+        }
+    }
+
+    private LocalDate weekStart() {
+        return LocalDate.now(ZoneId.of(zone)).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    // transactions.created_at is stored in server local time.
+    private LocalDateTime localStartOf(LocalDate weekStart) {
+        return weekStart.atStartOfDay(ZoneId.of(zone)).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
+    private void resolveUsernames(List<String> userIds) {
+        String[] missing = userIds.stream().filter(id -> !usernames.containsKey(id)).distinct().toArray(String[]::new);
+        if (missing.length == 0) {
+            return;
+        }
+        jdbcTemplate.query(SELECT_USERNAMES_SQL, rs -> {
+            if (rs.getString("username") != null) {
+                usernames.put(rs.getString("id"), rs.getString("username"));
+            }
+        }, (Object) missing);
+    }
+
+    private LeaderboardEntryResponse mapToEntryResponse(ScoreBoard.Entry entry) {
+        return LeaderboardEntryResponse.builder()
+                .rank(entry.rank())
+                .userId(entry.userId())
+                .username(usernames.get(entry.userId()))
+                .points(entry.score())
+                .build();
+    }
+
+    private record WeeklyBoard(LocalDate weekStart, ScoreBoard board) {
+    }
+}
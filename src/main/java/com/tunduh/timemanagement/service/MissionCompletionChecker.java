@@ -1,104 +1,171 @@
 package com.tunduh.timemanagement.service;
 
 import com.tunduh.timemanagement.entity.MissionEntity;
-import com.tunduh.timemanagement.entity.TaskEntity;
-import com.tunduh.timemanagement.entity.TaskSessionEntity;
-import com.tunduh.timemanagement.entity.UserEntity;
 import com.tunduh.timemanagement.entity.UserMissionEntity;
 import com.tunduh.timemanagement.exception.ResourceNotFoundException;
-import com.tunduh.timemanagement.repository.TaskRepository;
-import com.tunduh.timemanagement.repository.TaskSessionRepository;
 import com.tunduh.timemanagement.repository.UserMissionRepository;
-import com.tunduh.timemanagement.repository.UserRepository;
+import com.tunduh.timemanagement.utils.criteria.CriteriaSqlCompiler;
+import com.tunduh.timemanagement.utils.criteria.MissionCriteria;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
 public class MissionCompletionChecker {
     private static final Logger logger = LoggerFactory.getLogger(MissionCompletionChecker.class);
 
+    // Users are partitioned by a hash of their id. For each mission, its compiled criteria aggregate the source
+    // rows of all open user missions in the partition at once, grouped per user mission, instead of once per user.
+    private static final String USER_PARTITION = "um2.is_completed = false AND um2.expired_at IS NULL " +
+            "AND (hashtext(um2.user_id) & 2147483647) % ? = ?";
+    private static final String COUNT_USERS_SQL = "SELECT COUNT(DISTINCT um2.user_id) FROM user_missions um2 WHERE " +
+            USER_PARTITION;
+
     private final UserMissionRepository userMissionRepository;
-    private final TaskRepository taskRepository;
-    private final TaskSessionRepository taskSessionRepository;
-    private final UserRepository userRepository;
+    private final CatalogCache catalogCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RecurrenceLeaseService leaseService;
+    private final MeterRegistry meterRegistry;
 
-    @Transactional
-    public void checkAllMissionsForUser(String userId) {
-        List<UserMissionEntity> userMissions = userMissionRepository.findByUserId(userId);
-        for (UserMissionEntity userMission : userMissions) {
-            checkMissionCompletion(userId, userMission.getMission().getId());
+    @Value("${app.missions.evaluate.partitions:64}")
+    private int partitions;
+
+    @Value("${app.missions.evaluate.workers:4}")
+    private int workers;
+
+    private ExecutorService partitionExecutor;
+
+    @PostConstruct
+    void startExecutor() {
+        partitionExecutor = Executors.newFixedThreadPool(Math.max(1, workers));
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        partitionExecutor.shutdownNow();
+    }
+
+    // Evaluates every open mission of every user from the source tables, so completion no longer waits for
+    // activity to reach MissionProgressTracker. Partitions run on a bounded pool, one transaction each, and only on
+    // the node holding the partition's lease. The lease is left to expire rather than released, so a node whose
+    // schedule fires a little later skips the partitions already evaluated this round.
+    @Scheduled(cron = "${app.missions.evaluate.cron:0 15 * * * *}")
+    public EvaluationResult evaluateAll() {
+        int partitionCount = Math.max(1, partitions);
+        long startedAt = System.nanoTime();
+        List<MissionCriteria> missions = catalogCache.liveMissionCriteria(LocalDateTime.now());
+        List<Future<EvaluationResult>> futures = new ArrayList<>();
+        for (int partition = 0; partition < partitionCount; partition++) {
+            int p = partition;
+            futures.add(partitionExecutor.submit(() -> {
+                if (!leaseService.tryAcquire(RecurrenceLeaseService.Job.MISSION_EVALUATION, p)) {
+                    return new EvaluationResult(0, 0, 0);
+                }
+                return transactionTemplate.execute(status -> evaluatePartition(p, partitionCount, missions));
+            }));
+        }
+
+        long users = 0;
+        long updated = 0;
+        long completed = 0;
+        for (int partition = 0; partition < futures.size(); partition++) {
+            try {
+                EvaluationResult result = futures.get(partition).get();
+                users += result.users();
+                updated += result.updated();
+                completed += result.completed();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                logger.error("Mission evaluation failed for partition {} of {}", partition, partitionCount, e.getCause());
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - startedAt;
+        meterRegistry.timer("missions.evaluate.duration").record(elapsedNanos, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("missions.evaluate.users").increment(users);
+        meterRegistry.counter("missions.evaluate.completed").increment(completed);
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        logger.info("Evaluated open missions of {} users in {} partitions: {} progress values updated, {} completed, " +
+                "took {} ms ({} users/s)", users, partitionCount, updated, completed, elapsedNanos / 1_000_000,
+                Math.round(users / seconds));
+        return new EvaluationResult(users, updated, completed);
+    }
+
+    public EvaluationResult evaluatePartition(int partition, int partitionCount, List<MissionCriteria> missions) {
+        long users = jdbcTemplate.queryForObject(COUNT_USERS_SQL, Long.class, partitionCount, partition);
+        if (users == 0) {
+            return new EvaluationResult(0, 0, 0);
+        }
+        long updated = 0;
+        long completed = 0;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (MissionCriteria criteria : missions) {
+            CriteriaSqlCompiler.CompiledQuery update = CriteriaSqlCompiler.progressUpdate(criteria, USER_PARTITION,
+                    partitionCount, partition);
+            updated += jdbcTemplate.update(update.sql(), update.params());
+            CriteriaSqlCompiler.CompiledQuery complete = CriteriaSqlCompiler.completeReached(criteria, now,
+                    USER_PARTITION, partitionCount, partition);
+            completed += jdbcTemplate.update(complete.sql(), complete.params());
         }
+        return new EvaluationResult(users, updated, completed);
     }
 
+    // Recomputes the mission's progress from history and completes it when the target is reached. Used when a
+    // mission is claimed; afterwards MissionProgressTracker keeps the stored value current.
     @Transactional
     public boolean checkMissionCompletion(String userId, String missionId) {
         UserMissionEntity userMission = userMissionRepository.findByMissionIdAndUserId(missionId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User mission not found"));
+        return refreshProgress(userMission);
+    }
 
+    public boolean refreshProgress(UserMissionEntity userMission) {
         MissionEntity mission = userMission.getMission();
-        boolean isCompleted = checkMissionCriteria(userId, mission);
+        MissionCriteria criteria = MissionCriteria.of(mission);
+        CriteriaSqlCompiler.CompiledQuery query = CriteriaSqlCompiler.progressQuery(criteria, "um2.id = ?",
+                userMission.getId());
+        List<Long> values = jdbcTemplate.query(query.sql(), (rs, rowNum) -> rs.getLong("value"), query.params());
+        long progress = values.isEmpty() ? 0L : values.get(0);
+        boolean isCompleted = progress >= criteria.target();
 
+        userMission.setProgressValue(progress);
         if (isCompleted && !userMission.getIsCompleted()) {
             userMission.setIsCompleted(true);
             userMission.setCompletedAt(LocalDateTime.now());
-            userMissionRepository.save(userMission);
-            logger.info("Mission {} completed for user {}", missionId, userId);
-        }
-
-        return isCompleted;
-    }
-
-    private boolean checkMissionCriteria(String userId, MissionEntity mission) {
-        switch (mission.getType()) {
-            case TIME_BASED:
-                return checkTimeBasedMission(userId, mission);
-            case TASK_BASED:
-                return checkTaskBasedMission(userId, mission);
-            case POINT_BASED:
-                return checkPointBasedMission(userId, mission);
-            default:
-                logger.warn("Unknown mission type: {}", mission.getType());
-                return false;
+            logger.info("Mission {} completed for user {}", mission.getId(), userMission.getUser().getId());
         }
-    }
-
-    private boolean checkTimeBasedMission(String userId, MissionEntity mission) {
-        LocalDateTime missionStartTime = mission.getStartDate();
-        List<TaskSessionEntity> userTaskSessions = taskSessionRepository.findByTaskUserIdAndStartTimeAfter(userId, missionStartTime);
-
-        long totalDurationInMinutes = userTaskSessions.stream()
-                .filter(session -> session.getStatus() == TaskSessionEntity.SessionStatus.COMPLETED)
-                .mapToLong(TaskSessionEntity::getDurationInSeconds)
-                .sum() / 60; // Convert seconds to minutes
-
-        boolean isCompleted = totalDurationInMinutes >= mission.getCriteriaValue();
-        logger.debug("Time-based mission check: User {}, Total duration: {} minutes, Required: {} minutes, Completed: {}",
-                userId, totalDurationInMinutes, mission.getCriteriaValue(), isCompleted);
+        userMissionRepository.save(userMission);
         return isCompleted;
     }
 
-    private boolean checkTaskBasedMission(String userId, MissionEntity mission) {
-        LocalDateTime missionStartTime = mission.getStartDate();
-        long completedTasksCount = taskRepository.countByUserIdAndStatusAndCreatedAtAfter(userId, "COMPLETED", missionStartTime);
-        boolean isCompleted = completedTasksCount >= mission.getCriteriaValue();
-        logger.debug("Task-based mission check: User {}, Completed tasks: {}, Required: {}, Completed: {}",
-                userId, completedTasksCount, mission.getCriteriaValue(), isCompleted);
-        return isCompleted;
+    // Target in the unit progress is stored in.
+    public static long target(MissionEntity mission) {
+        return MissionCriteria.of(mission).target();
     }
 
-    private boolean checkPointBasedMission(String userId, MissionEntity mission) {
-        UserEntity user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        boolean isCompleted = user.getUserPoint() >= mission.getCriteriaValue();
-        logger.debug("Point-based mission check: User {}, User points: {}, Required: {}, Completed: {}",
-                userId, user.getUserPoint(), mission.getCriteriaValue(), isCompleted);
-        return isCompleted;
+    public record EvaluationResult(long users, long updated, long completed) {
     }
-}
\ No newline at end of file
+}
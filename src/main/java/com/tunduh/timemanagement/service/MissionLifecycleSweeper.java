@@ -0,0 +1,71 @@
+package com.tunduh.timemanagement.service;
+
+import com.tunduh.timemanagement.event.CatalogChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+// Moves missions past their end date to EXPIRED with one bulk UPDATE served by the (status, end_date) index, then
+// closes the open claims of expired missions in batches. Claims are picked from every EXPIRED mission rather than
+// only the ones expired in this run, so a run that stopped half way is finished by the next one. Batches are
+// claimed with FOR UPDATE SKIP LOCKED, so several nodes can sweep at the same time.
+@Service
+@RequiredArgsConstructor
+public class MissionLifecycleSweeper {
+    private static final Logger logger = LoggerFactory.getLogger(MissionLifecycleSweeper.class);
+
+    private static final String EXPIRE_MISSIONS_SQL = "UPDATE missions SET status = 'EXPIRED', expired_at = ?, " +
+            "updated_at = ? WHERE status IN ('ACTIVE', 'INACTIVE') AND end_date <= ?";
+    private static final String CLOSE_USER_MISSIONS_SQL = "WITH expiring AS (" +
+            "SELECT um.id FROM user_missions um WHERE um.mission_id IN (SELECT id FROM missions WHERE status = 'EXPIRED') " +
+            "AND um.is_completed = false AND um.expired_at IS NULL LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "UPDATE user_missions um SET expired_at = ?, updated_at = ? FROM expiring WHERE um.id = expiring.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.missions.expiry.batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(cron = "${app.missions.expiry.cron:0 */5 * * * *}")
+    public void sweep() {
+        long startedAt = System.currentTimeMillis();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int expired = jdbcTemplate.update(EXPIRE_MISSIONS_SQL, now, now, now);
+        if (expired > 0) {
+            eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Catalog.MISSIONS, null));
+        }
+
+        long closed = 0;
+        while (true) {
+            Integer batch = transactionTemplate.execute(status ->
+                    jdbcTemplate.update(CLOSE_USER_MISSIONS_SQL, batchSize, now, now));
+            if (batch == null || batch == 0) {
+                break;
+            }
+            closed += batch;
+            if (batch < batchSize) {
+                break;
+            }
+        }
+
+        meterRegistry.counter("missions.expired").increment(expired);
+        meterRegistry.counter("missions.expired.user-missions.closed").increment(closed);
+        if (expired > 0 || closed > 0) {
+            logger.info("Expired {} missions and closed {} open user missions, took {} ms", expired, closed,
+                    System.currentTimeMillis() - startedAt);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.tunduh.timemanagement.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Rebuilds user_missions.progress_value from the source tables to repair any drift in the incremental counters.
+// The id space is split into the same hex partitions the recurrence generator uses, and each partition is rebuilt
+// in its own transaction on a small pool, so no single statement locks the whole table. A partition is rebuilt only
+// by the node holding its lease, which is left to expire so other nodes skip it for the rest of the round.
+@Service
+@RequiredArgsConstructor
+public class MissionProgressReconciler {
+    private static final Logger logger = LoggerFactory.getLogger(MissionProgressReconciler.class);
+
+    private final MissionProgressTracker progressTracker;
+    private final RecurrenceLeaseService leaseService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.missions.progress-reconcile.workers:4}")
+    private int workers;
+
+    private ExecutorService partitionExecutor;
+
+    @PostConstruct
+    void startExecutor() {
+        partitionExecutor = Executors.newFixedThreadPool(Math.max(1, workers));
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        partitionExecutor.shutdownNow();
+    }
+
+    @Scheduled(cron = "${app.missions.progress-reconcile.cron:0 0 4 * * *}")
+    public long reconcile() {
+        long startedAt = System.currentTimeMillis();
+        List<Future<MissionProgressTracker.RebuildResult>> futures = new ArrayList<>();
+        for (int partition = 0; partition < RecurrenceLeaseService.PARTITION_COUNT; partition++) {
+            String lowerId = leaseService.lowerBound(partition);
+            String upperId = leaseService.upperBound(partition);
+            int p = partition;
+            futures.add(partitionExecutor.submit(() -> {
+                if (!leaseService.tryAcquire(RecurrenceLeaseService.Job.PROGRESS_RECONCILE, p)) {
+                    return new MissionProgressTracker.RebuildResult(0, 0);
+                }
+                return transactionTemplate.execute(status -> progressTracker.rebuild(lowerId, upperId, false));
+            }));
+        }
+
+        long corrected = 0;
+        long completed = 0;
+        int failed = 0;
+        for (int partition = 0; partition < futures.size(); partition++) {
+            try {
+                MissionProgressTracker.RebuildResult result = futures.get(partition).get();
+                corrected += result.corrected();
+                completed += result.completed();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return corrected;
+            } catch (ExecutionException e) {
+                failed++;
+                logger.error("Mission progress reconciliation failed for partition {}", partition, e.getCause());
+            }
+        }
+
+        meterRegistry.counter("missions.progress.drift").increment(corrected);
+        meterRegistry.counter("missions.progress.reconcile.completed").increment(completed);
+        if (corrected > 0 || failed > 0) {
+            logger.warn("Mission progress drift on {} user missions (repaired), {} completed, {} partitions failed, " +
+                    "took {} ms", corrected, completed, failed, System.currentTimeMillis() - startedAt);
+        } else {
+            logger.info("Mission progress counters are consistent with source tables, took {} ms",
+                    System.currentTimeMillis() - startedAt);
+        }
+        return corrected;
+    }
+}
@@ -0,0 +1,232 @@
+package com.tunduh.timemanagement.service;
+
+import com.tunduh.timemanagement.entity.UserMissionEntity;
+import com.tunduh.timemanagement.event.SessionChangedEvent;
+import com.tunduh.timemanagement.event.TaskCompletedEvent;
+import com.tunduh.timemanagement.event.UserBalanceChangedEvent;
+import com.tunduh.timemanagement.repository.UserMissionRepository;
+import com.tunduh.timemanagement.utils.criteria.CriteriaEvaluator;
+import com.tunduh.timemanagement.utils.criteria.CriteriaFact;
+import com.tunduh.timemanagement.utils.criteria.CriteriaField;
+import com.tunduh.timemanagement.utils.criteria.CriteriaSource;
+import com.tunduh.timemanagement.utils.criteria.CriteriaSqlCompiler;
+import com.tunduh.timemanagement.utils.criteria.MissionCriteria;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Keeps user_missions.progress_value current as activity happens, so mission reads never aggregate history.
+// Each event becomes a CriteriaFact that CriteriaEvaluator applies to the user's open missions; progress is stored
+// in the metric's base unit. Listeners run synchronously inside the publishing transaction, so progress commits or
+// rolls back with the change that caused it. Only missions not yet completed move.
+@Service
+@RequiredArgsConstructor
+public class MissionProgressTracker {
+    private static final Logger logger = LoggerFactory.getLogger(MissionProgressTracker.class);
+
+    private static final String ADD_PROGRESS_SQL = "UPDATE user_missions " +
+            "SET progress_value = COALESCE(progress_value, 0) + ?, updated_at = ? WHERE id = ? AND is_completed = false";
+    private static final String SET_PROGRESS_SQL = "UPDATE user_missions SET progress_value = ?, updated_at = ? " +
+            "WHERE id = ? AND is_completed = false";
+    private static final String COMPLETE_REACHED_SQL = "UPDATE user_missions " +
+            "SET is_completed = true, completed_at = ?, updated_at = ? " +
+            "WHERE id = ? AND is_completed = false AND progress_value >= ?";
+    private static final String SELECT_TASK_FACTS_SQL = "SELECT id, user_id, created_at, priority, energy, duration " +
+            "FROM tasks WHERE id = ANY(?)";
+
+    // Recomputes progress for user missions in [lowerId, upperId); with onlyMissing set, only rows that have never
+    // been computed are considered. Claims closed by mission expiry keep the progress they had.
+    private static final String RANGE_SCOPE = "um2.id >= ? AND um2.id < ? AND um2.expired_at IS NULL " +
+            "AND (? = false OR um2.progress_value IS NULL)";
+    private static final String RANGE_COMPLETE_SCOPE = "um2.id >= ? AND um2.id < ? AND um2.expired_at IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserMissionRepository userMissionRepository;
+    private final CatalogCache catalogCache;
+    private final RecurrenceLeaseService leaseService;
+
+    @EventListener
+    public void onSessionChanged(SessionChangedEvent event) {
+        if ("stopped".equals(event.action()) && event.session().getDurationInSeconds() != null) {
+            recordSessionTime(List.of(new SessionTime(event.userId(), event.session().getTaskId(),
+                    event.session().getStartTime(), event.session().getDurationInSeconds())));
+        }
+    }
+
+    @EventListener
+    public void onTaskCompleted(TaskCompletedEvent event) {
+        recordCompletedTasks(List.of(event.taskId()));
+    }
+
+    @EventListener
+    public void onBalanceChanged(UserBalanceChangedEvent event) {
+        if (event.userPoint() != null) {
+            apply(List.of(new CriteriaFact(event.userId(), CriteriaSource.BALANCE, LocalDateTime.now(),
+                    event.userPoint(), Map.of())));
+        }
+    }
+
+    // Seconds of newly completed session time; a negative value takes back time a sync corrected downwards.
+    public void recordSessionTime(Collection<SessionTime> sessions) {
+        List<SessionTime> counted = sessions.stream()
+                .filter(session -> session.seconds() != 0 && session.startTime() != null)
+                .toList();
+        if (counted.isEmpty()) {
+            return;
+        }
+        // Sessions are filtered by the columns of their task.
+        Map<String, Map<CriteriaField, Object>> taskAttributes = new HashMap<>();
+        jdbcTemplate.query(SELECT_TASK_FACTS_SQL, rs -> {
+            taskAttributes.put(rs.getString("id"), attributes(rs));
+        }, (Object) counted.stream().map(SessionTime::taskId).distinct().toArray(String[]::new));
+
+        List<CriteriaFact> facts = new ArrayList<>();
+        for (SessionTime session : counted) {
+            facts.add(new CriteriaFact(session.userId(), CriteriaSource.SESSION, session.startTime(), session.seconds(),
+                    taskAttributes.getOrDefault(session.taskId(), Map.of())));
+        }
+        apply(facts);
+    }
+
+    public void recordCompletedTasks(Collection<String> taskIds) {
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        List<CriteriaFact> facts = new ArrayList<>();
+        jdbcTemplate.query(SELECT_TASK_FACTS_SQL, rs -> {
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            facts.add(new CriteriaFact(rs.getString("user_id"), CriteriaSource.TASK,
+                    createdAt != null ? createdAt.toLocalDateTime() : null, 1, attributes(rs)));
+        }, (Object) taskIds.toArray(new String[0]));
+        apply(facts);
+    }
+
+    // Rebuilds progress for one id range with one compiled aggregate per mission and completes any mission that
+    // has reached its target.
+    public RebuildResult rebuild(String lowerId, String upperId, boolean onlyMissing) {
+        int corrected = 0;
+        int completed = 0;
+        LocalDateTime startedAt = LocalDateTime.now();
+        Timestamp now = Timestamp.valueOf(startedAt);
+        for (MissionCriteria criteria : catalogCache.liveMissionCriteria(startedAt)) {
+            CriteriaSqlCompiler.CompiledQuery update = CriteriaSqlCompiler.progressUpdate(criteria, RANGE_SCOPE,
+                    lowerId, upperId, onlyMissing);
+            corrected += jdbcTemplate.update(update.sql(), update.params());
+            CriteriaSqlCompiler.CompiledQuery complete = CriteriaSqlCompiler.completeReached(criteria, now,
+                    RANGE_COMPLETE_SCOPE, lowerId, upperId);
+            completed += jdbcTemplate.update(complete.sql(), complete.params());
+        }
+        return new RebuildResult(corrected, completed);
+    }
+
+    // Claims made before progress was stored start without a value; they are computed once from history. Ids are
+    // UUID strings, so the hex partitions cover every row; when several nodes start together, each partition is
+    // backfilled by the one holding its lease.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMissingProgress() {
+        int backfilled = 0;
+        for (int partition = 0; partition < RecurrenceLeaseService.PARTITION_COUNT; partition++) {
+            if (leaseService.tryAcquire(RecurrenceLeaseService.Job.PROGRESS_BACKFILL, partition)) {
+                backfilled += rebuild(leaseService.lowerBound(partition), leaseService.upperBound(partition), true)
+                        .corrected();
+            }
+        }
+        if (backfilled > 0) {
+            logger.info("Computed mission progress for {} user missions", backfilled);
+        }
+    }
+
+    private void apply(List<CriteriaFact> facts) {
+        if (facts.isEmpty()) {
+            return;
+        }
+        Set<String> userIds = new LinkedHashSet<>();
+        facts.forEach(fact -> userIds.add(fact.userId()));
+        Map<String, List<UserMissionEntity>> openByUser = new HashMap<>();
+        for (UserMissionEntity userMission : userMissionRepository.findOpenByUserIds(userIds)) {
+            openByUser.computeIfAbsent(userMission.getUser().getId(), id -> new ArrayList<>()).add(userMission);
+        }
+
+        Map<String, Long> increments = new LinkedHashMap<>();
+        Map<String, Long> snapshots = new LinkedHashMap<>();
+        Map<String, Long> targets = new HashMap<>();
+        LocalDateTime appliedAt = LocalDateTime.now();
+        for (CriteriaFact fact : facts) {
+            for (UserMissionEntity userMission : openByUser.getOrDefault(fact.userId(), List.of())) {
+                // Ended missions stop moving even before MissionLifecycleSweeper has closed the claim.
+                if (!userMission.getMission().getEndDate().isAfter(appliedAt)) {
+                    continue;
+                }
+                MissionCriteria criteria = MissionCriteria.of(userMission.getMission());
+                if (criteria.metric().source() != fact.source()) {
+                    continue;
+                }
+                long contribution = CriteriaEvaluator.contribution(criteria, fact);
+                if (criteria.metric().snapshot()) {
+                    snapshots.put(userMission.getId(), contribution);
+                } else if (contribution != 0) {
+                    increments.merge(userMission.getId(), contribution, Long::sum);
+                } else {
+                    continue;
+                }
+                targets.put(userMission.getId(), criteria.target());
+            }
+        }
+        if (targets.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(appliedAt);
+        List<Object[]> additions = new ArrayList<>();
+        increments.forEach((id, delta) -> additions.add(new Object[]{delta, now, id}));
+        List<Object[]> replacements = new ArrayList<>();
+        snapshots.forEach((id, value) -> replacements.add(new Object[]{value, now, id}));
+        List<Object[]> completions = new ArrayList<>();
+        targets.forEach((id, target) -> completions.add(new Object[]{now, now, id, target}));
+        jdbcTemplate.batchUpdate(ADD_PROGRESS_SQL, additions);
+        jdbcTemplate.batchUpdate(SET_PROGRESS_SQL, replacements);
+        int completed = 0;
+        for (int count : jdbcTemplate.batchUpdate(COMPLETE_REACHED_SQL, completions)) {
+            completed += Math.max(count, 0);
+        }
+        if (completed > 0) {
+            logger.info("Completed {} missions for users {}", completed, userIds);
+        }
+    }
+
+    private Map<CriteriaField, Object> attributes(ResultSet rs) throws SQLException {
+        Map<CriteriaField, Object> attributes = new EnumMap<>(CriteriaField.class);
+        for (CriteriaField field : CriteriaField.values()) {
+            Object value = rs.getObject(field.name().toLowerCase());
+            if (value != null) {
+                attributes.put(field, value);
+            }
+        }
+        return attributes;
+    }
+
+    public record SessionTime(String userId, String taskId, LocalDateTime startTime, long seconds) {
+    }
+
+    // corrected: rows whose stored progress was rewritten; completed: missions completed as a result.
+    public record RebuildResult(int corrected, int completed) {
+    }
+}
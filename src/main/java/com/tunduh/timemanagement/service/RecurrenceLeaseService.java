@@ -0,0 +1,124 @@
+package com.tunduh.timemanagement.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Splits the template id space into one partition per leading hex digit of the UUID and hands each partition
+// to at most one node at a time through a row in recurrence_leases. A lease that is not renewed expires and
+// can be taken over by another node. Other partitioned jobs lease their partitions from the same table; each job
+// owns its own range of partition ids, so holding a partition of one job never blocks or releases another.
+@Service
+@RequiredArgsConstructor
+public class RecurrenceLeaseService {
+    private static final String HEX_DIGITS = "0123456789abcdef";
+    public static final int PARTITION_COUNT = HEX_DIGITS.length();
+
+    private static final String SEED_SQL = "INSERT INTO recurrence_leases (partition_id) VALUES (?) " +
+            "ON CONFLICT (partition_id) DO NOTHING";
+    private static final String ACQUIRE_SQL = "UPDATE recurrence_leases SET owner = ?, expires_at = ? " +
+            "WHERE partition_id = ? AND (owner IS NULL OR owner = ? OR expires_at IS NULL OR expires_at < ?)";
+    private static final String RELEASE_SQL = "UPDATE recurrence_leases SET owner = NULL, expires_at = NULL " +
+            "WHERE partition_id = ? AND owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.recurrence.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${app.recurrence.lease-seconds:300}")
+    private long leaseSeconds;
+
+    private volatile String nodeId;
+    private volatile boolean seeded;
+    private final Set<Integer> seededLeases = ConcurrentHashMap.newKeySet();
+
+    public String nodeId() {
+        if (nodeId == null) {
+            nodeId = configuredNodeId == null || configuredNodeId.isBlank()
+                    ? UUID.randomUUID().toString() : configuredNodeId;
+        }
+        return nodeId;
+    }
+
+    // Acquires or renews the lease on a partition; false means another node holds it.
+    public boolean tryAcquire(int partition) {
+        seedPartitions();
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.update(ACQUIRE_SQL, nodeId(), Timestamp.valueOf(now.plusSeconds(leaseSeconds)),
+                partition, nodeId(), Timestamp.valueOf(now)) == 1;
+    }
+
+    public void release(int partition) {
+        jdbcTemplate.update(RELEASE_SQL, partition, nodeId());
+    }
+
+    // Same as tryAcquire(int) for a partition of another job.
+    public boolean tryAcquire(Job job, int partition) {
+        int leaseId = job.leaseId(partition);
+        if (!seededLeases.contains(leaseId)) {
+            jdbcTemplate.update(SEED_SQL, leaseId);
+            seededLeases.add(leaseId);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.update(ACQUIRE_SQL, nodeId(), Timestamp.valueOf(now.plusSeconds(leaseSeconds)),
+                leaseId, nodeId(), Timestamp.valueOf(now)) == 1;
+    }
+
+    public void release(Job job, int partition) {
+        jdbcTemplate.update(RELEASE_SQL, job.leaseId(partition), nodeId());
+    }
+
+    // Template ids in a partition are greater than lowerBound and less than upperBound.
+    public String lowerBound(int partition) {
+        return String.valueOf(HEX_DIGITS.charAt(partition));
+    }
+
+    public String upperBound(int partition) {
+        return partition + 1 < PARTITION_COUNT ? String.valueOf(HEX_DIGITS.charAt(partition + 1)) : "g";
+    }
+
+    private void seedPartitions() {
+        if (seeded) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+            rows.add(new Object[]{partition});
+        }
+        jdbcTemplate.batchUpdate(SEED_SQL, rows);
+        seeded = true;
+    }
+
+    // Partitioned jobs besides recurrence generation, which keeps partition ids 0-15.
+    public enum Job {
+        MISSION_EVALUATION(1),
+        PROGRESS_RECONCILE(2),
+        PROGRESS_BACKFILL(3),
+        DURATION_RECONCILE(4);
+
+        private static final int LEASES_PER_JOB = 1 << 16;
+
+        private final int base;
+
+        Job(int slot) {
+            this.base = slot * LEASES_PER_JOB;
+        }
+
+        int leaseId(int partition) {
+            if (partition < 0 || partition >= LEASES_PER_JOB) {
+                throw new IllegalArgumentException("Lease partition out of range: " + partition);
+            }
+            return base + partition;
+        }
+    }
+}
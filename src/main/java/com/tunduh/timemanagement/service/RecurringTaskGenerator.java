@@ -0,0 +1,415 @@
+package com.tunduh.timemanagement.service;
+
+import com.tunduh.timemanagement.entity.TaskEntity;
+import com.tunduh.timemanagement.entity.UserEntity;
+import com.tunduh.timemanagement.repository.TaskRepository;
+import com.tunduh.timemanagement.utils.RecurrenceUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+@Service
+@RequiredArgsConstructor
+public class RecurringTaskGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(RecurringTaskGenerator.class);
+
+    private static final String INSERT_LEDGER_SQL = "INSERT INTO task_generation_ledger (id, template_id, " +
+            "occurrence_date, instance_id, node_id, created_at) VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (template_id, occurrence_date) DO NOTHING";
+    private static final String INSERT_TASK_SQL = "INSERT INTO tasks (id, title, energy, notes, status, duration, priority, " +
+            "repetition_type, recurrence_parent_id, occurrence_date, user_id, version, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_NEXT_OCCURRENCE_SQL = "UPDATE tasks SET next_occurrence_at = ?, next_due_at = ?, " +
+            "next_due_computed_at = ? WHERE id = ?";
+
+    private final TaskRepository taskRepository;
+    private final RecurrenceLeaseService leaseService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AtomicLong> bucketLagSeconds = new ConcurrentHashMap<>();
+    private ExecutorService partitionExecutor;
+
+    @Value("${app.recurrence.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.recurrence.default-zone:}")
+    private String defaultZone;
+
+    @Value("${app.recurrence.workers:4}")
+    private int workers;
+
+    @Value("${app.recurrence.catch-up-days:7}")
+    private int catchUpDays;
+
+    @Value("${app.recurrence.stagger-minutes:60}")
+    private int staggerMinutes;
+
+    @Value("${app.recurrence.materialize:true}")
+    private boolean materialize;
+
+    @PostConstruct
+    void startExecutor() {
+        partitionExecutor = Executors.newFixedThreadPool(Math.max(1, workers));
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        partitionExecutor.shutdownNow();
+    }
+
+    public ZoneId defaultZoneId() {
+        return defaultZone == null || defaultZone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(defaultZone);
+    }
+
+    public ZoneId zoneOf(UserEntity user) {
+        return user.getTimeZone() != null ? ZoneId.of(user.getTimeZone()) : defaultZoneId();
+    }
+
+    public LocalDate localToday(UserEntity user) {
+        return LocalDate.now(zoneOf(user));
+    }
+
+    // Every node runs this on each poll. Partitions are worked in parallel and each one only by the node holding
+    // its lease; the ledger makes a repeated run for the same date a no-op, and templates whose next occurrence
+    // is not yet due are never read, so a poll with nothing due costs one index probe per partition. Due times are
+    // stored in UTC, so one scan per partition covers every time zone.
+    public void generateDueOccurrences() {
+        if (!materialize) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int partition = 0; partition < RecurrenceLeaseService.PARTITION_COUNT; partition++) {
+            int p = partition;
+            futures.add(partitionExecutor.submit(() -> generatePartition(p, now)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                logger.error("Recurring task generation failed", e.getCause());
+            }
+        }
+    }
+
+    private void generatePartition(int partition, LocalDateTime now) {
+        if (!leaseService.tryAcquire(partition)) {
+            return;
+        }
+        try {
+            generate(partition, now);
+        } catch (RuntimeException e) {
+            logger.error("Recurring task generation failed for partition {} at {}", partition, now, e);
+        } finally {
+            leaseService.release(partition);
+        }
+    }
+
+    public GenerationResult generate(int partition, LocalDateTime now) {
+        String upperId = leaseService.upperBound(partition);
+        Map<ZoneId, LocalDate> todayByZone = new HashMap<>();
+        backfillNextDue(partition, todayByZone);
+
+        long startedAt = System.nanoTime();
+        long scanned = 0;
+        long generated = 0;
+        long skipped = 0;
+        int chunks = 0;
+        String lastId = leaseService.lowerBound(partition);
+
+        while (true) {
+            if (chunks > 0 && !leaseService.tryAcquire(partition)) {
+                logger.warn("Lost lease on recurrence partition {}", partition);
+                break;
+            }
+            ChunkResult chunk = processChunk(now, todayByZone, lastId, upperId);
+            if (chunk.scanned() == 0) {
+                break;
+            }
+            chunks++;
+            scanned += chunk.scanned();
+            generated += chunk.generated();
+            skipped += chunk.skipped();
+            lastId = chunk.lastId();
+            chunk.zones().forEach(this::recordMetrics);
+            logger.info("Recurring task chunk {} for partition {}: scanned {}, generated {}, skipped {}, took {} ms",
+                    chunks, partition, chunk.scanned(), chunk.generated(), chunk.skipped(), chunk.elapsedMillis());
+            if (chunk.scanned() < chunkSize) {
+                break;
+            }
+        }
+
+        GenerationResult result = new GenerationResult(partition, now, chunks, scanned, generated, skipped,
+                (System.nanoTime() - startedAt) / 1_000_000);
+        if (result.scanned() > 0) {
+            meterRegistry.timer("recurrence.generation.duration").record(result.elapsedMillis(), TimeUnit.MILLISECONDS);
+            logger.info("Recurring task generation for partition {} at {} finished: {} chunks, scanned {}, " +
+                            "generated {}, skipped {}, took {} ms", partition, now, result.chunks(),
+                    result.scanned(), result.generated(), result.skipped(), result.elapsedMillis());
+        }
+        return result;
+    }
+
+    // Templates written before next_due_at existed, changed by the task API or whose user moved to another time
+    // zone have no due time yet; it is derived from their next occurrence before the due scan runs. The computed-at
+    // stamp is set even when there is no next occurrence, so such templates are not read again on every poll.
+    private void backfillNextDue(int partition, Map<ZoneId, LocalDate> todayByZone) {
+        String upperId = leaseService.upperBound(partition);
+        String lastId = leaseService.lowerBound(partition);
+        LocalDateTime earliestToday = LocalDate.now(ZoneOffset.UTC).minusDays(1).atStartOfDay();
+        long backfilled = 0;
+        while (true) {
+            String fromId = lastId;
+            List<TaskEntity> templates = transactionTemplate.execute(status -> {
+                List<TaskEntity> chunk = taskRepository.findRecurringTasksWithoutNextDueAfter(
+                        earliestToday, fromId, upperId, PageRequest.of(0, chunkSize));
+                updateNextOccurrence(chunk, template -> template.getNextOccurrenceAt() != null
+                        ? template.getNextOccurrenceAt().toLocalDate()
+                        : today(template, todayByZone));
+                return chunk;
+            });
+            if (templates.isEmpty()) {
+                break;
+            }
+            backfilled += templates.size();
+            lastId = templates.get(templates.size() - 1).getId();
+            if (templates.size() < chunkSize) {
+                break;
+            }
+        }
+        if (backfilled > 0) {
+            logger.info("Backfilled next due time for {} recurring tasks in partition {}", backfilled, partition);
+        }
+    }
+
+    private ChunkResult processChunk(LocalDateTime now, Map<ZoneId, LocalDate> todayByZone, String lastId,
+                                     String upperId) {
+        return transactionTemplate.execute(status -> {
+            long chunkStartedAt = System.nanoTime();
+            List<TaskEntity> templates = taskRepository.findDueRecurringTasksAfter(now, lastId, upperId,
+                    PageRequest.of(0, chunkSize));
+            if (templates.isEmpty()) {
+                return new ChunkResult(lastId, 0, 0, 0, 0, Map.of());
+            }
+
+            Map<String, ZoneTally> zones = new HashMap<>();
+            List<Occurrence> occurrences = new ArrayList<>();
+            for (TaskEntity template : templates) {
+                ZoneTally tally = zones.computeIfAbsent(zoneOf(template.getUser()).getId(), zone -> new ZoneTally());
+                tally.scanned++;
+                tally.lagSeconds = Math.max(tally.lagSeconds,
+                        Duration.between(template.getNextDueAt(), now).getSeconds());
+                for (LocalDate date : missedOccurrences(template, today(template, todayByZone))) {
+                    occurrences.add(new Occurrence(template, date, UUID.randomUUID().toString()));
+                }
+            }
+            List<Occurrence> claimed = claimOccurrences(occurrences);
+            Set<String> claimedIds = new HashSet<>();
+            claimed.forEach(occurrence -> claimedIds.add(occurrence.instanceId()));
+            for (Occurrence occurrence : occurrences) {
+                ZoneTally tally = zones.get(zoneOf(occurrence.template().getUser()).getId());
+                if (claimedIds.contains(occurrence.instanceId())) {
+                    tally.generated++;
+                } else {
+                    tally.skipped++;
+                }
+            }
+            insertInstances(claimed);
+            updateNextOccurrence(templates, template -> today(template, todayByZone).plusDays(1));
+
+            return new ChunkResult(templates.get(templates.size() - 1).getId(), templates.size(), claimed.size(),
+                    occurrences.size() - claimed.size(), (System.nanoTime() - chunkStartedAt) / 1_000_000, zones);
+        });
+    }
+
+    // Persists a single occurrence on demand, e.g. when a user starts or edits a virtual occurrence. Runs in the
+    // caller's transaction and goes through the ledger, so it agrees with the scheduled generator. Returns the new
+    // instance id, or null when the ledger already records the occurrence.
+    public String materializeOccurrence(TaskEntity template, LocalDate date) {
+        if (!RecurrenceUtil.occursOn(template, date)) {
+            throw new IllegalArgumentException("Task does not recur on " + date);
+        }
+        Occurrence occurrence = new Occurrence(template, date, UUID.randomUUID().toString());
+        if (claimOccurrences(List.of(occurrence)).isEmpty()) {
+            return null;
+        }
+        insertInstances(List.of(occurrence));
+        return occurrence.instanceId();
+    }
+
+    // Occurrences from the stored next occurrence up to today. After downtime this covers the missed days,
+    // bounded by the catch-up window so a long outage does not flood users with stale tasks.
+    private List<LocalDate> missedOccurrences(TaskEntity template, LocalDate today) {
+        List<LocalDate> dates = new ArrayList<>();
+        LocalDate floor = today.minusDays(catchUpDays);
+        LocalDate date = template.getNextOccurrenceAt().toLocalDate();
+        if (date.isBefore(floor)) {
+            date = RecurrenceUtil.nextOccurrence(template, floor);
+        }
+        while (date != null && !date.isAfter(today)) {
+            if (RecurrenceUtil.occursOn(template, date)) {
+                dates.add(date);
+            }
+            date = RecurrenceUtil.nextOccurrence(template, date.plusDays(1));
+        }
+        return dates;
+    }
+
+    // Records each occurrence in the ledger and returns only those this transaction recorded first; an
+    // occurrence already in the ledger was generated by an earlier run or another node.
+    private List<Occurrence> claimOccurrences(List<Occurrence> occurrences) {
+        List<Occurrence> claimed = new ArrayList<>();
+        if (occurrences.isEmpty()) {
+            return claimed;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String nodeId = leaseService.nodeId();
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_LEDGER_SQL, occurrences, occurrences.size(), (ps, occurrence) -> {
+            ps.setString(1, UUID.randomUUID().toString());
+            ps.setString(2, occurrence.template().getId());
+            ps.setObject(3, occurrence.date());
+            ps.setString(4, occurrence.instanceId());
+            ps.setString(5, nodeId);
+            ps.setTimestamp(6, now);
+        });
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count > 0) {
+                    claimed.add(occurrences.get(index));
+                }
+                index++;
+            }
+        }
+        return claimed;
+    }
+
+    private void insertInstances(List<Occurrence> occurrences) {
+        if (occurrences.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_TASK_SQL, occurrences, occurrences.size(), (ps, occurrence) -> {
+            TaskEntity template = occurrence.template();
+            ps.setString(1, occurrence.instanceId());
+            ps.setString(2, template.getTitle());
+            ps.setInt(3, template.getEnergy());
+            ps.setString(4, template.getNotes());
+            ps.setString(5, "PENDING");
+            ps.setInt(6, template.getDuration());
+            ps.setString(7, template.getPriority());
+            ps.setString(8, TaskEntity.RepetitionType.NONE.name());
+            ps.setString(9, template.getId());
+            ps.setObject(10, occurrence.date());
+            ps.setString(11, template.getUser().getId());
+            ps.setLong(12, 0L);
+            ps.setTimestamp(13, now);
+            ps.setTimestamp(14, now);
+        });
+    }
+
+    private void updateNextOccurrence(List<TaskEntity> templates, Function<TaskEntity, LocalDate> from) {
+        if (templates.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPDATE_NEXT_OCCURRENCE_SQL, templates, templates.size(), (ps, template) -> {
+            LocalDate next = RecurrenceUtil.nextOccurrence(template, from.apply(template));
+            ps.setTimestamp(1, next != null ? Timestamp.valueOf(next.atStartOfDay()) : null);
+            ps.setTimestamp(2, next != null ? Timestamp.valueOf(dueAt(template, next)) : null);
+            ps.setTimestamp(3, now);
+            ps.setString(4, template.getId());
+        });
+    }
+
+    // UTC time an occurrence becomes due: local midnight in the user's zone plus a fixed per-template offset, so
+    // the templates of one zone are spread over the stagger window instead of all falling due at midnight.
+    LocalDateTime dueAt(TaskEntity template, LocalDate date) {
+        long staggerSeconds = Math.max(0, staggerMinutes) * 60L;
+        long offset = staggerSeconds > 0 ? Math.floorMod(template.getId().hashCode(), staggerSeconds) : 0;
+        return date.atStartOfDay(zoneOf(template.getUser())).plusSeconds(offset)
+                .withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
+    }
+
+    private LocalDate today(TaskEntity template, Map<ZoneId, LocalDate> todayByZone) {
+        return todayByZone.computeIfAbsent(zoneOf(template.getUser()), LocalDate::now);
+    }
+
+    private void recordMetrics(String zone, ZoneTally tally) {
+        Counter.builder("recurrence.generation.scanned")
+                .tag("zone", zone)
+                .register(meterRegistry)
+                .increment(tally.scanned);
+        Counter.builder("recurrence.generation.generated")
+                .tag("zone", zone)
+                .register(meterRegistry)
+                .increment(tally.generated);
+        Counter.builder("recurrence.generation.skipped")
+                .tag("zone", zone)
+                .register(meterRegistry)
+                .increment(tally.skipped);
+        bucketLagSeconds.computeIfAbsent(zone, key -> {
+            AtomicLong lag = new AtomicLong();
+            Gauge.builder("recurrence.generation.lag.seconds", lag, AtomicLong::get)
+                    .tag("zone", key)
+                    .register(meterRegistry);
+            return lag;
+        }).set(Math.max(0, tally.lagSeconds));
+    }
+
+    private record Occurrence(TaskEntity template, LocalDate date, String instanceId) {
+    }
+
+    private record ChunkResult(String lastId, int scanned, int generated, int skipped, long elapsedMillis,
+                               Map<String, ZoneTally> zones) {
+    }
+
+    // Per-zone counts of one chunk; the lag is how long after its due time the oldest template was picked up.
+    private static final class ZoneTally {
+        private long scanned;
+        private long generated;
+        private long skipped;
+        private long lagSeconds;
+    }
+
+    public record GenerationResult(int partition, LocalDateTime at, int chunks, long scanned, long generated,
+                                   long skipped, long elapsedMillis) {
+    }
+}
@@ -0,0 +1,177 @@
+package com.tunduh.timemanagement.service;
+
+import com.tunduh.timemanagement.event.TaskCompletedEvent;
+import com.tunduh.timemanagement.event.UserBalanceChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Closes sessions that were left running or paused by clients that never came back. Each batch is claimed with
+// FOR UPDATE SKIP LOCKED, so several nodes can sweep at the same time without closing a session twice. The energy
+// charged and the tasks completed are published as events like stopTask does; listeners run after the batch commits.
+@Service
+@RequiredArgsConstructor
+public class StaleSessionSweeper {
+    private static final Logger logger = LoggerFactory.getLogger(StaleSessionSweeper.class);
+
+    private static final String CLOSE_SQL = "WITH stale AS (" +
+            "SELECT id FROM task_sessions WHERE status IN ('IN_PROGRESS', 'PAUSED') AND updated_at < ? " +
+            "ORDER BY updated_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "UPDATE task_sessions s SET status = 'COMPLETED', end_time = ?, updated_at = ?, version = s.version + 1, " +
+            "duration_in_seconds = LEAST(?, s.duration_in_seconds + CASE WHEN s.status = 'IN_PROGRESS' " +
+            "THEN GREATEST(0, CAST(EXTRACT(EPOCH FROM (CAST(? AS timestamp) - s.start_time)) AS bigint)) ELSE 0 END) " +
+            "FROM stale WHERE s.id = stale.id " +
+            "RETURNING s.id, s.task_id, s.start_time, s.duration_in_seconds";
+    private static final String ADD_DURATION_SQL = "UPDATE tasks SET completed_duration_seconds = " +
+            "completed_duration_seconds + ? WHERE id = ?";
+    private static final String DECREASE_ENERGY_SQL = "UPDATE users u SET energy = u.energy - d.energy " +
+            "FROM (SELECT unnest(CAST(? AS text[])) AS id, unnest(CAST(? AS bigint[])) AS energy) d " +
+            "WHERE u.id = d.id RETURNING u.id, u.energy, u.user_point";
+    private static final String COMPLETE_TASKS_SQL = "UPDATE tasks SET status = 'COMPLETED', completed_at = ?, " +
+            "status_version = COALESCE(version, 0) + 1, version = COALESCE(version, 0) + 1 " +
+            "WHERE id = ANY(?) AND status <> 'COMPLETED' AND completed_duration_seconds >= duration * 60 " +
+            "RETURNING id, user_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ActiveSessionRegistry activeSessionRegistry;
+    private final MeterRegistry meterRegistry;
+    private final MissionProgressTracker missionProgressTracker;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.sessions.sweep.idle-minutes:720}")
+    private long idleMinutes;
+
+    @Value("${app.sessions.sweep.max-duration-minutes:240}")
+    private long maxDurationMinutes;
+
+    @Value("${app.sessions.sweep.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${app.sessions.sweep.interval-ms:300000}")
+    public void sweep() {
+        activeSessionRegistry.flush();
+
+        long startedAt = System.nanoTime();
+        long closed = 0;
+        long capped = 0;
+        long completedTasks = 0;
+        while (true) {
+            BatchResult batch = transactionTemplate.execute(status -> closeBatch());
+            if (batch == null || batch.closed() == 0) {
+                break;
+            }
+            closed += batch.closed();
+            capped += batch.capped();
+            completedTasks += batch.completedTasks();
+            batch.sessionIds().forEach(activeSessionRegistry::remove);
+            if (batch.closed() < batchSize) {
+                break;
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+        meterRegistry.counter("sessions.sweep.closed").increment(closed);
+        meterRegistry.counter("sessions.sweep.capped").increment(capped);
+        meterRegistry.counter("sessions.sweep.tasks.completed").increment(completedTasks);
+        Timer.builder("sessions.sweep.duration").register(meterRegistry).record(elapsedMillis, TimeUnit.MILLISECONDS);
+        if (closed > 0) {
+            logger.info("Closed {} stale sessions ({} capped at {} minutes), completed {} tasks, took {} ms",
+                    closed, capped, maxDurationMinutes, completedTasks, elapsedMillis);
+        }
+    }
+
+    private BatchResult closeBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp nowTimestamp = Timestamp.valueOf(now);
+        long maxDurationSeconds = maxDurationMinutes * 60;
+
+        List<String> sessionIds = new ArrayList<>();
+        Map<String, Long> durationByTask = new HashMap<>();
+        Map<String, Integer> sessionsByTask = new HashMap<>();
+        List<ClosedSession> closedSessions = new ArrayList<>();
+        long[] capped = {0};
+        jdbcTemplate.query(CLOSE_SQL, rs -> {
+            String taskId = rs.getString("task_id");
+            long duration = rs.getLong("duration_in_seconds");
+            Timestamp startTime = rs.getTimestamp("start_time");
+            sessionIds.add(rs.getString("id"));
+            closedSessions.add(new ClosedSession(taskId, startTime != null ? startTime.toLocalDateTime() : null, duration));
+            durationByTask.merge(taskId, duration, Long::sum);
+            sessionsByTask.merge(taskId, 1, Integer::sum);
+            if (duration >= maxDurationSeconds) {
+                capped[0]++;
+            }
+        }, Timestamp.valueOf(now.minusMinutes(idleMinutes)), batchSize, nowTimestamp, nowTimestamp,
+                maxDurationSeconds, nowTimestamp);
+        if (sessionIds.isEmpty()) {
+            return new BatchResult(sessionIds, 0, 0, 0);
+        }
+
+        List<Object[]> durationUpdates = new ArrayList<>();
+        durationByTask.forEach((taskId, seconds) -> durationUpdates.add(new Object[]{seconds, taskId}));
+        jdbcTemplate.batchUpdate(ADD_DURATION_SQL, durationUpdates);
+
+        // Same energy cost stopTask charges: the task's energy once per closed session, summed per user.
+        Set<String> taskIds = new LinkedHashSet<>(sessionsByTask.keySet());
+        Map<String, Long> energyByUser = new HashMap<>();
+        Map<String, String> userByTask = new HashMap<>();
+        jdbcTemplate.query("SELECT id, user_id, energy FROM tasks WHERE id = ANY(?)", rs -> {
+            String userId = rs.getString("user_id");
+            if (userId != null) {
+                userByTask.put(rs.getString("id"), userId);
+                energyByUser.merge(userId, (long) rs.getInt("energy") * sessionsByTask.get(rs.getString("id")), Long::sum);
+            }
+        }, (Object) taskIds.toArray(new String[0]));
+        if (!energyByUser.isEmpty()) {
+            jdbcTemplate.query(DECREASE_ENERGY_SQL, rs -> {
+                eventPublisher.publishEvent(new UserBalanceChangedEvent(rs.getString("id"),
+                        rs.getObject("energy", Integer.class), rs.getObject("user_point", Integer.class)));
+            }, energyByUser.keySet().toArray(new String[0]), energyByUser.values().toArray(new Long[0]));
+        }
+
+        List<String> completedTaskIds = new ArrayList<>();
+        jdbcTemplate.query(COMPLETE_TASKS_SQL, rs -> {
+            String taskId = rs.getString("id");
+            completedTaskIds.add(taskId);
+            eventPublisher.publishEvent(new TaskCompletedEvent(rs.getString("user_id"), taskId, now));
+        }, nowTimestamp, taskIds.toArray(new String[0]));
+
+        List<MissionProgressTracker.SessionTime> sessionTimes = new ArrayList<>();
+        for (ClosedSession closed : closedSessions) {
+            String userId = userByTask.get(closed.taskId());
+            if (userId != null) {
+                sessionTimes.add(new MissionProgressTracker.SessionTime(userId, closed.taskId(), closed.startTime(),
+                        closed.seconds()));
+            }
+        }
+        missionProgressTracker.recordSessionTime(sessionTimes);
+        missionProgressTracker.recordCompletedTasks(completedTaskIds);
+
+        return new BatchResult(sessionIds, sessionIds.size(), capped[0], completedTaskIds.size());
+    }
+
+    private record ClosedSession(String taskId, LocalDateTime startTime, long seconds) {
+    }
+
+    private record BatchResult(List<String> sessionIds, int closed, long capped, int completedTasks) {
+    }
+}
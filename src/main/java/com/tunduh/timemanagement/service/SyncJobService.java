@@ -0,0 +1,391 @@
+package com.tunduh.timemanagement.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tunduh.timemanagement.dto.request.TaskSyncRequest;
+import com.tunduh.timemanagement.dto.response.SyncJobResponse;
+import com.tunduh.timemanagement.dto.response.TaskSyncResponse;
+import com.tunduh.timemanagement.entity.SyncJobEntity;
+import com.tunduh.timemanagement.entity.UserEntity;
+import com.tunduh.timemanagement.exception.ResourceNotFoundException;
+import com.tunduh.timemanagement.repository.SyncJobRepository;
+import com.tunduh.timemanagement.repository.UserRepository;
+import com.tunduh.timemanagement.utils.BoundedInputStream;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Bulk sync that returns before the work is done. The uploaded JSON array is validated and spooled to local disk as
+// one entry per line, then a bounded worker pool applies it in chunks through TaskSyncProcessor. Each chunk appends
+// its responses to an NDJSON result file and advances the job's spool offset and result length in the chunk's own
+// transaction, so after a crash or restart the job resumes from the last committed chunk and the result file is
+// truncated back to match it.
+@Service
+@RequiredArgsConstructor
+public class SyncJobService {
+    private static final Logger logger = LoggerFactory.getLogger(SyncJobService.class);
+    private static final Set<SyncJobEntity.JobStatus> ACTIVE = EnumSet.of(SyncJobEntity.JobStatus.QUEUED, SyncJobEntity.JobStatus.RUNNING);
+    private static final Set<SyncJobEntity.JobStatus> FINISHED = EnumSet.of(SyncJobEntity.JobStatus.COMPLETED, SyncJobEntity.JobStatus.FAILED);
+
+    private static final String START_SQL = "UPDATE sync_jobs SET status = 'RUNNING', updated_at = ? " +
+            "WHERE id = ? AND status IN ('QUEUED', 'RUNNING')";
+    private static final String CHECKPOINT_SQL = "UPDATE sync_jobs SET spool_offset = ?, result_bytes = ?, " +
+            "processed_entries = ?, conflicted_entries = ?, updated_at = ? WHERE id = ? AND status = 'RUNNING'";
+    private static final String COMPLETE_SQL = "UPDATE sync_jobs SET status = 'COMPLETED', completed_at = ?, " +
+            "updated_at = ? WHERE id = ?";
+    private static final String FAIL_SQL = "UPDATE sync_jobs SET status = 'FAILED', error = ?, completed_at = ?, " +
+            "updated_at = ? WHERE id = ?";
+
+    private final SyncJobRepository syncJobRepository;
+    private final UserRepository userRepository;
+    private final TaskSyncProcessor taskSyncProcessor;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final Set<String> scheduled = ConcurrentHashMap.newKeySet();
+    private ExecutorService workers;
+    private Path spoolDir;
+    private String nodeId;
+
+    // Must stay the same across restarts and be unique per spool directory; the host name fits most deployments.
+    @Value("${app.sync.jobs.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${app.sync.jobs.spool-dir:data/sync-jobs}")
+    private String spoolDirectory;
+
+    @Value("${app.sync.jobs.workers:2}")
+    private int workerCount;
+
+    @Value("${app.sync.jobs.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.sync.jobs.max-payload-bytes:1073741824}")
+    private long maxPayloadBytes;
+
+    @Value("${app.sync.jobs.max-active-per-user:3}")
+    private int maxActivePerUser;
+
+    @Value("${app.sync.jobs.retention-hours:72}")
+    private long retentionHours;
+
+    @Value("${app.sync.stream.max-sessions-per-task:1000}")
+    private int maxSessionsPerTask;
+
+    @PostConstruct
+    void init() throws IOException {
+        nodeId = configuredNodeId == null || configuredNodeId.isBlank()
+                ? InetAddress.getLocalHost().getHostName() : configuredNodeId;
+        spoolDir = Paths.get(spoolDirectory).toAbsolutePath();
+        Files.createDirectories(spoolDir);
+        workers = Executors.newFixedThreadPool(Math.max(1, workerCount));
+    }
+
+    // Interrupted jobs stay RUNNING and pick up from their last checkpoint on the next start.
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingJobs() {
+        List<SyncJobEntity> pending = syncJobRepository.findByNodeIdAndStatusInOrderByCreatedAt(nodeId, ACTIVE);
+        pending.forEach(job -> schedule(job.getId()));
+        if (!pending.isEmpty()) {
+            logger.info("Resumed {} sync jobs", pending.size());
+        }
+    }
+
+    public SyncJobResponse submit(String userId, InputStream body) throws IOException {
+        userRepository.findById(userId).orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        if (syncJobRepository.countByUserIdAndStatusIn(userId, ACTIVE) >= maxActivePerUser) {
+            throw new IllegalStateException("Too many sync jobs in progress, wait for one to finish");
+        }
+
+        String jobId = UUID.randomUUID().toString();
+        Path spool = spoolPath(jobId);
+        long entries;
+        try {
+            entries = spool(body, spool);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        SyncJobEntity job = syncJobRepository.save(SyncJobEntity.builder()
+                .id(jobId)
+                .userId(userId)
+                .nodeId(nodeId)
+                .status(SyncJobEntity.JobStatus.QUEUED)
+                .totalEntries(entries)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        schedule(jobId);
+        logger.info("Accepted sync job {} for user {} with {} entries", jobId, userId, entries);
+        return mapToSyncJobResponse(job);
+    }
+
+    public SyncJobResponse getJob(String jobId, String userId) {
+        return mapToSyncJobResponse(getJobForUser(jobId, userId));
+    }
+
+    public Path getResultFile(String jobId, String userId) {
+        SyncJobEntity job = getJobForUser(jobId, userId);
+        if (job.getStatus() != SyncJobEntity.JobStatus.COMPLETED) {
+            throw new IllegalStateException("Sync job has not completed");
+        }
+        Path result = resultPath(jobId);
+        if (!Files.exists(result)) {
+            throw new ResourceNotFoundException("Sync job result is not available on this server");
+        }
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${app.sync.jobs.cleanup-interval-ms:3600000}")
+    public void purgeFinishedJobs() {
+        List<SyncJobEntity> expired = syncJobRepository.findByNodeIdAndStatusInAndCompletedAtBefore(
+                nodeId, FINISHED, LocalDateTime.now().minusHours(retentionHours));
+        for (SyncJobEntity job : expired) {
+            try {
+                Files.deleteIfExists(spoolPath(job.getId()));
+                Files.deleteIfExists(resultPath(job.getId()));
+            } catch (IOException e) {
+                logger.warn("Could not delete files of sync job {}: {}", job.getId(), e.getMessage());
+                continue;
+            }
+            syncJobRepository.delete(job);
+        }
+        if (!expired.isEmpty()) {
+            logger.info("Purged {} finished sync jobs", expired.size());
+        }
+    }
+
+    // Re-encodes each array element as one line, so a checkpoint is a plain byte offset into the spool.
+    private long spool(InputStream body, Path spool) throws IOException {
+        long entries = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(new BoundedInputStream(body, maxPayloadBytes));
+             FileOutputStream file = new FileOutputStream(spool.toFile());
+             OutputStream out = new BufferedOutputStream(file)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Sync payload must be a JSON array");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("Sync payload must contain task objects");
+                }
+                TaskSyncRequest request = objectMapper.readValue(parser, TaskSyncRequest.class);
+                if (request.getSessions() != null && request.getSessions().size() > maxSessionsPerTask) {
+                    throw new IllegalArgumentException("Task " + request.getTaskId() + " has more than "
+                            + maxSessionsPerTask + " sessions");
+                }
+                out.write(objectMapper.writeValueAsBytes(request));
+                out.write('\n');
+                entries++;
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        return entries;
+    }
+
+    private void schedule(String jobId) {
+        if (scheduled.add(jobId)) {
+            workers.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    scheduled.remove(jobId);
+                }
+            });
+        }
+    }
+
+    private void run(String jobId) {
+        SyncJobEntity job = syncJobRepository.findById(jobId).orElse(null);
+        if (job == null || !ACTIVE.contains(job.getStatus())
+                || jdbcTemplate.update(START_SQL, Timestamp.valueOf(LocalDateTime.now()), jobId) == 0) {
+            return;
+        }
+
+        try {
+            UserEntity user = userRepository.findById(job.getUserId())
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+            if (!process(job, user)) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            jdbcTemplate.update(COMPLETE_SQL, Timestamp.valueOf(now), Timestamp.valueOf(now), jobId);
+            Files.deleteIfExists(spoolPath(jobId));
+            logger.info("Sync job {} completed", jobId);
+        } catch (Exception e) {
+            if (workers.isShutdown()) {
+                logger.info("Sync job {} interrupted by shutdown, it resumes from its last checkpoint", jobId);
+                return;
+            }
+            logger.error("Sync job {} failed", jobId, e);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            LocalDateTime now = LocalDateTime.now();
+            jdbcTemplate.update(FAIL_SQL, message.length() > 1000 ? message.substring(0, 1000) : message,
+                    Timestamp.valueOf(now), Timestamp.valueOf(now), jobId);
+            try {
+                Files.deleteIfExists(spoolPath(jobId));
+            } catch (IOException ignored) {
+                // Removed by the retention purge instead.
+            }
+        }
+    }
+
+    // Returns false when the worker was interrupted; the job keeps its checkpoint and resumes on the next start.
+    private boolean process(SyncJobEntity job, UserEntity user) throws IOException {
+        try (FileChannel spool = FileChannel.open(spoolPath(job.getId()), StandardOpenOption.READ);
+             FileChannel result = FileChannel.open(resultPath(job.getId()), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            result.truncate(job.getResultBytes());
+            result.position(job.getResultBytes());
+            spool.position(job.getSpoolOffset());
+            InputStream in = new BufferedInputStream(Channels.newInputStream(spool));
+
+            Checkpoint checkpoint = new Checkpoint(job.getSpoolOffset(), job.getResultBytes(),
+                    job.getProcessedEntries(), job.getConflictedEntries());
+            while (true) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                List<TaskSyncRequest> chunk = new ArrayList<>(chunkSize);
+                long chunkEnd = checkpoint.spoolOffset();
+                byte[] line;
+                while (chunk.size() < chunkSize && (line = readLine(in)) != null) {
+                    chunkEnd += line.length + 1;
+                    if (line.length > 0) {
+                        chunk.add(objectMapper.readValue(line, TaskSyncRequest.class));
+                    }
+                }
+                if (chunk.isEmpty()) {
+                    return true;
+                }
+                Checkpoint current = checkpoint;
+                long spoolOffset = chunkEnd;
+                checkpoint = transactionTemplate.execute(status -> applyChunk(job.getId(), user, chunk, result, current, spoolOffset));
+            }
+        }
+    }
+
+    // The result lines are written and forced to disk before the checkpoint commits; if the commit never happens
+    // the next run truncates them away together with the rolled-back chunk.
+    private Checkpoint applyChunk(String jobId, UserEntity user, List<TaskSyncRequest> chunk, FileChannel result,
+                                  Checkpoint previous, long spoolOffset) {
+        List<TaskSyncResponse> responses = taskSyncProcessor.synchronize(user, chunk);
+        try {
+            ByteArrayOutputStream lines = new ByteArrayOutputStream();
+            long conflicted = 0;
+            for (TaskSyncResponse response : responses) {
+                lines.write(objectMapper.writeValueAsBytes(response));
+                lines.write('\n');
+                if (response.isConflicted()) {
+                    conflicted++;
+                }
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+            while (buffer.hasRemaining()) {
+                result.write(buffer);
+            }
+            result.force(false);
+
+            Checkpoint next = new Checkpoint(spoolOffset, previous.resultBytes() + lines.size(),
+                    previous.processedEntries() + chunk.size(), previous.conflictedEntries() + conflicted);
+            int updated = jdbcTemplate.update(CHECKPOINT_SQL, next.spoolOffset(), next.resultBytes(),
+                    next.processedEntries(), next.conflictedEntries(), Timestamp.valueOf(LocalDateTime.now()), jobId);
+            if (updated == 0) {
+                throw new IllegalStateException("Sync job " + jobId + " is no longer running");
+            }
+            return next;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                return line.toByteArray();
+            }
+            line.write(b);
+        }
+        // The spool always ends with a newline, so a partial last line cannot be a complete entry.
+        return null;
+    }
+
+    private SyncJobEntity getJobForUser(String jobId, String userId) {
+        return syncJobRepository.findByIdAndUserId(jobId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Sync job not found"));
+    }
+
+    private Path spoolPath(String jobId) {
+        return spoolDir.resolve(jobId + ".spool.ndjson");
+    }
+
+    private Path resultPath(String jobId) {
+        return spoolDir.resolve(jobId + ".result.ndjson");
+    }
+
+    private SyncJobResponse mapToSyncJobResponse(SyncJobEntity job) {
+        return SyncJobResponse.builder()
+                .id(job.getId())
+                .status(job.getStatus())
+                .totalEntries(job.getTotalEntries())
+                .processedEntries(job.getProcessedEntries())
+                .conflictedEntries(job.getConflictedEntries())
+                .error(job.getError())
+                .resultUrl(job.getStatus() == SyncJobEntity.JobStatus.COMPLETED
+                        ? "/api/tasks/sync/jobs/" + job.getId() + "/result" : null)
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+
+    private record Checkpoint(long spoolOffset, long resultBytes, long processedEntries, long conflictedEntries) {
+    }
+}
@@ -0,0 +1,80 @@
+package com.tunduh.timemanagement.service;
+
+import com.tunduh.timemanagement.utils.ChangeCursor;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// Deletes change-feed tombstones once they are older than the retention window. The newest purged position is kept
+// in sync_tombstone_horizon: a client whose cursor is behind it may have missed a delete and has to resync from the
+// start. Batches are claimed with FOR UPDATE SKIP LOCKED, so every node can run the purge.
+@Service
+@RequiredArgsConstructor
+public class SyncTombstonePurger {
+    private static final Logger logger = LoggerFactory.getLogger(SyncTombstonePurger.class);
+
+    private static final String PURGE_SQL = "WITH expired AS (" +
+            "SELECT change_seq FROM sync_tombstones WHERE deleted_at < ? " +
+            "ORDER BY deleted_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "DELETE FROM sync_tombstones d USING expired WHERE d.change_seq = expired.change_seq " +
+            "RETURNING d.change_xid, d.change_seq";
+    private static final String ADVANCE_HORIZON_SQL = "INSERT INTO sync_tombstone_horizon (id, change_xid, change_seq) " +
+            "VALUES (1, ?, ?) ON CONFLICT (id) DO UPDATE SET change_xid = EXCLUDED.change_xid, " +
+            "change_seq = EXCLUDED.change_seq WHERE (EXCLUDED.change_xid, EXCLUDED.change_seq) > " +
+            "(sync_tombstone_horizon.change_xid, sync_tombstone_horizon.change_seq)";
+    private static final String HORIZON_SQL = "SELECT change_xid, change_seq FROM sync_tombstone_horizon WHERE id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.sync.tombstones.retention-days:30}")
+    private long retentionDays;
+
+    @Value("${app.sync.tombstones.batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${app.sync.tombstones.purge-interval-ms:3600000}")
+    public void purge() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+        long purged = 0;
+        while (true) {
+            Integer deleted = transactionTemplate.execute(status -> purgeBatch(cutoff));
+            if (deleted == null || deleted == 0) {
+                break;
+            }
+            purged += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+        if (purged > 0) {
+            logger.info("Purged {} sync tombstones older than {} days", purged, retentionDays);
+        }
+    }
+
+    // The newest position whose tombstone may already be gone, if any were purged.
+    public Optional<ChangeCursor> purgedThrough() {
+        List<ChangeCursor> horizon = jdbcTemplate.query(HORIZON_SQL,
+                (rs, rowNum) -> new ChangeCursor(rs.getLong("change_xid"), rs.getLong("change_seq")));
+        return horizon.stream().findFirst();
+    }
+
+    private int purgeBatch(Timestamp cutoff) {
+        List<ChangeCursor> deleted = jdbcTemplate.query(PURGE_SQL,
+                (rs, rowNum) -> new ChangeCursor(rs.getLong("change_xid"), rs.getLong("change_seq")),
+                cutoff, batchSize);
+        deleted.stream().max(ChangeCursor::compareTo)
+                .ifPresent(newest -> jdbcTemplate.update(ADVANCE_HORIZON_SQL, newest.xid(), newest.seq()));
+        return deleted.size();
+    }
+}
@@ -0,0 +1,85 @@
+package com.tunduh.timemanagement.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Rebuilds tasks.completed_duration_seconds from task_sessions and reports rows where the counter drifted. The repair
+// recomputes the sum in the same statement that writes it and only writes when it still differs, so an increment
+// committed after the drift was read is not overwritten. One node at a time runs it, under a lease.
+@Service
+@RequiredArgsConstructor
+public class TaskDurationReconciler {
+    private static final Logger logger = LoggerFactory.getLogger(TaskDurationReconciler.class);
+    private static final int BATCH_SIZE = 500;
+    private static final int SAMPLE_SIZE = 10;
+
+    private static final String SELECT_DRIFT_SQL = "SELECT t.id, t.completed_duration_seconds, COALESCE(s.total, 0) AS expected " +
+            "FROM tasks t LEFT JOIN (SELECT task_id, SUM(duration_in_seconds) AS total FROM task_sessions " +
+            "WHERE status = 'COMPLETED' GROUP BY task_id) s ON s.task_id = t.id " +
+            "WHERE t.completed_duration_seconds IS DISTINCT FROM COALESCE(s.total, 0)";
+    private static final String REPAIR_SQL = "UPDATE tasks t SET completed_duration_seconds = s.total " +
+            "FROM (SELECT COALESCE(SUM(duration_in_seconds), 0) AS total FROM task_sessions " +
+            "WHERE task_id = ? AND status = 'COMPLETED') s " +
+            "WHERE t.id = ? AND t.completed_duration_seconds IS DISTINCT FROM s.total";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final RecurrenceLeaseService leaseService;
+
+    @Value("${app.tasks.duration-reconcile.repair:true}")
+    private boolean repair;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(cron = "${app.tasks.duration-reconcile.cron:0 30 3 * * *}")
+    public long reconcile() {
+        // The lease is left to expire rather than released, so other nodes skip this run.
+        if (!leaseService.tryAcquire(RecurrenceLeaseService.Job.DURATION_RECONCILE, 0)) {
+            return 0;
+        }
+        List<Object[]> batch = new ArrayList<>();
+        List<String> sample = new ArrayList<>();
+        long[] drifted = {0};
+
+        jdbcTemplate.query(SELECT_DRIFT_SQL, rs -> {
+            String taskId = rs.getString("id");
+            long expected = rs.getLong("expected");
+            drifted[0]++;
+            if (sample.size() < SAMPLE_SIZE) {
+                sample.add(taskId + " (" + rs.getObject("completed_duration_seconds") + " -> " + expected + ")");
+            }
+            if (repair) {
+                batch.add(new Object[]{taskId, taskId});
+                if (batch.size() >= BATCH_SIZE) {
+                    jdbcTemplate.batchUpdate(REPAIR_SQL, batch);
+                    batch.clear();
+                }
+            }
+        });
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(REPAIR_SQL, batch);
+        }
+
+        meterRegistry.counter("tasks.completed_duration.drift").increment(drifted[0]);
+        if (drifted[0] > 0) {
+            logger.warn("Completed duration drift on {} tasks{}, e.g. {}", drifted[0], repair ? " (repaired)" : "", sample);
+        } else {
+            logger.info("Completed duration counters are consistent with task sessions");
+        }
+        return drifted[0];
+    }
+}
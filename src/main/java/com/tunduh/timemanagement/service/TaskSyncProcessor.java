@@ -0,0 +1,558 @@
+package com.tunduh.timemanagement.service;
+
+import com.tunduh.timemanagement.dto.request.TaskSessionSyncRequest;
+import com.tunduh.timemanagement.dto.request.TaskSyncRequest;
+import com.tunduh.timemanagement.dto.response.FieldConflictResponse;
+import com.tunduh.timemanagement.dto.response.TaskSyncResponse;
+import com.tunduh.timemanagement.entity.TaskEntity;
+import com.tunduh.timemanagement.entity.TaskSessionEntity;
+import com.tunduh.timemanagement.entity.UserEntity;
+import com.tunduh.timemanagement.event.SessionsSyncedEvent;
+import com.tunduh.timemanagement.utils.TaskFieldGroup;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+// Applies a batch of client sync requests with a fixed number of statements: one read each for the referenced
+// tasks and sessions, then JDBC batches for the inserts, updates and completed-duration increments. Must run
+// inside the caller's transaction. Client-chosen ids must be canonical lowercase UUIDs, like the ones the server
+// generates; an entry with any other id is answered with a conflict and not applied.
+@Service
+@RequiredArgsConstructor
+public class TaskSyncProcessor {
+    private static final Logger logger = LoggerFactory.getLogger(TaskSyncProcessor.class);
+    private static final int MAX_MERGE_ATTEMPTS = 3;
+    private static final String COMPLETED = "COMPLETED";
+    private static final Pattern CANONICAL_UUID = Pattern.compile(
+            "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+    private static final String SELECT_TASKS_SQL = "SELECT id, user_id, title, status, energy, notes, duration, " +
+            "priority, version, details_version, status_version, planning_version FROM tasks WHERE id = ANY(?)";
+    private static final String SELECT_SESSIONS_SQL = "SELECT id, task_id, start_time, end_time, duration_in_seconds, " +
+            "status, notes, version FROM task_sessions WHERE id = ANY(?)";
+    private static final String INSERT_TASK_SQL = "INSERT INTO tasks (id, title, status, energy, notes, duration, " +
+            "priority, version, details_version, status_version, planning_version, repetition_type, user_id, " +
+            "completed_duration_seconds, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, 0, 0, 0, 0, ?, ?, 0, ?, ?) ON CONFLICT (id) DO NOTHING";
+    private static final String UPDATE_TASK_SQL = "UPDATE tasks SET title = ?, status = ?, energy = ?, notes = ?, " +
+            "duration = ?, priority = ?, details_version = ?, status_version = ?, planning_version = ?, version = ?, " +
+            "updated_at = ? WHERE id = ? AND COALESCE(version, 0) = ?";
+    private static final String INSERT_SESSION_SQL = "INSERT INTO task_sessions (id, task_id, start_time, end_time, " +
+            "duration_in_seconds, status, notes, version, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (id) DO NOTHING";
+    private static final String UPDATE_SESSION_SQL = "UPDATE task_sessions SET start_time = ?, end_time = ?, " +
+            "duration_in_seconds = ?, status = ?, notes = ?, version = ?, updated_at = ? " +
+            "WHERE id = ? AND COALESCE(version, 0) = ?";
+    private static final String ADD_DURATION_SQL = "UPDATE tasks SET completed_duration_seconds = " +
+            "completed_duration_seconds + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MissionProgressTracker missionProgressTracker;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public List<TaskSyncResponse> synchronize(UserEntity user, List<TaskSyncRequest> syncRequests) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, List<TaskSyncRequest>> requestsByTask = new LinkedHashMap<>();
+        Map<TaskSyncRequest, String> taskIdByRequest = new IdentityHashMap<>();
+        Map<TaskSyncRequest, List<FieldConflictResponse>> rejected = new IdentityHashMap<>();
+        for (TaskSyncRequest syncRequest : syncRequests) {
+            List<FieldConflictResponse> invalidIds = invalidIds(syncRequest);
+            if (!invalidIds.isEmpty()) {
+                rejected.put(syncRequest, invalidIds);
+                continue;
+            }
+            String taskId = syncRequest.getTaskId() != null ? syncRequest.getTaskId() : UUID.randomUUID().toString();
+            taskIdByRequest.put(syncRequest, taskId);
+            requestsByTask.computeIfAbsent(taskId, id -> new ArrayList<>()).add(syncRequest);
+        }
+
+        Map<String, TaskEntity> merged = new HashMap<>();
+        Set<String> foreign = new HashSet<>();
+        Map<TaskSyncRequest, List<FieldConflictResponse>> conflicts = new IdentityHashMap<>();
+        Set<String> newlyCompleted = new HashSet<>();
+        Set<String> pending = new LinkedHashSet<>(requestsByTask.keySet());
+
+        // Optimistic loop: writes are conditional on the version that was read, and only the tasks another
+        // transaction changed in between are reloaded and merged again.
+        for (int attempt = 0; attempt < MAX_MERGE_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            Map<String, TaskEntity> current = loadTasks(pending);
+            Map<String, TaskEntity> inserts = new LinkedHashMap<>();
+            Map<String, TaskEntity> updates = new LinkedHashMap<>();
+            Map<String, Long> readVersions = new HashMap<>();
+
+            for (String taskId : pending) {
+                TaskEntity task = current.get(taskId);
+                if (task != null && !task.getUser().getId().equals(user.getId())) {
+                    foreign.add(taskId);
+                    continue;
+                }
+                boolean isNew = task == null;
+                if (isNew) {
+                    task = TaskEntity.builder().id(taskId).user(user).version(0L)
+                            .detailsVersion(0L).statusVersion(0L).planningVersion(0L).createdAt(now).build();
+                }
+                long readVersion = version(task.getVersion());
+                boolean wasCompleted = !isNew && COMPLETED.equals(task.getStatus());
+                boolean changed = false;
+                for (TaskSyncRequest syncRequest : requestsByTask.get(taskId)) {
+                    List<FieldConflictResponse> requestConflicts = new ArrayList<>();
+                    changed |= mergeTask(task, syncRequest, isNew ? 0L : readVersion + 1, isNew, requestConflicts);
+                    conflicts.put(syncRequest, requestConflicts);
+                    isNew = false;
+                }
+                merged.put(taskId, task);
+                if (!wasCompleted && COMPLETED.equals(task.getStatus())) {
+                    newlyCompleted.add(taskId);
+                } else {
+                    newlyCompleted.remove(taskId);
+                }
+                if (!current.containsKey(taskId)) {
+                    task.setUpdatedAt(now);
+                    inserts.put(taskId, task);
+                } else if (changed) {
+                    task.setVersion(readVersion + 1);
+                    task.setUpdatedAt(now);
+                    readVersions.put(taskId, readVersion);
+                    updates.put(taskId, task);
+                }
+            }
+
+            Set<String> stale = new LinkedHashSet<>();
+            stale.addAll(insertTasks(inserts.values()));
+            stale.addAll(updateTasks(updates.values(), readVersions));
+            stale.forEach(merged::remove);
+            pending = stale;
+        }
+        newlyCompleted.retainAll(merged.keySet());
+
+        Map<String, List<SessionSync>> sessionSyncs = new LinkedHashMap<>();
+        List<TaskSyncResponse> responses = new ArrayList<>();
+
+        for (TaskSyncRequest syncRequest : syncRequests) {
+            if (rejected.containsKey(syncRequest)) {
+                responses.add(TaskSyncResponse.builder().taskId(syncRequest.getTaskId()).lastSyncedAt(now)
+                        .conflicted(true).conflicts(rejected.get(syncRequest)).build());
+                continue;
+            }
+            String taskId = taskIdByRequest.get(syncRequest);
+            TaskEntity task = merged.get(taskId);
+            if (task == null) {
+                // Owned by another user, or still losing the optimistic race after every retry.
+                responses.add(TaskSyncResponse.builder().taskId(taskId).lastSyncedAt(now).conflicted(true)
+                        .conflicts(List.of()).build());
+                continue;
+            }
+            TaskSyncResponse response = createTaskSyncResponse(task, now, conflicts.getOrDefault(syncRequest, List.of()));
+            if (syncRequest.getSessions() != null) {
+                for (TaskSessionSyncRequest sessionRequest : syncRequest.getSessions()) {
+                    String sessionId = sessionRequest.getSessionId() != null
+                            ? sessionRequest.getSessionId() : UUID.randomUUID().toString();
+                    sessionSyncs.computeIfAbsent(sessionId, id -> new ArrayList<>())
+                            .add(new SessionSync(task, sessionRequest, response));
+                }
+            }
+            responses.add(response);
+        }
+        if (!foreign.isEmpty()) {
+            logger.warn("Sync for user {} referenced {} tasks owned by other users", user.getId(), foreign.size());
+        }
+        if (!rejected.isEmpty()) {
+            logger.warn("Sync for user {} rejected {} entries with non-UUID ids", user.getId(), rejected.size());
+        }
+
+        Map<String, TaskSessionEntity> sessionInserts = new LinkedHashMap<>();
+        Map<String, TaskSessionEntity> sessionUpdates = new LinkedHashMap<>();
+        Map<String, Long> contributionsBefore = new HashMap<>();
+        Map<String, Long> sessionReadVersions = new HashMap<>();
+        Map<String, TaskSessionEntity> existingSessions = loadSessions(sessionSyncs.keySet(), merged);
+        sessionSyncs.forEach((sessionId, syncs) -> syncs.forEach(sync -> syncSession(sessionId, sync, existingSessions,
+                sessionInserts, sessionUpdates, contributionsBefore, sessionReadVersions, true, now)));
+
+        // A session another transaction inserted first is merged again as an existing row.
+        Set<String> staleInserts = insertSessions(sessionInserts.values());
+        if (!staleInserts.isEmpty()) {
+            staleInserts.forEach(sessionId -> {
+                sessionInserts.remove(sessionId);
+                contributionsBefore.remove(sessionId);
+            });
+            Map<String, TaskSessionEntity> reloaded = loadSessions(staleInserts, merged);
+            staleInserts.forEach(sessionId -> sessionSyncs.get(sessionId).forEach(sync -> syncSession(sessionId, sync,
+                    reloaded, sessionInserts, sessionUpdates, contributionsBefore, sessionReadVersions, false, now)));
+        }
+
+        // Session updates are conditional on the version that was read too. A session that a timer operation or
+        // another sync wrote in between is reloaded and merged again, so its completed time is counted once.
+        Set<String> staleUpdates = updateSessions(sessionUpdates.values(), sessionReadVersions);
+        for (int attempt = 1; attempt < MAX_MERGE_ATTEMPTS && !staleUpdates.isEmpty(); attempt++) {
+            staleUpdates.forEach(sessionId -> {
+                sessionUpdates.remove(sessionId);
+                contributionsBefore.remove(sessionId);
+                sessionReadVersions.remove(sessionId);
+            });
+            Map<String, TaskSessionEntity> reloaded = loadSessions(staleUpdates, merged);
+            Map<String, TaskSessionEntity> retried = new LinkedHashMap<>();
+            staleUpdates.forEach(sessionId -> sessionSyncs.get(sessionId).forEach(sync -> syncSession(sessionId, sync,
+                    reloaded, sessionInserts, retried, contributionsBefore, sessionReadVersions, false, now)));
+            sessionUpdates.putAll(retried);
+            staleUpdates = updateSessions(retried.values(), sessionReadVersions);
+        }
+        for (String sessionId : staleUpdates) {
+            sessionUpdates.remove(sessionId);
+            contributionsBefore.remove(sessionId);
+            sessionSyncs.get(sessionId).forEach(sync -> addConflict(sync.response(), FieldConflictResponse.builder()
+                    .field("sessionId").clientValue(sessionId).build()));
+        }
+        if (!staleUpdates.isEmpty()) {
+            logger.warn("Sync for user {} left {} sessions unwritten after {} attempts", user.getId(),
+                    staleUpdates.size(), MAX_MERGE_ATTEMPTS);
+        }
+
+        Map<String, Long> completedDeltas = new HashMap<>();
+        List<MissionProgressTracker.SessionTime> sessionTimes = new ArrayList<>();
+        for (Map<String, TaskSessionEntity> written : List.of(sessionInserts, sessionUpdates)) {
+            written.forEach((sessionId, session) -> recordContribution(session.getTask(), session,
+                    completedContribution(session) - contributionsBefore.getOrDefault(sessionId, 0L),
+                    completedDeltas, sessionTimes));
+        }
+        addCompletedDurations(completedDeltas);
+        missionProgressTracker.recordSessionTime(sessionTimes);
+        missionProgressTracker.recordCompletedTasks(newlyCompleted);
+
+        // The registry picks the written sessions up once the caller's transaction commits; a rolled back sync must
+        // not leave sessions in it that the next flush would write back.
+        List<TaskSessionEntity> written = new ArrayList<>(sessionInserts.values());
+        written.addAll(sessionUpdates.values());
+        if (!written.isEmpty()) {
+            eventPublisher.publishEvent(new SessionsSyncedEvent(written));
+        }
+        return responses;
+    }
+
+    // Applies the client's edited fields to the task. A field whose group changed on the server after the client's
+    // base version is a conflict only if the values differ; the server value is kept and both are reported.
+    private boolean mergeTask(TaskEntity task, TaskSyncRequest syncRequest, long newVersion, boolean isNew,
+                              List<FieldConflictResponse> conflicts) {
+        long baseVersion = syncRequest.getBaseVersion() != null ? syncRequest.getBaseVersion() : version(syncRequest.getVersion());
+        Set<String> changedFields = isNew || syncRequest.getChangedFields() == null
+                ? Set.copyOf(TaskFieldGroup.ALL_FIELDS) : syncRequest.getChangedFields();
+
+        boolean changed = false;
+        for (String field : TaskFieldGroup.ALL_FIELDS) {
+            if (!changedFields.contains(field)) {
+                continue;
+            }
+            TaskFieldGroup group = TaskFieldGroup.of(field);
+            Object clientValue = TaskFieldGroup.value(syncRequest, field);
+            Object serverValue = TaskFieldGroup.value(task, field);
+            if (Objects.equals(clientValue, serverValue)) {
+                continue;
+            }
+            if (!isNew && group.version(task) > baseVersion) {
+                conflicts.add(FieldConflictResponse.builder()
+                        .field(field)
+                        .serverValue(serverValue)
+                        .clientValue(clientValue)
+                        .build());
+                continue;
+            }
+            TaskFieldGroup.setValue(task, field, clientValue);
+            group.setVersion(task, newVersion);
+            changed = true;
+        }
+        return changed;
+    }
+
+    // Remembers each session's completed contribution before its first change, so the task's completed duration
+    // is only adjusted by what was actually written.
+    private void syncSession(String sessionId, SessionSync sync, Map<String, TaskSessionEntity> existingSessions,
+                             Map<String, TaskSessionEntity> sessionInserts,
+                             Map<String, TaskSessionEntity> sessionUpdates,
+                             Map<String, Long> contributionsBefore, Map<String, Long> readVersions,
+                             boolean mayInsert, LocalDateTime now) {
+        TaskEntity task = sync.task();
+        TaskSessionSyncRequest sessionRequest = sync.request();
+        TaskSessionEntity session = sessionInserts.containsKey(sessionId)
+                ? sessionInserts.get(sessionId) : existingSessions.get(sessionId);
+
+        if (session == null) {
+            if (!mayInsert) {
+                return;
+            }
+            session = TaskSessionEntity.builder().id(sessionId).task(task).createdAt(now).build();
+            updateTaskSessionFromSyncRequest(session, sessionRequest, now);
+            sessionInserts.put(sessionId, session);
+            contributionsBefore.put(sessionId, 0L);
+        } else if (session.getTask().getId().equals(task.getId())
+                && version(sessionRequest.getVersion()) > version(session.getVersion())) {
+            contributionsBefore.putIfAbsent(sessionId, completedContribution(session));
+            if (!sessionInserts.containsKey(sessionId)) {
+                readVersions.putIfAbsent(sessionId, version(session.getVersion()));
+            }
+            updateTaskSessionFromSyncRequest(session, sessionRequest, now);
+            if (!sessionInserts.containsKey(sessionId)) {
+                sessionUpdates.put(sessionId, session);
+            }
+        }
+    }
+
+    private List<FieldConflictResponse> invalidIds(TaskSyncRequest syncRequest) {
+        List<FieldConflictResponse> invalid = new ArrayList<>();
+        if (syncRequest.getTaskId() != null && !CANONICAL_UUID.matcher(syncRequest.getTaskId()).matches()) {
+            invalid.add(FieldConflictResponse.builder().field("taskId").clientValue(syncRequest.getTaskId()).build());
+        }
+        if (syncRequest.getSessions() != null) {
+            for (TaskSessionSyncRequest sessionRequest : syncRequest.getSessions()) {
+                String sessionId = sessionRequest.getSessionId();
+                if (sessionId != null && !CANONICAL_UUID.matcher(sessionId).matches()) {
+                    invalid.add(FieldConflictResponse.builder().field("sessionId").clientValue(sessionId).build());
+                }
+            }
+        }
+        return invalid;
+    }
+
+    private Map<String, TaskEntity> loadTasks(Collection<String> taskIds) {
+        Map<String, TaskEntity> tasks = new HashMap<>();
+        if (taskIds.isEmpty()) {
+            return tasks;
+        }
+        String[] ids = taskIds.toArray(new String[0]);
+        jdbcTemplate.query(SELECT_TASKS_SQL, rs -> {
+            TaskEntity task = TaskEntity.builder()
+                    .id(rs.getString("id"))
+                    .user(UserEntity.builder().id(rs.getString("user_id")).build())
+                    .title(rs.getString("title"))
+                    .status(rs.getString("status"))
+                    .energy(rs.getInt("energy"))
+                    .notes(rs.getString("notes"))
+                    .duration(rs.getInt("duration"))
+                    .priority(rs.getString("priority"))
+                    .version(rs.getObject("version", Long.class))
+                    .detailsVersion(rs.getObject("details_version", Long.class))
+                    .statusVersion(rs.getObject("status_version", Long.class))
+                    .planningVersion(rs.getObject("planning_version", Long.class))
+                    .build();
+            tasks.put(task.getId(), task);
+        }, (Object) ids);
+        return tasks;
+    }
+
+    private Map<String, TaskSessionEntity> loadSessions(Collection<String> sessionIds, Map<String, TaskEntity> tasks) {
+        Map<String, TaskSessionEntity> sessions = new HashMap<>();
+        if (sessionIds.isEmpty()) {
+            return sessions;
+        }
+        String[] ids = sessionIds.toArray(new String[0]);
+        jdbcTemplate.query(SELECT_SESSIONS_SQL, rs -> {
+            String taskId = rs.getString("task_id");
+            Timestamp endTime = rs.getTimestamp("end_time");
+            TaskSessionEntity session = TaskSessionEntity.builder()
+                    .id(rs.getString("id"))
+                    .task(tasks.getOrDefault(taskId, TaskEntity.builder().id(taskId).build()))
+                    .startTime(rs.getTimestamp("start_time").toLocalDateTime())
+                    .endTime(endTime != null ? endTime.toLocalDateTime() : null)
+                    .durationInSeconds(rs.getLong("duration_in_seconds"))
+                    .status(TaskSessionEntity.SessionStatus.valueOf(rs.getString("status")))
+                    .notes(rs.getString("notes"))
+                    .version(rs.getObject("version", Long.class))
+                    .build();
+            sessions.put(session.getId(), session);
+        }, (Object) ids);
+        return sessions;
+    }
+
+    private void updateTaskSessionFromSyncRequest(TaskSessionEntity session, TaskSessionSyncRequest sessionRequest,
+                                                  LocalDateTime now) {
+        session.setStartTime(sessionRequest.getStartTime());
+        session.setEndTime(sessionRequest.getEndTime());
+        session.setDurationInSeconds(sessionRequest.getDurationInSeconds());
+        session.setStatus(TaskSessionEntity.SessionStatus.valueOf(sessionRequest.getStatus()));
+        session.setNotes(sessionRequest.getNotes());
+        session.setVersion(sessionRequest.getVersion());
+        session.setUpdatedAt(now);
+    }
+
+    // Returns the ids another transaction inserted first; they are merged again as existing tasks.
+    private Set<String> insertTasks(Collection<TaskEntity> tasks) {
+        if (tasks.isEmpty()) {
+            return Set.of();
+        }
+        List<TaskEntity> rows = new ArrayList<>(tasks);
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_TASK_SQL, rows, rows.size(), (ps, task) -> {
+            ps.setString(1, task.getId());
+            ps.setString(2, task.getTitle());
+            ps.setString(3, task.getStatus());
+            ps.setObject(4, task.getEnergy(), Types.INTEGER);
+            ps.setString(5, task.getNotes());
+            ps.setObject(6, task.getDuration(), Types.INTEGER);
+            ps.setString(7, task.getPriority());
+            ps.setString(8, TaskEntity.RepetitionType.NONE.name());
+            ps.setString(9, task.getUser().getId());
+            ps.setTimestamp(10, Timestamp.valueOf(task.getCreatedAt()));
+            ps.setTimestamp(11, Timestamp.valueOf(task.getUpdatedAt()));
+        });
+        return unaffected(rows, counts, TaskEntity::getId);
+    }
+
+    // Returns the ids whose version moved since they were read.
+    private Set<String> updateTasks(Collection<TaskEntity> tasks, Map<String, Long> readVersions) {
+        if (tasks.isEmpty()) {
+            return Set.of();
+        }
+        List<TaskEntity> rows = new ArrayList<>(tasks);
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_TASK_SQL, rows, rows.size(), (ps, task) -> {
+            ps.setString(1, task.getTitle());
+            ps.setString(2, task.getStatus());
+            ps.setObject(3, task.getEnergy(), Types.INTEGER);
+            ps.setString(4, task.getNotes());
+            ps.setObject(5, task.getDuration(), Types.INTEGER);
+            ps.setString(6, task.getPriority());
+            ps.setObject(7, task.getDetailsVersion(), Types.BIGINT);
+            ps.setObject(8, task.getStatusVersion(), Types.BIGINT);
+            ps.setObject(9, task.getPlanningVersion(), Types.BIGINT);
+            ps.setLong(10, task.getVersion());
+            ps.setTimestamp(11, Timestamp.valueOf(task.getUpdatedAt()));
+            ps.setString(12, task.getId());
+            ps.setLong(13, readVersions.get(task.getId()));
+        });
+        return unaffected(rows, counts, TaskEntity::getId);
+    }
+
+    private <T> Set<String> unaffected(List<T> rows, int[][] counts, Function<T, String> id) {
+        Set<String> ids = new LinkedHashSet<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    ids.add(id.apply(rows.get(index)));
+                }
+                index++;
+            }
+        }
+        return ids;
+    }
+
+    // Returns the ids another transaction inserted first.
+    private Set<String> insertSessions(Collection<TaskSessionEntity> sessions) {
+        if (sessions.isEmpty()) {
+            return Set.of();
+        }
+        List<TaskSessionEntity> rows = new ArrayList<>(sessions);
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_SESSION_SQL, rows, rows.size(), (ps, session) -> {
+            ps.setString(1, session.getId());
+            ps.setString(2, session.getTask().getId());
+            ps.setTimestamp(3, toTimestamp(session.getStartTime()));
+            ps.setTimestamp(4, toTimestamp(session.getEndTime()));
+            ps.setObject(5, session.getDurationInSeconds(), Types.BIGINT);
+            ps.setString(6, session.getStatus().name());
+            ps.setString(7, session.getNotes());
+            ps.setObject(8, session.getVersion(), Types.BIGINT);
+            ps.setTimestamp(9, Timestamp.valueOf(session.getCreatedAt()));
+            ps.setTimestamp(10, Timestamp.valueOf(session.getUpdatedAt()));
+        });
+        return unaffected(rows, counts, TaskSessionEntity::getId);
+    }
+
+    // Returns the ids whose version moved since they were read.
+    private Set<String> updateSessions(Collection<TaskSessionEntity> sessions, Map<String, Long> readVersions) {
+        if (sessions.isEmpty()) {
+            return Set.of();
+        }
+        List<TaskSessionEntity> rows = new ArrayList<>(sessions);
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SESSION_SQL, rows, rows.size(), (ps, session) -> {
+            ps.setTimestamp(1, toTimestamp(session.getStartTime()));
+            ps.setTimestamp(2, toTimestamp(session.getEndTime()));
+            ps.setObject(3, session.getDurationInSeconds(), Types.BIGINT);
+            ps.setString(4, session.getStatus().name());
+            ps.setString(5, session.getNotes());
+            ps.setObject(6, session.getVersion(), Types.BIGINT);
+            ps.setTimestamp(7, Timestamp.valueOf(session.getUpdatedAt()));
+            ps.setString(8, session.getId());
+            ps.setLong(9, readVersions.get(session.getId()));
+        });
+        return unaffected(rows, counts, TaskSessionEntity::getId);
+    }
+
+    private void addConflict(TaskSyncResponse response, FieldConflictResponse conflict) {
+        List<FieldConflictResponse> conflicts = new ArrayList<>(response.getConflicts());
+        conflicts.add(conflict);
+        response.setConflicts(conflicts);
+        response.setConflicted(true);
+    }
+
+    private void addCompletedDurations(Map<String, Long> completedDeltas) {
+        List<Object[]> updates = new ArrayList<>();
+        completedDeltas.forEach((taskId, delta) -> {
+            if (delta != 0) {
+                updates.add(new Object[]{delta, taskId});
+            }
+        });
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_DURATION_SQL, updates);
+        }
+    }
+
+    private void recordContribution(TaskEntity task, TaskSessionEntity session, long delta,
+                                    Map<String, Long> completedDeltas,
+                                    List<MissionProgressTracker.SessionTime> sessionTimes) {
+        if (delta != 0) {
+            completedDeltas.merge(task.getId(), delta, Long::sum);
+            sessionTimes.add(new MissionProgressTracker.SessionTime(task.getUser().getId(), task.getId(),
+                    session.getStartTime(), delta));
+        }
+    }
+
+    private long completedContribution(TaskSessionEntity session) {
+        return session.getStatus() == TaskSessionEntity.SessionStatus.COMPLETED && session.getDurationInSeconds() != null
+                ? session.getDurationInSeconds() : 0L;
+    }
+
+    private long version(Long version) {
+        return version != null ? version : 0L;
+    }
+
+    private Timestamp toTimestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+
+    private record SessionSync(TaskEntity task, TaskSessionSyncRequest request, TaskSyncResponse response) {
+    }
+
+    private TaskSyncResponse createTaskSyncResponse(TaskEntity task, LocalDateTime now,
+                                                    List<FieldConflictResponse> conflicts) {
+        return TaskSyncResponse.builder()
+                .taskId(task.getId())
+                .title(task.getTitle())
+                .energy(task.getEnergy())
+                .notes(task.getNotes())
+                .status(task.getStatus())
+                .duration(task.getDuration())
+                .priority(task.getPriority())
+                .lastSyncedAt(now)
+                .version(task.getVersion())
+                .conflicted(!conflicts.isEmpty())
+                .conflicts(conflicts)
+                .build();
+    }
+}
@@ -0,0 +1,131 @@
+package com.tunduh.timemanagement.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tunduh.timemanagement.dto.request.TaskSyncRequest;
+import com.tunduh.timemanagement.dto.response.TaskSyncResponse;
+import com.tunduh.timemanagement.entity.UserEntity;
+import com.tunduh.timemanagement.exception.PayloadTooLargeException;
+import com.tunduh.timemanagement.exception.ResourceNotFoundException;
+import com.tunduh.timemanagement.repository.UserRepository;
+import com.tunduh.timemanagement.utils.BoundedInputStream;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Sync for payloads too large to bind as a list. The JSON array is read one element at a time, every window of
+// elements is applied by TaskSyncProcessor in its own transaction, and its responses are written as NDJSON lines
+// and flushed before the next window is parsed. Only one window is ever held in memory.
+@Service
+@RequiredArgsConstructor
+public class TaskSyncStreamService {
+    private static final Logger logger = LoggerFactory.getLogger(TaskSyncStreamService.class);
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final TaskSyncProcessor taskSyncProcessor;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.sync.stream.window-size:200}")
+    private int windowSize;
+
+    @Value("${app.sync.stream.max-payload-bytes:268435456}")
+    private long maxPayloadBytes;
+
+    @Value("${app.sync.stream.max-sessions-per-task:1000}")
+    private int maxSessionsPerTask;
+
+    // Reads the first element before anything is written, so a malformed or oversized start still surfaces as an
+    // ordinary error response. Failures after output has begun are reported as a final {"error": ...} line; the
+    // windows already written stay committed.
+    public void synchronize(String userId, InputStream body, OutputStream out) throws IOException {
+        UserEntity user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(new BoundedInputStream(body, maxPayloadBytes))) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Sync payload must be a JSON array");
+            }
+
+            List<TaskSyncRequest> window = new ArrayList<>(windowSize);
+            TaskSyncRequest first = readNext(parser);
+            if (first == null) {
+                out.flush();
+                return;
+            }
+            window.add(first);
+
+            long processed = 0;
+            try {
+                TaskSyncRequest next;
+                while ((next = readNext(parser)) != null) {
+                    window.add(next);
+                    if (window.size() >= windowSize) {
+                        processed += processWindow(user, window, out);
+                    }
+                }
+                processed += processWindow(user, window, out);
+            } catch (RuntimeException | IOException e) {
+                logger.warn("Streaming sync for user {} stopped after {} tasks: {}", userId, processed, e.getMessage());
+                writeLine(out, Map.of("error", errorMessage(e)));
+                out.flush();
+                return;
+            }
+            logger.info("Streaming sync for user {} processed {} tasks", userId, processed);
+        }
+    }
+
+    private TaskSyncRequest readNext(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Sync payload must contain task objects");
+        }
+        TaskSyncRequest request = objectMapper.readValue(parser, TaskSyncRequest.class);
+        if (request.getSessions() != null && request.getSessions().size() > maxSessionsPerTask) {
+            throw new IllegalArgumentException("Task " + request.getTaskId() + " has more than "
+                    + maxSessionsPerTask + " sessions");
+        }
+        return request;
+    }
+
+    private int processWindow(UserEntity user, List<TaskSyncRequest> window, OutputStream out) throws IOException {
+        if (window.isEmpty()) {
+            return 0;
+        }
+        List<TaskSyncResponse> responses = transactionTemplate.execute(status -> taskSyncProcessor.synchronize(user, window));
+        for (TaskSyncResponse response : responses) {
+            writeLine(out, response);
+        }
+        out.flush();
+        int size = window.size();
+        window.clear();
+        return size;
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write(NEWLINE);
+    }
+
+    private String errorMessage(Exception e) {
+        if (e instanceof PayloadTooLargeException || e instanceof IllegalArgumentException) {
+            return e.getMessage();
+        }
+        return e instanceof IOException ? "Malformed sync payload" : "Sync failed";
+    }
+}
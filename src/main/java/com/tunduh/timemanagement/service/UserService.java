@@ -6,6 +6,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalTime;
+import java.time.ZoneId;
 
 public interface UserService {
     UserResponse getCurrentUser(String userId);
@@ -17,5 +18,6 @@ public interface UserService {
 
     UserResponse updateUser(String userId, UserUpdateRequest updateRequest);
     UserResponse setResetTime(String userId, LocalTime resetTime);
+    UserResponse setTimeZone(String userId, ZoneId timeZone);
     void performDailyReset();
 }
\ No newline at end of file
@@ -5,29 +5,46 @@ import com.tunduh.timemanagement.dto.response.AdminMissionResponse;
 import com.tunduh.timemanagement.dto.response.ShopItemResponse;
 import com.tunduh.timemanagement.entity.MissionEntity;
 import com.tunduh.timemanagement.entity.ShopItemEntity;
+import com.tunduh.timemanagement.event.CatalogChangedEvent;
 import com.tunduh.timemanagement.exception.ResourceNotFoundException;
 import com.tunduh.timemanagement.repository.MissionRepository;
+import com.tunduh.timemanagement.repository.UserMissionRepository;
 import com.tunduh.timemanagement.service.AdminMissionService;
+import com.tunduh.timemanagement.service.CatalogCache;
 import com.tunduh.timemanagement.service.CloudinaryService;
+import com.tunduh.timemanagement.utils.catalog.CatalogMission;
+import com.tunduh.timemanagement.utils.criteria.CriteriaSqlCompiler;
+import com.tunduh.timemanagement.utils.criteria.MissionCriteria;
 import com.tunduh.timemanagement.utils.pagination.CustomPagination;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class AdminMissionServiceImpl implements AdminMissionService {
+    private static final String MISSION_SCOPE = "um2.mission_id = ?";
+    private static final String OPEN_MISSION_SCOPE = "um2.mission_id = ? AND um2.expired_at IS NULL";
 
     private final MissionRepository missionRepository;
+    private final UserMissionRepository userMissionRepository;
     private final CloudinaryService cloudinaryService;
+    private final CatalogCache catalogCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
 
 
     @Override
@@ -40,13 +57,18 @@ public class AdminMissionServiceImpl implements AdminMissionService {
                 .criteriaValue(request.getCriteriaValue())
                 .criteriaCompleted(0)
                 .type(request.getType())
+                .criteriaMetric(request.getCriteriaMetric())
+                .criteriaWindow(request.getCriteriaWindow())
+                .criteriaFilter(request.getCriteriaFilter())
                 .missionIcon(request.getMissionIcon())
                 .startDate(request.getStartDate())
                 .endDate(request.getEndDate())
                 .status(MissionEntity.MissionStatus.ACTIVE)
                 .build();
+        MissionCriteria.of(mission).validate(mission.getType());
 
         MissionEntity savedMission = missionRepository.save(mission);
+        publishChange(savedMission.getId());
 
         return mapToAdminMissionResponse(savedMission);
     }
@@ -58,6 +80,7 @@ public class AdminMissionServiceImpl implements AdminMissionService {
         String url = cloudinaryService.uploadFile(file, "shop-item");
         mission.setMissionIcon(url);
         MissionEntity updatedMission = missionRepository.save(mission);
+        publishChange(updatedMission.getId());
         return mapToAdminMissionResponse(updatedMission);
     }
 
@@ -67,6 +90,7 @@ public class AdminMissionServiceImpl implements AdminMissionService {
     public AdminMissionResponse updateMission(String id, AdminMissionRequest request) {
         MissionEntity mission = missionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Mission not found"));
+        MissionCriteria previous = MissionCriteria.of(mission);
 
         mission.setName(request.getName());
         mission.setDescription(request.getDescription());
@@ -74,10 +98,26 @@ public class AdminMissionServiceImpl implements AdminMissionService {
         mission.setCriteriaValue(request.getCriteriaValue());
         mission.setCriteriaCompleted(0);
         mission.setType(request.getType());
+        mission.setCriteriaMetric(request.getCriteriaMetric());
+        mission.setCriteriaWindow(request.getCriteriaWindow());
+        mission.setCriteriaFilter(request.getCriteriaFilter());
         mission.setStartDate(request.getStartDate());
         mission.setEndDate(request.getEndDate());
+        MissionCriteria criteria = MissionCriteria.of(mission);
+        criteria.validate(mission.getType());
+        // Moving the end date of an expired mission back into the future reopens it and the claims it closed.
+        if (mission.getStatus() == MissionEntity.MissionStatus.EXPIRED
+                && mission.getEndDate().isAfter(LocalDateTime.now())) {
+            mission.setStatus(MissionEntity.MissionStatus.ACTIVE);
+            mission.setExpiredAt(null);
+            userMissionRepository.reopenExpired(mission.getId());
+        }
+        if (!criteria.equals(previous)) {
+            recomputeProgress(mission, criteria);
+        }
 
         MissionEntity updatedMission = missionRepository.save(mission);
+        publishChange(updatedMission.getId());
         return mapToAdminMissionResponse(updatedMission);
     }
 
@@ -87,10 +127,15 @@ public class AdminMissionServiceImpl implements AdminMissionService {
         MissionEntity mission = missionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Mission not found"));
         missionRepository.delete(mission);
+        publishChange(id);
     }
 
     @Override
     public AdminMissionResponse getMissionById(String id) {
+        Optional<CatalogMission> cached = catalogCache.missions().flatMap(snapshot -> snapshot.find(id));
+        if (cached.isPresent()) {
+            return mapToAdminMissionResponse(cached.get());
+        }
         MissionEntity mission = missionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Mission not found"));
         return mapToAdminMissionResponse(mission);
@@ -100,11 +145,55 @@ public class AdminMissionServiceImpl implements AdminMissionService {
     public CustomPagination<AdminMissionResponse> getAllMissions(int page, int size, String sort) {
         Pageable pageable = createPageable(page, size, sort);
 
+        Optional<Page<CatalogMission>> cached = catalogCache.missions()
+                .map(snapshot -> snapshot.query(mission -> true, pageable));
+        if (cached.isPresent()) {
+            return new CustomPagination<>(cached.get().map(this::mapToAdminMissionResponse));
+        }
         Page<MissionEntity> result = missionRepository.findAll(pageable);
 
         return new CustomPagination<>(result.map(this::mapToAdminMissionResponse));
     }
 
+    // Stored progress was aggregated under the old rule; rebuild it for every claim of the mission so the change is
+    // visible together with the new definition, and complete the open claims the new target already covers.
+    private void recomputeProgress(MissionEntity mission, MissionCriteria criteria) {
+        CriteriaSqlCompiler.CompiledQuery update = CriteriaSqlCompiler.progressUpdate(criteria, MISSION_SCOPE,
+                mission.getId());
+        jdbcTemplate.update(update.sql(), update.params());
+        if (mission.getStatus() == MissionEntity.MissionStatus.ACTIVE) {
+            CriteriaSqlCompiler.CompiledQuery complete = CriteriaSqlCompiler.completeReached(criteria,
+                    Timestamp.valueOf(LocalDateTime.now()), OPEN_MISSION_SCOPE, mission.getId());
+            jdbcTemplate.update(complete.sql(), complete.params());
+        }
+    }
+
+    private void publishChange(String id) {
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Catalog.MISSIONS, id));
+    }
+
+    private AdminMissionResponse mapToAdminMissionResponse(CatalogMission mission) {
+        return AdminMissionResponse.builder()
+                .id(mission.id())
+                .name(mission.name())
+                .description(mission.description())
+                .pointReward(mission.pointReward())
+                .criteriaValue(mission.criteriaValue())
+                .criteriaCompleted(mission.criteriaCompleted())
+                .missionIcon(mission.missionIcon())
+                .type(mission.type())
+                .criteriaMetric(mission.criteriaMetric())
+                .criteriaWindow(mission.criteriaWindow())
+                .criteriaFilter(mission.criteriaFilter())
+                .startDate(mission.startDate())
+                .endDate(mission.endDate())
+                .status(mission.status())
+                .expiredAt(mission.expiredAt())
+                .createdAt(mission.createdAt())
+                .updatedAt(mission.updatedAt())
+                .build();
+    }
+
     private AdminMissionResponse mapToAdminMissionResponse(MissionEntity mission) {
         return AdminMissionResponse.builder()
                 .id(mission.getId())
@@ -115,9 +204,13 @@ public class AdminMissionServiceImpl implements AdminMissionService {
                 .criteriaCompleted(mission.getCriteriaCompleted())
                 .missionIcon(mission.getMissionIcon())
                 .type(mission.getType())
+                .criteriaMetric(mission.getCriteriaMetric())
+                .criteriaWindow(mission.getCriteriaWindow())
+                .criteriaFilter(mission.getCriteriaFilter())
                 .startDate(mission.getStartDate())
                 .endDate(mission.getEndDate())
                 .status(mission.getStatus())
+                .expiredAt(mission.getExpiredAt())
                 .createdAt(mission.getCreatedAt())
                 .updatedAt(mission.getUpdatedAt())
                 .build();
@@ -5,6 +5,7 @@ import com.tunduh.timemanagement.dto.response.PurchaseResponse;
 import com.tunduh.timemanagement.entity.PurchaseEntity;
 import com.tunduh.timemanagement.entity.ShopItemEntity;
 import com.tunduh.timemanagement.entity.UserEntity;
+import com.tunduh.timemanagement.event.CatalogChangedEvent;
 import com.tunduh.timemanagement.exception.InsufficientPointsException;
 import com.tunduh.timemanagement.exception.ResourceNotFoundException;
 import com.tunduh.timemanagement.repository.PurchaseRepository;
@@ -14,6 +15,7 @@ import com.tunduh.timemanagement.service.PurchaseService;
 import com.tunduh.timemanagement.service.TransactionService;
 import com.tunduh.timemanagement.utils.pagination.CustomPagination;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -28,6 +30,7 @@ public class PurchaseServiceImpl implements PurchaseService {
     private final ShopItemRepository shopItemRepository;
     private final UserRepository userRepository;
     private final TransactionService transactionService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -63,6 +66,7 @@ public class PurchaseServiceImpl implements PurchaseService {
         // Update shop item stock
         shopItem.setStock(shopItem.getStock() - request.getQuantity());
         shopItemRepository.save(shopItem);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Catalog.SHOP_ITEMS, shopItem.getId()));
 
         // Create transaction record
         transactionService.createTransaction(userId, -totalPrice,
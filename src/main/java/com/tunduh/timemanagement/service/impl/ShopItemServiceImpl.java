@@ -7,17 +7,21 @@ import com.tunduh.timemanagement.entity.PurchaseEntity;
 import com.tunduh.timemanagement.entity.ShopItemEntity;
 import com.tunduh.timemanagement.entity.TransactionEntity;
 import com.tunduh.timemanagement.entity.UserEntity;
+import com.tunduh.timemanagement.event.CatalogChangedEvent;
 import com.tunduh.timemanagement.exception.InsufficientPointsException;
 import com.tunduh.timemanagement.exception.ResourceNotFoundException;
 import com.tunduh.timemanagement.repository.PurchaseRepository;
 import com.tunduh.timemanagement.repository.ShopItemRepository;
 import com.tunduh.timemanagement.repository.UserRepository;
+import com.tunduh.timemanagement.service.CatalogCache;
 import com.tunduh.timemanagement.service.CloudinaryService;
 import com.tunduh.timemanagement.service.ShopItemService;
 import com.tunduh.timemanagement.service.TransactionService;
+import com.tunduh.timemanagement.utils.catalog.CatalogShopItem;
 import com.tunduh.timemanagement.utils.pagination.CustomPagination;
 import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -30,6 +34,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -39,6 +44,8 @@ public class ShopItemServiceImpl implements ShopItemService {
     private final PurchaseRepository purchaseRepository;
     private final CloudinaryService cloudinaryService;
     private final TransactionService transactionService;
+    private final CatalogCache catalogCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -53,6 +60,7 @@ public class ShopItemServiceImpl implements ShopItemService {
                 .updatedAt(LocalDateTime.now())
                 .build();
         ShopItemEntity savedShopItem = shopItemRepository.save(shopItem);
+        publishChange(savedShopItem.getId());
         return mapToShopItemResponse(savedShopItem);
     }
 
@@ -64,12 +72,18 @@ public class ShopItemServiceImpl implements ShopItemService {
         String url = cloudinaryService.uploadFile(file, "shop-item");
         shopItem.setItemPicture(url);
         ShopItemEntity updatedShopItem = shopItemRepository.save(shopItem);
+        publishChange(updatedShopItem.getId());
         return mapToShopItemResponse(updatedShopItem);
     }
 
     @Override
     public CustomPagination<ShopItemResponse> getAllShopItems(int page, int size, String sort, String name, Integer maxPrice, ShopItemEntity.ItemCategory category) {
         Pageable pageable = createPageable(page, size, sort);
+        Optional<Page<CatalogShopItem>> cached = catalogCache.shopItems()
+                .map(snapshot -> snapshot.query(item -> item.matches(name, maxPrice, category), pageable));
+        if (cached.isPresent()) {
+            return new CustomPagination<>(cached.get().map(this::mapToShopItemResponse));
+        }
         Specification<ShopItemEntity> spec = createSpecification(name, maxPrice, category);
         Page<ShopItemEntity> shopItemPage = shopItemRepository.findAll(spec, pageable);
         return new CustomPagination<>(shopItemPage.map(this::mapToShopItemResponse));
@@ -77,6 +91,10 @@ public class ShopItemServiceImpl implements ShopItemService {
 
     @Override
     public ShopItemResponse getShopItemById(String id) {
+        Optional<CatalogShopItem> cached = catalogCache.shopItems().flatMap(snapshot -> snapshot.find(id));
+        if (cached.isPresent()) {
+            return mapToShopItemResponse(cached.get());
+        }
         ShopItemEntity shopItem = shopItemRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Shop item not found"));
         return mapToShopItemResponse(shopItem);
@@ -94,6 +112,7 @@ public class ShopItemServiceImpl implements ShopItemService {
         shopItem.setDescription(shopItemRequest.getDescription());
         shopItem.setUpdatedAt(LocalDateTime.now());
         ShopItemEntity updatedShopItem = shopItemRepository.save(shopItem);
+        publishChange(updatedShopItem.getId());
         return mapToShopItemResponse(updatedShopItem);
     }
 
@@ -103,8 +122,27 @@ public class ShopItemServiceImpl implements ShopItemService {
         ShopItemEntity shopItem = shopItemRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Shop item not found"));
         shopItemRepository.delete(shopItem);
+        publishChange(id);
+    }
+
+
+    private void publishChange(String id) {
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Catalog.SHOP_ITEMS, id));
     }
 
+    private ShopItemResponse mapToShopItemResponse(CatalogShopItem shopItem) {
+        return ShopItemResponse.builder()
+                .id(shopItem.id())
+                .name(shopItem.name())
+                .itemPicture(shopItem.itemPicture())
+                .price(shopItem.price())
+                .stock(shopItem.stock())
+                .category(shopItem.category())
+                .description(shopItem.description())
+                .createdAt(shopItem.createdAt())
+                .updatedAt(shopItem.updatedAt())
+                .build();
+    }
 
     private ShopItemResponse mapToShopItemResponse(ShopItemEntity shopItem) {
         return ShopItemResponse.builder()
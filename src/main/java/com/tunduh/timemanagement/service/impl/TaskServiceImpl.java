@@ -2,27 +2,42 @@ package com.tunduh.timemanagement.service.impl;
 
 import com.tunduh.timemanagement.dto.request.TaskRequest;
 import com.tunduh.timemanagement.dto.request.TaskSessionRequest;
-import com.tunduh.timemanagement.dto.request.TaskSessionSyncRequest;
 import com.tunduh.timemanagement.dto.request.TaskSyncRequest;
+import com.tunduh.timemanagement.dto.response.TaskChangesResponse;
 import com.tunduh.timemanagement.dto.response.TaskResponse;
 import com.tunduh.timemanagement.dto.response.TaskSessionResponse;
 import com.tunduh.timemanagement.dto.response.TaskSyncResponse;
+import com.tunduh.timemanagement.dto.response.TombstoneResponse;
 import com.tunduh.timemanagement.entity.TaskEntity;
+import com.tunduh.timemanagement.entity.SyncTombstoneEntity;
 import com.tunduh.timemanagement.entity.TaskSessionEntity;
 import com.tunduh.timemanagement.entity.UserEntity;
+import com.tunduh.timemanagement.event.SessionChangedEvent;
+import com.tunduh.timemanagement.event.TaskCompletedEvent;
 import com.tunduh.timemanagement.exception.ResourceNotFoundException;
+import com.tunduh.timemanagement.repository.SyncTombstoneRepository;
+import com.tunduh.timemanagement.repository.TaskGenerationLedgerRepository;
 import com.tunduh.timemanagement.repository.TaskRepository;
 import com.tunduh.timemanagement.repository.TaskSessionRepository;
 import com.tunduh.timemanagement.repository.UserRepository;
+import com.tunduh.timemanagement.service.ActiveSessionRegistry;
 import com.tunduh.timemanagement.service.CloudinaryService;
 import com.tunduh.timemanagement.service.EnergyManagementService;
+import com.tunduh.timemanagement.service.RecurringTaskGenerator;
+import com.tunduh.timemanagement.service.SyncTombstonePurger;
 import com.tunduh.timemanagement.service.TaskService;
+import com.tunduh.timemanagement.service.TaskSyncProcessor;
+import com.tunduh.timemanagement.utils.ChangeCursor;
+import com.tunduh.timemanagement.utils.RecurrenceUtil;
+import com.tunduh.timemanagement.utils.TaskFieldGroup;
 import com.tunduh.timemanagement.utils.pagination.CustomPagination;
 import com.tunduh.timemanagement.utils.specification.TaskSpecification;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -30,6 +45,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.Duration;
@@ -37,80 +53,56 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TaskServiceImpl implements TaskService {
+    @SuppressWarnings("rawtypes")
+    private static final Map<String, Function<TaskResponse, Comparable>> SORT_KEYS = Map.of(
+            "title", TaskResponse::getTitle,
+            "status", TaskResponse::getStatus,
+            "priority", TaskResponse::getPriority,
+            "energy", TaskResponse::getEnergy,
+            "duration", TaskResponse::getDuration,
+            "occurrenceDate", TaskResponse::getOccurrenceDate,
+            "createdAt", TaskResponse::getCreatedAt,
+            "updatedAt", TaskResponse::getUpdatedAt);
+
     private final TaskRepository taskRepository;
     private final TaskSessionRepository taskSessionRepository;
     private final UserRepository userRepository;
     private final CloudinaryService cloudinaryService;
     private final EnergyManagementService energyManagementService;
+    private final RecurringTaskGenerator recurringTaskGenerator;
+    private final TaskGenerationLedgerRepository ledgerRepository;
+    private final ActiveSessionRegistry activeSessionRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskSyncProcessor taskSyncProcessor;
+    private final SyncTombstoneRepository syncTombstoneRepository;
+    private final SyncTombstonePurger syncTombstonePurger;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
-    @Override
-    @Scheduled(cron = "0 0 0 * * ?") // Run every day at midnight
-    public void generateRecurringTasks() {
-        LocalDate today = LocalDate.now();
-        List<TaskEntity> recurringTasks = taskRepository.findAllActiveRecurringTasks(today.atStartOfDay());
-
-        for (TaskEntity task : recurringTasks) {
-            if (shouldGenerateTaskForToday(task, today)) {
-                createNewTaskInstance(task, today);
-            }
-        }
-    }
+    @Value("${app.recurrence.max-range-days:92}")
+    private int maxRangeDays;
 
-    private boolean shouldGenerateTaskForToday(TaskEntity task, LocalDate today) {
-        if (today.isBefore(task.getRepetitionStartDate().toLocalDate()) ||
-                (task.getRepetitionEndDate() != null && today.isAfter(task.getRepetitionEndDate().toLocalDate()))) {
-            return false;
-        }
+    @Value("${app.sync.changes.max-limit:1000}")
+    private int maxChangesLimit;
 
-        switch (task.getRepetitionType()) {
-            case DAILY:
-                return true;
-            case WEEKLY:
-                return task.getRepetitionDates().contains(today.getDayOfWeek().getValue());
-            case MONTHLY:
-                return task.getRepetitionDates().contains(today.getDayOfMonth());
-            case YEARLY:
-                return task.getRepetitionDates().contains(today.getDayOfYear());
-            case CUSTOM:
-                long daysBetween = ChronoUnit.DAYS.between(task.getRepetitionStartDate().toLocalDate(), today);
-                return daysBetween % task.getRepetitionInterval() == 0;
-            default:
-                return false;
-        }
-    }
-
-    private void createNewTaskInstance(TaskEntity originalTask, LocalDate today) {
-        TaskEntity newTask = TaskEntity.builder()
-                .id(UUID.randomUUID().toString())
-                .title(originalTask.getTitle())
-                .energy(originalTask.getEnergy())
-                .notes(originalTask.getNotes())
-                .status("PENDING")
-                .duration(originalTask.getDuration())
-                .priority(originalTask.getPriority())
-                .user(originalTask.getUser())
-                .repetitionType(originalTask.getRepetitionType())
-                .repetitionDates(originalTask.getRepetitionDates())
-                .repetitionStartDate(originalTask.getRepetitionStartDate())
-                .repetitionEndDate(originalTask.getRepetitionEndDate())
-                .repetitionInterval(originalTask.getRepetitionInterval())
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
-        taskRepository.save(newTask);
+    @Override
+    @Scheduled(fixedDelayString = "${app.recurrence.poll-interval-ms:300000}") // Runs on every node; partitions are split by lease
+    public void generateRecurringTasks() {
+        recurringTaskGenerator.generateDueOccurrences();
     }
 
     @Override
     @Transactional
     public TaskSessionResponse startTask(TaskSessionRequest request, String userId) {
-        TaskEntity task = getTaskForUser(request.getTaskId(), userId);
+        TaskEntity task = request.getOccurrenceDate() != null
+                ? getOrMaterializeOccurrence(request.getTaskId(), request.getOccurrenceDate(), userId)
+                : getTaskForUser(request.getTaskId(), userId);
         TaskSessionEntity session = TaskSessionEntity.builder()
                 .task(task)
                 .startTime(LocalDateTime.now())
@@ -118,32 +110,82 @@ public class TaskServiceImpl implements TaskService {
                 .status(TaskSessionEntity.SessionStatus.IN_PROGRESS)
                 .notes(request.getNotes())
                 .build();
-        return mapToTaskSessionResponse(taskSessionRepository.save(session));
+        TaskSessionEntity savedSession = taskSessionRepository.save(session);
+        activeSessionRegistry.register(savedSession);
+        TaskSessionResponse response = mapToTaskSessionResponse(savedSession);
+        eventPublisher.publishEvent(new SessionChangedEvent(userId, "started", response));
+        return response;
     }
 
     @Override
-    @Transactional
     public TaskSessionResponse pauseTask(String sessionId, String userId) {
-        TaskSessionEntity session = getTaskSessionForUser(sessionId, userId);
-        if (session.getStatus() != TaskSessionEntity.SessionStatus.IN_PROGRESS) {
-            throw new IllegalStateException("Task is not in progress");
-        }
-        session.setStatus(TaskSessionEntity.SessionStatus.PAUSED);
-        session.setDurationInSeconds(session.getDurationInSeconds() +
-                Duration.between(session.getStartTime(), LocalDateTime.now()).getSeconds());
-        return mapToTaskSessionResponse(taskSessionRepository.save(session));
+        TaskSessionResponse response = withActiveSession(sessionId, userId, "Task is not in progress", active -> {
+            if (active.getStatus() != TaskSessionEntity.SessionStatus.IN_PROGRESS) {
+                throw new IllegalStateException("Task is not in progress");
+            }
+            LocalDateTime now = LocalDateTime.now();
+            active.setDurationInSeconds(active.elapsedSeconds(now));
+            active.setStatus(TaskSessionEntity.SessionStatus.PAUSED);
+            return mapToTaskSessionResponse(active, now);
+        });
+        eventPublisher.publishEvent(new SessionChangedEvent(userId, "paused", response));
+        return response;
     }
 
     @Override
-    @Transactional
     public TaskSessionResponse resumeTask(String sessionId, String userId) {
-        TaskSessionEntity session = getTaskSessionForUser(sessionId, userId);
-        if (session.getStatus() != TaskSessionEntity.SessionStatus.PAUSED) {
-            throw new IllegalStateException("Task is not paused");
-        }
-        session.setStatus(TaskSessionEntity.SessionStatus.IN_PROGRESS);
-        session.setStartTime(LocalDateTime.now());
-        return mapToTaskSessionResponse(taskSessionRepository.save(session));
+        TaskSessionResponse response = withActiveSession(sessionId, userId, "Task is not paused", active -> {
+            if (active.getStatus() != TaskSessionEntity.SessionStatus.PAUSED) {
+                throw new IllegalStateException("Task is not paused");
+            }
+            LocalDateTime now = LocalDateTime.now();
+            active.setStatus(TaskSessionEntity.SessionStatus.IN_PROGRESS);
+            active.setStartTime(now);
+            return mapToTaskSessionResponse(active, now);
+        });
+        eventPublisher.publishEvent(new SessionChangedEvent(userId, "resumed", response));
+        return response;
+    }
+
+    // Pause and resume run against the in-memory registry; the database is only read, in its own transaction,
+    // when the session has not been registered in this process yet, e.g. it was created through sync.
+    private TaskSessionResponse withActiveSession(String sessionId, String userId, String inactiveMessage,
+                                                  Function<ActiveSessionRegistry.ActiveSession, TaskSessionResponse> operation) {
+        return activeSessionRegistry.update(sessionId, userId, operation).orElseGet(() ->
+                transactionTemplate.execute(status -> {
+                    activeSessionRegistry.register(getTaskSessionForUser(sessionId, userId));
+                    return activeSessionRegistry.update(sessionId, userId, operation)
+                            .orElseThrow(() -> new IllegalStateException(inactiveMessage));
+                }));
+    }
+
+    // Carries the registry's unflushed timer state over to the loaded row, unless the row has since been written
+    // at a later version (e.g. paused or resumed through another node); then the registry copy is dropped.
+    private void applyActiveState(TaskSessionEntity session, String userId) {
+        activeSessionRegistry.find(session.getId(), userId).ifPresent(active -> {
+            if (!active.isCurrentFor(session)) {
+                activeSessionRegistry.remove(session.getId());
+                return;
+            }
+            session.setStatus(active.getStatus());
+            session.setStartTime(active.getStartTime());
+            session.setDurationInSeconds(active.getDurationInSeconds());
+        });
+    }
+
+    // Sessions started or changed through other nodes are only in the database; this node's registry copy is used
+    // where it is still current for the row, since it can be ahead of the row by one flush interval.
+    @Override
+    public List<TaskSessionResponse> getActiveSessions(String userId) {
+        LocalDateTime now = LocalDateTime.now();
+        return taskSessionRepository.findByUserIdAndStatusIn(userId,
+                        List.of(TaskSessionEntity.SessionStatus.IN_PROGRESS, TaskSessionEntity.SessionStatus.PAUSED))
+                .stream()
+                .map(session -> activeSessionRegistry.find(session.getId(), userId)
+                        .filter(active -> active.isCurrentFor(session))
+                        .orElseGet(() -> ActiveSessionRegistry.ActiveSession.from(session)))
+                .map(active -> mapToTaskSessionResponse(active, now))
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -151,8 +193,10 @@ public class TaskServiceImpl implements TaskService {
     public TaskSessionResponse stopTask(String sessionId, String userId) {
         TaskSessionEntity session = getTaskSessionForUser(sessionId, userId);
         if (session.getStatus() == TaskSessionEntity.SessionStatus.COMPLETED) {
+            activeSessionRegistry.remove(sessionId);
             throw new IllegalStateException("Task is already completed");
         }
+        applyActiveState(session, userId);
         session.setEndTime(LocalDateTime.now());
         if (session.getStatus() == TaskSessionEntity.SessionStatus.IN_PROGRESS) {
             session.setDurationInSeconds(session.getDurationInSeconds() +
@@ -165,23 +209,35 @@ public class TaskServiceImpl implements TaskService {
         TaskEntity task = session.getTask();
         energyManagementService.decreaseEnergy(userId, task.getEnergy());
 
-        checkAndUpdateTaskCompletion(session.getTask());
+        long totalSessionDuration = addCompletedDuration(task, savedSession.getDurationInSeconds());
+        checkAndUpdateTaskCompletion(task, totalSessionDuration);
+        activeSessionRegistry.remove(sessionId);
 
-        return mapToTaskSessionResponse(savedSession);
+        TaskSessionResponse response = mapToTaskSessionResponse(savedSession);
+        eventPublisher.publishEvent(new SessionChangedEvent(userId, "stopped", response));
+        return response;
     }
 
-    private void checkAndUpdateTaskCompletion(TaskEntity task) {
-        long totalSessionDuration = taskSessionRepository.findByTaskId(task.getId()).stream()
-                .filter(session -> session.getStatus() == TaskSessionEntity.SessionStatus.COMPLETED)
-                .mapToLong(TaskSessionEntity::getDurationInSeconds)
-                .sum();
+    // Atomically adds to the task's completed duration and returns the new total; the row stays locked until
+    // the surrounding transaction commits, so concurrent stops on the same task serialize here.
+    private long addCompletedDuration(TaskEntity task, long seconds) {
+        if (seconds != 0) {
+            taskRepository.addCompletedDuration(task.getId(), seconds);
+        }
+        Long total = taskRepository.findCompletedDurationSeconds(task.getId());
+        task.setCompletedDurationSeconds(total);
+        return total != null ? total : 0L;
+    }
 
+    private void checkAndUpdateTaskCompletion(TaskEntity task, long totalSessionDuration) {
         long taskDurationInSeconds = task.getDuration() * 60L; // Convert minutes to seconds
 
         if (totalSessionDuration >= taskDurationInSeconds && !task.getStatus().equals("COMPLETED")) {
             task.setStatus("COMPLETED");
+            task.setStatusVersion(nextVersion(task));
             task.setCompletedAt(LocalDateTime.now());
             taskRepository.save(task);
+            eventPublisher.publishEvent(new TaskCompletedEvent(task.getUser().getId(), task.getId(), task.getCompletedAt()));
             log.info("Task {} marked as completed. Total session duration: {} seconds, Required duration: {} seconds",
                     task.getId(), totalSessionDuration, taskDurationInSeconds);
         }
@@ -191,8 +247,14 @@ public class TaskServiceImpl implements TaskService {
     @Transactional
     public TaskSessionResponse updateTaskSessionNotes(String sessionId, String notes, String userId) {
         TaskSessionEntity session = getTaskSessionForUser(sessionId, userId);
+        applyActiveState(session, userId);
         session.setNotes(notes);
-        return mapToTaskSessionResponse(taskSessionRepository.save(session));
+        // Flushed so the registry is re-based on the version this write produces.
+        TaskSessionEntity savedSession = taskSessionRepository.saveAndFlush(session);
+        if (activeSessionRegistry.find(sessionId, userId).isPresent()) {
+            activeSessionRegistry.register(savedSession);
+        }
+        return mapToTaskSessionResponse(savedSession);
     }
 
     @Override
@@ -229,118 +291,112 @@ public class TaskServiceImpl implements TaskService {
                 .build();
     }
 
+    private TaskSessionResponse mapToTaskSessionResponse(ActiveSessionRegistry.ActiveSession session, LocalDateTime now) {
+        return TaskSessionResponse.builder()
+                .id(session.getId())
+                .taskId(session.getTaskId())
+                .startTime(session.getStartTime())
+                .durationInSeconds(session.getDurationInSeconds())
+                .elapsedInSeconds(session.elapsedSeconds(now))
+                .status(session.getStatus())
+                .notes(session.getNotes())
+                .createdAt(session.getCreatedAt())
+                .updatedAt(session.getUpdatedAt())
+                .build();
+    }
+
     @Override
     @Transactional
     public List<TaskSyncResponse> synchronizeTasks(String userId, List<TaskSyncRequest> syncRequests) {
-        List<TaskSyncResponse> responses = new ArrayList<>();
-        List<String> taskIds = syncRequests.stream()
-                .map(TaskSyncRequest::getTaskId)
-                .collect(Collectors.toList());
-
-        List<TaskEntity> tasks = taskRepository.findByIdIn(taskIds);
-
-        Map<String, TaskEntity> existingTasks = tasks.stream()
-                .collect(Collectors.toMap(TaskEntity::getId, task -> task));
-
-        for (TaskSyncRequest syncRequest : syncRequests) {
-            TaskEntity task = existingTasks.get(syncRequest.getTaskId());
-            if (task == null) {
-                // Create new task
-                task = createNewTask(syncRequest, userId);
-            } else if (syncRequest.getVersion() > task.getVersion()) {
-                // Update existing task
-                updateExistingTask(task, syncRequest);
-            }
-
-            // Sync task sessions
-            List<TaskSessionEntity> updatedSessions = syncTaskSessions(task, syncRequest.getSessions());
-
-            // Prepare response
-            responses.add(createTaskSyncResponse(task, updatedSessions));
-        }
-
-        return responses;
-    }
-
-    private TaskEntity createNewTask(TaskSyncRequest syncRequest, String userId) {
-        TaskEntity newTask = new TaskEntity();
-        updateTaskFromSyncRequest(newTask, syncRequest);
-
-        UserEntity user = userRepository.findById(userId).orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        newTask.setUser(user);
-
-        return taskRepository.save(newTask);
+        UserEntity user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        return taskSyncProcessor.synchronize(user, syncRequests);
     }
 
-    private void updateExistingTask(TaskEntity task, TaskSyncRequest syncRequest) {
-        updateTaskFromSyncRequest(task, syncRequest);
-        taskRepository.save(task);
-    }
+    // Only changes written by transactions older than the oldest one still running are served: a running
+    // transaction may hold sequence values below changes that are already visible, and must not be passed. Each
+    // entity type is read up to the limit, and the cursor stops at the lowest boundary among truncated types so
+    // nothing is skipped.
+    @Override
+    public TaskChangesResponse getChanges(String userId, String since, int limit) {
+        ChangeCursor from = ChangeCursor.parse(since);
+        if (!from.equals(ChangeCursor.START) && syncTombstonePurger.purgedThrough()
+                .filter(horizon -> from.compareTo(horizon) < 0).isPresent()) {
+            return TaskChangesResponse.builder()
+                    .tasks(List.of())
+                    .sessions(List.of())
+                    .deleted(List.of())
+                    .cursor(ChangeCursor.START.token())
+                    .resyncRequired(true)
+                    .build();
+        }
 
-    private void updateTaskFromSyncRequest(TaskEntity task, TaskSyncRequest syncRequest) {
-        task.setTitle(syncRequest.getTitle());
-        task.setStatus(syncRequest.getStatus());
-        task.setEnergy(syncRequest.getEnergy());
-        task.setNotes(syncRequest.getNotes());
-        task.setDuration(syncRequest.getDuration());
-        task.setPriority(syncRequest.getPriority());
-        task.setVersion(syncRequest.getVersion());
-        task.setUpdatedAt(LocalDateTime.now());
-    }
+        int pageSize = Math.max(1, Math.min(limit, maxChangesLimit));
+        long visibleXid = syncTombstoneRepository.findVisibleXidHorizon();
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
 
-    private List<TaskSessionEntity> syncTaskSessions(TaskEntity task, List<TaskSessionSyncRequest> sessionRequests) {
-        List<TaskSessionEntity> updatedSessions = new ArrayList<>();
-        Map<String, TaskSessionEntity> existingSessions = task.getSessions().stream()
-                .collect(Collectors.toMap(TaskSessionEntity::getId, session -> session));
+        List<TaskEntity> tasks = taskRepository.findChangesSince(userId, from.xid(), from.seq(), visibleXid, pageable);
+        List<TaskSessionEntity> sessions = taskSessionRepository.findChangesSince(
+                userId, from.xid(), from.seq(), visibleXid, pageable);
+        List<SyncTombstoneEntity> tombstones = syncTombstoneRepository.findChangesSince(
+                userId, from.xid(), from.seq(), visibleXid, pageable);
 
-        for (TaskSessionSyncRequest sessionRequest : sessionRequests) {
-            TaskSessionEntity session = existingSessions.get(sessionRequest.getSessionId());
-            if (session == null) {
-                session = createNewTaskSession(task, sessionRequest);
-            } else if (sessionRequest.getVersion() > session.getVersion()) {
-                updateExistingTaskSession(session, sessionRequest);
+        ChangeCursor cursor = null;
+        if (tasks.size() > pageSize) {
+            cursor = boundary(cursor, positionOf(tasks.get(pageSize - 1)));
+        }
+        if (sessions.size() > pageSize) {
+            cursor = boundary(cursor, positionOf(sessions.get(pageSize - 1)));
+        }
+        if (tombstones.size() > pageSize) {
+            cursor = boundary(cursor, positionOf(tombstones.get(pageSize - 1)));
+        }
+        boolean hasMore = cursor != null;
+        if (!hasMore) {
+            cursor = from;
+            for (TaskEntity task : tasks) {
+                cursor = ChangeCursor.max(cursor, positionOf(task));
+            }
+            for (TaskSessionEntity session : sessions) {
+                cursor = ChangeCursor.max(cursor, positionOf(session));
+            }
+            for (SyncTombstoneEntity tombstone : tombstones) {
+                cursor = ChangeCursor.max(cursor, positionOf(tombstone));
             }
-            updatedSessions.add(session);
         }
 
-        return updatedSessions;
+        ChangeCursor limitPosition = cursor;
+        return TaskChangesResponse.builder()
+                .tasks(tasks.stream().filter(t -> positionOf(t).compareTo(limitPosition) <= 0)
+                        .map(this::mapToTaskResponse).collect(Collectors.toList()))
+                .sessions(sessions.stream().filter(s -> positionOf(s).compareTo(limitPosition) <= 0)
+                        .map(this::mapToTaskSessionResponse).collect(Collectors.toList()))
+                .deleted(tombstones.stream().filter(d -> positionOf(d).compareTo(limitPosition) <= 0)
+                        .map(d -> TombstoneResponse.builder()
+                                .entityType(d.getEntityType())
+                                .entityId(d.getEntityId())
+                                .deletedAt(d.getDeletedAt())
+                                .build())
+                        .collect(Collectors.toList()))
+                .cursor(cursor.token())
+                .hasMore(hasMore)
+                .build();
     }
 
-    private TaskSessionEntity createNewTaskSession(TaskEntity task, TaskSessionSyncRequest sessionRequest) {
-        TaskSessionEntity newSession = new TaskSessionEntity();
-        updateTaskSessionFromSyncRequest(newSession, sessionRequest);
-        newSession.setTask(task);
-        return taskSessionRepository.save(newSession);
+    private ChangeCursor boundary(ChangeCursor current, ChangeCursor candidate) {
+        return current == null ? candidate : ChangeCursor.min(current, candidate);
     }
 
-    private void updateExistingTaskSession(TaskSessionEntity session, TaskSessionSyncRequest sessionRequest) {
-        updateTaskSessionFromSyncRequest(session, sessionRequest);
-        taskSessionRepository.save(session);
+    private ChangeCursor positionOf(TaskEntity task) {
+        return new ChangeCursor(task.getChangeXid(), task.getChangeSeq());
     }
 
-    private void updateTaskSessionFromSyncRequest(TaskSessionEntity session, TaskSessionSyncRequest sessionRequest) {
-        session.setStartTime(sessionRequest.getStartTime());
-        session.setEndTime(sessionRequest.getEndTime());
-        session.setDurationInSeconds(sessionRequest.getDurationInSeconds());
-        session.setStatus(TaskSessionEntity.SessionStatus.valueOf(sessionRequest.getStatus()));
-        session.setNotes(sessionRequest.getNotes());
-        session.setVersion(sessionRequest.getVersion());
-        session.setUpdatedAt(LocalDateTime.now());
+    private ChangeCursor positionOf(TaskSessionEntity session) {
+        return new ChangeCursor(session.getChangeXid(), session.getChangeSeq());
     }
 
-    private TaskSyncResponse createTaskSyncResponse(TaskEntity task, List<TaskSessionEntity> sessions) {
-        return TaskSyncResponse.builder()
-                .taskId(task.getId())
-                .title(task.getTitle())
-                .energy(task.getEnergy())
-                .notes(task.getNotes())
-                .status(task.getStatus())
-                .duration(task.getDuration())
-                .priority(task.getPriority())
-                .lastSyncedAt(LocalDateTime.now())
-                .version(task.getVersion())
-                .conflicted(false)
-                .build();
+    private ChangeCursor positionOf(SyncTombstoneEntity tombstone) {
+        return new ChangeCursor(tombstone.getChangeXid(), tombstone.getChangeSeq());
     }
 
     @Override
@@ -349,7 +405,7 @@ public class TaskServiceImpl implements TaskService {
         UserEntity user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        LocalDate now = LocalDate.now();
+        LocalDate now = recurringTaskGenerator.localToday(user);
 
         if (taskRequest.getRepetitionStartDate() != null && taskRequest.getRepetitionStartDate().isBefore(now.atStartOfDay())) {
             throw new IllegalArgumentException("Repetition start date must be today or in the future.");
@@ -368,7 +424,6 @@ public class TaskServiceImpl implements TaskService {
                 .duration(taskRequest.getDuration())
                 .priority(taskRequest.getPriority())
                 .repetitionType(taskRequest.getRepetitionType())
-                .repetitionDates(taskRequest.getRepetitionDates())
                 .repetitionStartDate(taskRequest.getRepetitionStartDate())
                 .repetitionEndDate(taskRequest.getRepetitionEndDate())
                 .repetitionInterval(taskRequest.getRepetitionInterval())
@@ -378,6 +433,7 @@ public class TaskServiceImpl implements TaskService {
                 .build();
 
         validateAndSetRepetitionDates(task, taskRequest.getRepetitionDates());
+        updateNextOccurrence(task, now);
 
         TaskEntity savedTask = taskRepository.save(task);
         return mapToTaskResponse(savedTask);
@@ -386,34 +442,41 @@ public class TaskServiceImpl implements TaskService {
     private void validateAndSetRepetitionDates(TaskEntity task, Set<Integer> dates) {
         switch (task.getRepetitionType()) {
             case DAILY:
-                task.setRepetitionDates(Collections.emptySet());
+                RecurrenceUtil.applyRepetitionDates(task, Collections.emptySet());
                 break;
             case WEEKLY:
                 validateWeeklyDates(dates);
-                task.setRepetitionDates(dates);
+                RecurrenceUtil.applyRepetitionDates(task, dates);
                 break;
             case MONTHLY:
                 validateMonthlyDates(dates);
-                task.setRepetitionDates(dates);
+                RecurrenceUtil.applyRepetitionDates(task, dates);
                 break;
             case YEARLY:
                 validateYearlyDates(dates);
-                task.setRepetitionDates(dates);
+                RecurrenceUtil.applyRepetitionDates(task, dates);
                 break;
             case CUSTOM:
-                if (task.getRepetitionInterval() == null) {
-                    throw new IllegalArgumentException("Repetition interval is required for CUSTOM type");
+                if (task.getRepetitionInterval() == null || task.getRepetitionInterval() < 1) {
+                    throw new IllegalArgumentException("Repetition interval of at least 1 day is required for CUSTOM type");
                 }
-                task.setRepetitionDates(Collections.emptySet());
+                RecurrenceUtil.applyRepetitionDates(task, Collections.emptySet());
                 break;
             case NONE:
-                task.setRepetitionDates(Collections.emptySet());
+                RecurrenceUtil.applyRepetitionDates(task, Collections.emptySet());
                 task.setRepetitionStartDate(null);
                 task.setRepetitionEndDate(null);
                 break;
         }
     }
 
+    private void updateNextOccurrence(TaskEntity task, LocalDate from) {
+        LocalDate next = RecurrenceUtil.nextOccurrence(task, from);
+        task.setNextOccurrenceAt(next != null ? next.atStartOfDay() : null);
+        task.setNextDueAt(null);
+        task.setNextDueComputedAt(null);
+    }
+
     private void validateWeeklyDates(Set<Integer> dates) {
         if (dates.stream().anyMatch(d -> d < 1 || d > 7)) {
             throw new IllegalArgumentException("Weekly dates must be between 1 and 7");
@@ -444,15 +507,134 @@ public class TaskServiceImpl implements TaskService {
     }
 
     @Override
-    public CustomPagination<TaskResponse> getAllTasks(String userId, int page, int size, String sort, String title, String status) {
+    public CustomPagination<TaskResponse> getAllTasks(String userId, int page, int size, String sort, String title, String status,
+                                                      LocalDate from, LocalDate to) {
         Pageable pageable = createPageable(page, size, sort);
         Specification<TaskEntity> spec = TaskSpecification.getSpecification(title, status, userId);
+        if (from != null && to != null) {
+            // A range lists the one-off tasks created in it next to the recurring occurrences that fall in it.
+            List<TaskResponse> tasks = collectOccurrences(userId, from, to);
+            taskRepository.findAll(spec.and(TaskSpecification.standaloneCreatedBetween(
+                    from.atStartOfDay(), to.plusDays(1).atStartOfDay()))).forEach(task -> tasks.add(mapToTaskResponse(task)));
+            return page(filter(tasks, title, status), comparator(pageable.getSort()), page, size);
+        }
 
         Page<TaskEntity> taskPage = taskRepository.findAll(spec, pageable);
 
         return new CustomPagination<>(taskPage.map(this::mapToTaskResponse));
     }
 
+    @Override
+    public CustomPagination<TaskResponse> getOccurrences(String userId, LocalDate from, LocalDate to, int page, int size,
+                                                         String title, String status) {
+        return page(filter(collectOccurrences(userId, from, to), title, status), comparator(Sort.unsorted()), page, size);
+    }
+
+    private List<TaskResponse> collectOccurrences(String userId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new IllegalArgumentException("Date range cannot exceed " + maxRangeDays + " days");
+        }
+
+        List<TaskResponse> occurrences = new ArrayList<>();
+        for (TaskEntity instance : taskRepository.findByUserIdAndOccurrenceDateBetween(userId, from, to)) {
+            occurrences.add(mapToTaskResponse(instance));
+        }
+
+        // Occurrences recorded in the ledger are either persisted above or were deleted by the user; only the
+        // remaining dates are expanded from the templates.
+        List<TaskEntity> templates = taskRepository.findRecurringTemplatesForUserInRange(
+                userId, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+        if (!templates.isEmpty()) {
+            Set<String> recorded = ledgerRepository.findByTemplateIdInAndOccurrenceDateBetween(
+                            templates.stream().map(TaskEntity::getId).collect(Collectors.toList()), from, to).stream()
+                    .map(entry -> entry.getTemplateId() + "|" + entry.getOccurrenceDate())
+                    .collect(Collectors.toSet());
+            for (TaskEntity template : templates) {
+                LocalDate date = RecurrenceUtil.nextOccurrence(template, from);
+                while (date != null && !date.isAfter(to)) {
+                    if (!recorded.contains(template.getId() + "|" + date)) {
+                        occurrences.add(mapToVirtualOccurrence(template, date));
+                    }
+                    date = RecurrenceUtil.nextOccurrence(template, date.plusDays(1));
+                }
+            }
+        }
+        return occurrences;
+    }
+
+    private List<TaskResponse> filter(List<TaskResponse> tasks, String title, String status) {
+        return tasks.stream()
+                .filter(o -> title == null || title.isEmpty() || (o.getTitle() != null && o.getTitle().toLowerCase().contains(title.toLowerCase())))
+                .filter(o -> status == null || status.isEmpty() || status.equals(o.getStatus()))
+                .collect(Collectors.toList());
+    }
+
+    private CustomPagination<TaskResponse> page(List<TaskResponse> tasks, Comparator<TaskResponse> order, int page, int size) {
+        tasks.sort(order);
+        int fromIndex = Math.min(page * size, tasks.size());
+        int toIndex = Math.min(fromIndex + size, tasks.size());
+        return new CustomPagination<>(tasks.subList(fromIndex, toIndex), tasks.size(), page, size);
+    }
+
+    // In-memory equivalent of the sort parameter for merged listings. Without one, entries are ordered by the day
+    // they belong to: the occurrence date, or the creation date of a one-off task.
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private Comparator<TaskResponse> comparator(Sort sort) {
+        Comparator<TaskResponse> order = null;
+        for (Sort.Order sortOrder : sort) {
+            Function<TaskResponse, Comparable> key = SORT_KEYS.get(sortOrder.getProperty());
+            if (key == null) {
+                throw new IllegalArgumentException("Cannot sort tasks by " + sortOrder.getProperty());
+            }
+            Comparator<TaskResponse> next = Comparator.comparing(key,
+                    Comparator.nullsLast(Comparator.<Comparable>naturalOrder()));
+            next = sortOrder.isDescending() ? next.reversed() : next;
+            order = order == null ? next : order.thenComparing(next);
+        }
+        Comparator<TaskResponse> byDay = Comparator.comparing(this::listingDate, Comparator.nullsLast(Comparator.naturalOrder()));
+        Comparator<TaskResponse> tieBreak = Comparator.comparing(TaskResponse::getTitle, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+                .thenComparing(TaskResponse::getTemplateId, Comparator.nullsLast(Comparator.naturalOrder()));
+        return order == null ? byDay.thenComparing(tieBreak) : order.thenComparing(byDay).thenComparing(tieBreak);
+    }
+
+    private LocalDate listingDate(TaskResponse task) {
+        if (task.getOccurrenceDate() != null) {
+            return task.getOccurrenceDate();
+        }
+        return task.getCreatedAt() != null ? task.getCreatedAt().toLocalDate() : null;
+    }
+
+    @Override
+    @Transactional
+    public TaskResponse updateOccurrence(String templateId, LocalDate occurrenceDate, TaskRequest taskRequest, String userId) {
+        TaskEntity task = getOrMaterializeOccurrence(templateId, occurrenceDate, userId);
+        TaskEntity before = snapshotSyncedFields(task);
+        task.setTitle(taskRequest.getTitle());
+        task.setEnergy(taskRequest.getEnergy());
+        task.setNotes(taskRequest.getNotes());
+        task.setStatus(taskRequest.getStatus());
+        task.setDuration(taskRequest.getDuration());
+        task.setPriority(taskRequest.getPriority());
+        task.setUpdatedAt(LocalDateTime.now());
+        TaskFieldGroup.markChanged(before, task, nextVersion(task));
+        return mapToTaskResponse(taskRepository.saveAndFlush(task));
+    }
+
+    private TaskEntity getOrMaterializeOccurrence(String templateId, LocalDate occurrenceDate, String userId) {
+        TaskEntity template = getTaskForUser(templateId, userId);
+        String instanceId = recurringTaskGenerator.materializeOccurrence(template, occurrenceDate);
+        if (instanceId == null) {
+            instanceId = ledgerRepository.findByTemplateIdAndOccurrenceDate(templateId, occurrenceDate)
+                    .orElseThrow(() -> new ResourceNotFoundException("Occurrence not found"))
+                    .getInstanceId();
+        }
+        return taskRepository.findByIdAndUserId(instanceId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Occurrence has been deleted"));
+    }
+
     @Override
     public TaskResponse getTaskById(String id, String userId) {
         TaskEntity task = taskRepository.findByIdAndUserId(id, userId)
@@ -466,7 +648,7 @@ public class TaskServiceImpl implements TaskService {
         TaskEntity task = taskRepository.findByIdAndUserId(id, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Task not found for this user"));
 
-        LocalDate now = LocalDate.now();
+        LocalDate now = recurringTaskGenerator.localToday(task.getUser());
 
         if (taskRequest.getRepetitionStartDate() != null && taskRequest.getRepetitionStartDate().isBefore(now.atStartOfDay())) {
             throw new IllegalArgumentException("Repetition start date must be today or in the future.");
@@ -476,6 +658,7 @@ public class TaskServiceImpl implements TaskService {
             throw new IllegalArgumentException("Repetition end date must be today or in the future.");
         }
 
+        TaskEntity before = snapshotSyncedFields(task);
         task.setTitle(taskRequest.getTitle());
         task.setEnergy(taskRequest.getEnergy());
         task.setNotes(taskRequest.getNotes());
@@ -483,15 +666,17 @@ public class TaskServiceImpl implements TaskService {
         task.setDuration(taskRequest.getDuration());
         task.setPriority(taskRequest.getPriority());
         task.setRepetitionType(taskRequest.getRepetitionType());
-        task.setRepetitionDates(taskRequest.getRepetitionDates());
         task.setRepetitionStartDate(taskRequest.getRepetitionStartDate());
         task.setRepetitionEndDate(taskRequest.getRepetitionEndDate());
         task.setRepetitionInterval(taskRequest.getRepetitionInterval());
         task.setUpdatedAt(LocalDateTime.now());
 
         validateAndSetRepetitionDates(task, taskRequest.getRepetitionDates());
+        updateNextOccurrence(task, now);
+        TaskFieldGroup.markChanged(before, task, nextVersion(task));
 
-        TaskEntity updatedTask = taskRepository.save(task);
+        // Flushed so the response carries the version the client must send as its sync base.
+        TaskEntity updatedTask = taskRepository.saveAndFlush(task);
         return mapToTaskResponse(updatedTask);
     }
 
@@ -501,9 +686,26 @@ public class TaskServiceImpl implements TaskService {
         TaskEntity task = taskRepository.findByIdAndUserId(id, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Task not found for this user"));
         taskSessionRepository.deleteByTaskId(task.getId());
+        activeSessionRegistry.evictTask(task.getId());
         taskRepository.delete(task);
     }
 
+    private TaskEntity snapshotSyncedFields(TaskEntity task) {
+        return TaskEntity.builder()
+                .title(task.getTitle())
+                .notes(task.getNotes())
+                .status(task.getStatus())
+                .energy(task.getEnergy())
+                .duration(task.getDuration())
+                .priority(task.getPriority())
+                .build();
+    }
+
+    // The version Hibernate will write when the pending change flushes.
+    private long nextVersion(TaskEntity task) {
+        return (task.getVersion() != null ? task.getVersion() : 0L) + 1;
+    }
+
     private TaskResponse mapToTaskResponse(TaskEntity task) {
         return TaskResponse.builder()
                 .id(UUID.fromString(task.getId()))
@@ -514,16 +716,35 @@ public class TaskServiceImpl implements TaskService {
                 .duration(task.getDuration())
                 .priority(task.getPriority())
                 .repetitionType(task.getRepetitionType())
-                .repetitionDates(task.getRepetitionDates())
+                .repetitionDates(RecurrenceUtil.getRepetitionDates(task))
                 .repetitionStartDate(task.getRepetitionStartDate())
                 .repetitionEndDate(task.getRepetitionEndDate())
                 .repetitionInterval(task.getRepetitionInterval())
                 .taskPicture(task.getTaskPicture())
+                .templateId(task.getRecurrenceParentId())
+                .occurrenceDate(task.getOccurrenceDate())
+                .version(task.getVersion())
                 .createdAt(task.getCreatedAt())
                 .updatedAt(task.getUpdatedAt())
                 .build();
     }
 
+    private TaskResponse mapToVirtualOccurrence(TaskEntity template, LocalDate occurrenceDate) {
+        return TaskResponse.builder()
+                .title(template.getTitle())
+                .energy(template.getEnergy())
+                .notes(template.getNotes())
+                .status("PENDING")
+                .duration(template.getDuration())
+                .priority(template.getPriority())
+                .repetitionType(TaskEntity.RepetitionType.NONE)
+                .taskPicture(template.getTaskPicture())
+                .templateId(template.getId())
+                .occurrenceDate(occurrenceDate)
+                .virtual(true)
+                .build();
+    }
+
     private Pageable createPageable(int page, int size, String sort) {
         List<Sort.Order> orders = new ArrayList<>();
         if (sort != null) {
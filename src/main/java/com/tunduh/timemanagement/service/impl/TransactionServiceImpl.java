@@ -3,11 +3,13 @@ package com.tunduh.timemanagement.service;
 import com.tunduh.timemanagement.dto.response.TransactionResponse;
 import com.tunduh.timemanagement.entity.TransactionEntity;
 import com.tunduh.timemanagement.entity.UserEntity;
+import com.tunduh.timemanagement.event.UserBalanceChangedEvent;
 import com.tunduh.timemanagement.exception.ResourceNotFoundException;
 import com.tunduh.timemanagement.repository.TransactionRepository;
 import com.tunduh.timemanagement.repository.UserRepository;
 import com.tunduh.timemanagement.utils.pagination.CustomPagination;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
@@ -18,6 +20,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class TransactionServiceImpl implements TransactionService {
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -37,6 +40,7 @@ public class TransactionServiceImpl implements TransactionService {
         // Update user points
         user.setUserPoint(user.getUserPoint() + pointsChange);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserBalanceChangedEvent(userId, user.getEnergy(), user.getUserPoint()));
 
         return mapToTransactionResponse(savedTransaction);
     }
@@ -1,8 +1,10 @@
 package com.tunduh.timemanagement.service.impl;
 
 import com.tunduh.timemanagement.dto.response.AdminMissionResponse;
+import com.tunduh.timemanagement.dto.response.MissionProgressResponse;
 import com.tunduh.timemanagement.dto.response.UserMissionResponse;
 import com.tunduh.timemanagement.entity.MissionEntity;
+import com.tunduh.timemanagement.entity.TransactionEntity;
 import com.tunduh.timemanagement.entity.UserEntity;
 import com.tunduh.timemanagement.entity.UserMissionEntity;
 import com.tunduh.timemanagement.exception.ResourceNotFoundException;
@@ -10,9 +12,12 @@ import com.tunduh.timemanagement.repository.MissionRepository;
 import com.tunduh.timemanagement.repository.UserMissionRepository;
 import com.tunduh.timemanagement.repository.UserRepository;
 import com.tunduh.timemanagement.service.MissionCompletionChecker;
+import com.tunduh.timemanagement.service.TransactionService;
 import com.tunduh.timemanagement.service.UserMissionService;
+import com.tunduh.timemanagement.utils.criteria.MissionCriteria;
 import com.tunduh.timemanagement.utils.pagination.CustomPagination;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -31,27 +36,27 @@ public class UserMissionServiceImpl implements UserMissionService {
     private final UserRepository userRepository;
     private final MissionRepository missionRepository;
     private final MissionCompletionChecker missionCompletionChecker;
+    private final TransactionService transactionService;
 
     @Override
-    public CustomPagination<AdminMissionResponse> getAvailableMissions(String userId, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-
-        // Fetch all missions (paginated)
-        Page<MissionEntity> allMissionsPage = missionRepository.findAll(pageable);
+    public CustomPagination<AdminMissionResponse> getAvailableMissions(String userId, int page, int size, String after) {
+        LocalDateTime now = LocalDateTime.now();
+        if (after == null || after.isBlank()) {
+            Page<MissionEntity> missions = missionRepository.findAvailableForUser(userId,
+                    MissionEntity.MissionStatus.ACTIVE, now, PageRequest.of(page, size));
+            return new CustomPagination<>(missions.map(this::mapToAdminMissionResponse));
+        }
 
-        // Filter out claimed missions within the stream
-        List<AdminMissionResponse> availableMissions = allMissionsPage.stream()
-                .filter(mission -> !userMissionRepository.existsByMissionIdAndUserId(mission.getId(), userId))
+        // Keyset paging: continue after the given mission in (endDate, id) order without an offset scan.
+        MissionEntity cursor = missionRepository.findById(after)
+                .orElseThrow(() -> new ResourceNotFoundException("Mission not found"));
+        List<AdminMissionResponse> missions = missionRepository.findAvailableForUserAfter(userId,
+                        MissionEntity.MissionStatus.ACTIVE, now, cursor.getEndDate(), cursor.getId(),
+                        PageRequest.of(0, size)).stream()
                 .map(this::mapToAdminMissionResponse)
                 .collect(Collectors.toList());
-
-        // Construct a CustomPagination object with filtered content and original pagination details
-        return new CustomPagination<>(
-                availableMissions,
-                allMissionsPage.getTotalElements(),
-                allMissionsPage.getNumber(),
-                allMissionsPage.getSize()
-        );
+        long total = missionRepository.countAvailableForUser(userId, MissionEntity.MissionStatus.ACTIVE, now);
+        return new CustomPagination<>(missions, total, 0, size);
     }
 
     @Override
@@ -60,8 +65,6 @@ public class UserMissionServiceImpl implements UserMissionService {
 
         Page<UserMissionEntity> claimedMissionsPage = userMissionRepository.findByUserId(userId, pageable);
 
-        missionCompletionChecker.checkAllMissionsForUser(userId);
-
         return new CustomPagination<>(claimedMissionsPage.map(this::mapToUserMissionResponse));
     }
 
@@ -71,8 +74,6 @@ public class UserMissionServiceImpl implements UserMissionService {
 
         Page<UserMissionEntity> claimedMissionsPage = userMissionRepository.findByUserIdAndIsCompleted(userId, true, pageable);
 
-        missionCompletionChecker.checkAllMissionsForUser(userId);
-
         return new CustomPagination<>(claimedMissionsPage.map(this::mapToUserMissionResponse));
     }
 
@@ -82,8 +83,6 @@ public class UserMissionServiceImpl implements UserMissionService {
 
         Page<UserMissionEntity> claimedMissionsPage = userMissionRepository.findByUserIdAndIsCompleted(userId, false, pageable);
 
-        missionCompletionChecker.checkAllMissionsForUser(userId);
-
         return new CustomPagination<>(claimedMissionsPage.map(this::mapToUserMissionResponse));
     }
 
@@ -94,6 +93,13 @@ public class UserMissionServiceImpl implements UserMissionService {
         return mapToUserMissionResponse(userMission);
     }
 
+    @Override
+    public MissionProgressResponse getMissionProgress(String userId, String missionId) {
+        UserMissionEntity userMission = userMissionRepository.findByMissionIdAndUserId(missionId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User mission not found"));
+        return mapToMissionProgressResponse(userMission);
+    }
+
     @Override
     @Transactional
     public UserMissionResponse claimMission(String userId, String missionId) {
@@ -105,6 +111,11 @@ public class UserMissionServiceImpl implements UserMissionService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         MissionEntity mission = missionRepository.findById(missionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Mission not found"));
+        LocalDateTime now = LocalDateTime.now();
+        if (mission.getStatus() != MissionEntity.MissionStatus.ACTIVE
+                || mission.getStartDate().isAfter(now) || !mission.getEndDate().isAfter(now)) {
+            throw new IllegalStateException("Mission is not available");
+        }
 
         UserMissionEntity userMission = UserMissionEntity.builder()
                 .user(user)
@@ -114,7 +125,15 @@ public class UserMissionServiceImpl implements UserMissionService {
                 .userMissionIcon(mission.getMissionIcon())
                 .build();
 
-        UserMissionEntity savedUserMission = userMissionRepository.save(userMission);
+        UserMissionEntity savedUserMission;
+        try {
+            savedUserMission = userMissionRepository.saveAndFlush(userMission);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent claim of the same mission won the unique (user_id, mission_id) constraint.
+            throw new IllegalStateException("Mission already claimed by this user");
+        }
+        // Activity since the mission started counts, so the starting progress comes from history once.
+        missionCompletionChecker.refreshProgress(savedUserMission);
         return mapToUserMissionResponse(savedUserMission);
     }
 
@@ -153,10 +172,10 @@ public class UserMissionServiceImpl implements UserMissionService {
         userMission.setRewardClaimedAt(LocalDateTime.now());
         UserMissionEntity updatedUserMission = userMissionRepository.save(userMission);
 
-        // Add points to user
-        UserEntity user = userMission.getUser();
-        user.setUserPoint(user.getUserPoint() + userMission.getMission().getPointReward());
-        userRepository.save(user);
+        // Add points to user through the ledger, so the reward counts towards the weekly leaderboard
+        transactionService.createTransaction(userId, userMission.getMission().getPointReward(),
+                TransactionEntity.TransactionType.MISSION_COMPLETION,
+                "Reward for mission " + userMission.getMission().getName());
 
         return mapToUserMissionResponse(updatedUserMission);
     }
@@ -189,8 +208,31 @@ public class UserMissionServiceImpl implements UserMissionService {
                 .isRewardClaimed(userMission.getIsRewardClaimed())
                 .completedAt(userMission.getCompletedAt())
                 .rewardClaimedAt(userMission.getRewardClaimedAt())
+                .expiredAt(userMission.getExpiredAt())
                 .createdAt(userMission.getCreatedAt())
                 .updatedAt(userMission.getUpdatedAt())
+                .progress(mapToMissionProgressResponse(userMission))
+                .build();
+    }
+
+    // Reads the stored counter only; progress is kept current by MissionProgressTracker.
+    private MissionProgressResponse mapToMissionProgressResponse(UserMissionEntity userMission) {
+        MissionEntity mission = userMission.getMission();
+        MissionCriteria criteria = MissionCriteria.of(mission);
+        long progress = userMission.getProgressValue() != null ? userMission.getProgressValue() : 0L;
+        long target = criteria.target();
+        boolean completed = Boolean.TRUE.equals(userMission.getIsCompleted());
+        double percentage = target <= 0 ? 100.0 : Math.min(100.0, Math.round(progress * 1000.0 / target) / 10.0);
+
+        return MissionProgressResponse.builder()
+                .missionId(mission.getId())
+                .missionName(mission.getName())
+                .type(mission.getType())
+                .progressValue(criteria.displayValue(progress))
+                .targetValue(criteria.threshold())
+                .unit(criteria.metric().unit())
+                .progressPercentage(completed ? 100.0 : percentage)
+                .completed(completed)
                 .build();
     }
-}
\ No newline at end of file
+}
@@ -5,9 +5,11 @@ import com.tunduh.timemanagement.dto.response.PurchaseResponse;
 import com.tunduh.timemanagement.dto.response.ShopItemResponse;
 import com.tunduh.timemanagement.dto.response.UserResponse;
 import com.tunduh.timemanagement.entity.*;
+import com.tunduh.timemanagement.event.UserBalanceChangedEvent;
 import com.tunduh.timemanagement.exception.ResourceNotFoundException;
 import com.tunduh.timemanagement.exception.UnauthorizedException;
 import com.tunduh.timemanagement.repository.MissionRepository;
+import com.tunduh.timemanagement.repository.TaskRepository;
 import com.tunduh.timemanagement.repository.UserRepository;
 import com.tunduh.timemanagement.service.CloudinaryService;
 import com.tunduh.timemanagement.service.PurchaseService;
@@ -16,6 +18,7 @@ import com.tunduh.timemanagement.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,6 +26,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Objects;
 
@@ -33,9 +37,11 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final MissionRepository missionRepository;
+    private final TaskRepository taskRepository;
     private final CloudinaryService cloudinaryService;
     private final PurchaseService purchaseService;
     private final ShopItemService shopItemService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public UserResponse getCurrentUser(String userId) {
@@ -51,6 +57,7 @@ public class UserServiceImpl implements UserService {
                 .profilePicture(user.getProfilePicture())
                 .userPoint(user.getUserPoint())
                 .resetTime(user.getResetTime())
+                .timeZone(user.getTimeZone())
                 .role(user.getRole())
                 .energy(user.getEnergy())
                 .claimedMissions(claimedMissions)
@@ -65,6 +72,7 @@ public class UserServiceImpl implements UserService {
         UserEntity user = getUserById(userId);
         user.setUserPoint(user.getUserPoint() != null ? user.getUserPoint() + points : points);
         UserEntity updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserBalanceChangedEvent(userId, updatedUser.getEnergy(), updatedUser.getUserPoint()));
         logger.info("Added {} points to user {}", points, userId);
         return mapToUserResponse(updatedUser);
     }
@@ -103,6 +111,7 @@ public class UserServiceImpl implements UserService {
         user.setEmail(updateRequest.getEmail());
         user.setEnergy(updateRequest.getEnergy());
         UserEntity updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserBalanceChangedEvent(userId, updatedUser.getEnergy(), updatedUser.getUserPoint()));
         logger.info("Updated user information for user {}", userId);
         return mapToUserResponse(updatedUser);
     }
@@ -117,6 +126,17 @@ public class UserServiceImpl implements UserService {
         return mapToUserResponse(updatedUser);
     }
 
+    @Override
+    @Transactional
+    public UserResponse setTimeZone(String userId, ZoneId timeZone) {
+        UserEntity user = getUserById(userId);
+        user.setTimeZone(timeZone.getId());
+        UserEntity updatedUser = userRepository.save(user);
+        taskRepository.clearNextDue(userId);
+        logger.info("Set time zone to {} for user {}", timeZone, userId);
+        return mapToUserResponse(updatedUser);
+    }
+
     @Override
     @Scheduled(cron = "0 * * * * *") // Run every minute
     @Transactional
@@ -149,6 +169,7 @@ public class UserServiceImpl implements UserService {
                 .userPoint(user.getUserPoint())
                 .energy(user.getEnergy())
                 .resetTime(user.getResetTime())
+                .timeZone(user.getTimeZone())
                 .build();
     }
 }
\ No newline at end of file
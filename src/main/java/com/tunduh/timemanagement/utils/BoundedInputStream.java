@@ -0,0 +1,56 @@
+package com.tunduh.timemanagement.utils;
+
+import com.tunduh.timemanagement.exception.PayloadTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Fails the read that would pass the byte limit, for request bodies that are consumed as a stream and so are not
+// covered by the container's size checks.
+public class BoundedInputStream extends FilterInputStream {
+    private final long maxBytes;
+    private long count;
+
+    public BoundedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int n = super.read(buffer, offset, length);
+        if (n > 0) {
+            advance(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        advance(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void advance(long n) {
+        count += n;
+        if (count > maxBytes) {
+            throw new PayloadTooLargeException("Payload exceeds the limit of " + maxBytes + " bytes");
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.tunduh.timemanagement.utils;
+
+// Position in the change feed: the id of the transaction that wrote a change, then its change sequence. Ordering by
+// transaction first means the feed can stop at the oldest transaction still running and never pass a change that
+// commits later. Tokens are "<xid>.<seq>"; anything else, including the plain sequence numbers handed out before,
+// restarts the feed from the beginning.
+public record ChangeCursor(long xid, long seq) implements Comparable<ChangeCursor> {
+    public static final ChangeCursor START = new ChangeCursor(0, 0);
+
+    public static ChangeCursor parse(String token) {
+        if (token == null) {
+            return START;
+        }
+        int separator = token.indexOf('.');
+        if (separator < 0) {
+            return START;
+        }
+        try {
+            return new ChangeCursor(Long.parseLong(token.substring(0, separator)),
+                    Long.parseLong(token.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            return START;
+        }
+    }
+
+    public String token() {
+        return xid + "." + seq;
+    }
+
+    @Override
+    public int compareTo(ChangeCursor other) {
+        int byXid = Long.compare(xid, other.xid);
+        return byXid != 0 ? byXid : Long.compare(seq, other.seq);
+    }
+
+    public static ChangeCursor max(ChangeCursor a, ChangeCursor b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    public static ChangeCursor min(ChangeCursor a, ChangeCursor b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+}
@@ -0,0 +1,167 @@
+package com.tunduh.timemanagement.utils;
+
+import com.tunduh.timemanagement.entity.TaskEntity;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class RecurrenceUtil {
+    // Long enough to reach the next 29 February for a YEARLY rule on day 366.
+    private static final int MAX_LOOKAHEAD_DAYS = 4 * 366;
+    public static final int YEAR_DAY_MASK_BYTES = (366 + 7) / 8;
+
+    public static boolean occursOn(TaskEntity task, LocalDate date) {
+        if (task.getRepetitionType() == null) {
+            return false;
+        }
+        if ((task.getRepetitionStartDate() != null && date.isBefore(task.getRepetitionStartDate().toLocalDate())) ||
+                (task.getRepetitionEndDate() != null && date.isAfter(task.getRepetitionEndDate().toLocalDate()))) {
+            return false;
+        }
+
+        switch (task.getRepetitionType()) {
+            case DAILY:
+                return true;
+            case WEEKLY:
+                return isDaySet(task.getRepetitionWeekdayMask(), date.getDayOfWeek().getValue());
+            case MONTHLY:
+                return isDaySet(task.getRepetitionMonthDayMask(), date.getDayOfMonth());
+            case YEARLY:
+                return isDaySet(task.getRepetitionYearDayMask(), date.getDayOfYear());
+            case CUSTOM:
+                if (task.getRepetitionStartDate() == null || task.getRepetitionInterval() == null
+                        || task.getRepetitionInterval() < 1) {
+                    return false;
+                }
+                long daysBetween = ChronoUnit.DAYS.between(task.getRepetitionStartDate().toLocalDate(), date);
+                return daysBetween % task.getRepetitionInterval() == 0;
+            default:
+                return false;
+        }
+    }
+
+    // First date on or after `from` on which the task recurs, or null once the schedule has ended.
+    public static LocalDate nextOccurrence(TaskEntity task, LocalDate from) {
+        if (task.getRepetitionType() == null || task.getRepetitionType() == TaskEntity.RepetitionType.NONE) {
+            return null;
+        }
+
+        LocalDate candidate = from;
+        if (task.getRepetitionStartDate() != null && candidate.isBefore(task.getRepetitionStartDate().toLocalDate())) {
+            candidate = task.getRepetitionStartDate().toLocalDate();
+        }
+        LocalDate end = task.getRepetitionEndDate() != null ? task.getRepetitionEndDate().toLocalDate() : null;
+
+        if (task.getRepetitionType() == TaskEntity.RepetitionType.CUSTOM
+                && task.getRepetitionStartDate() != null && task.getRepetitionInterval() != null) {
+            long interval = task.getRepetitionInterval();
+            // Rows saved before the interval was validated can hold 0 or less; they never recur.
+            if (interval < 1) {
+                return null;
+            }
+            long offset = ChronoUnit.DAYS.between(task.getRepetitionStartDate().toLocalDate(), candidate) % interval;
+            if (offset != 0) {
+                candidate = candidate.plusDays(interval - offset);
+            }
+            return end != null && candidate.isAfter(end) ? null : candidate;
+        }
+
+        for (int i = 0; i <= MAX_LOOKAHEAD_DAYS; i++) {
+            if (end != null && candidate.isAfter(end)) {
+                return null;
+            }
+            if (occursOn(task, candidate)) {
+                return candidate;
+            }
+            candidate = candidate.plusDays(1);
+        }
+        return null;
+    }
+
+    // Encodes the request's day numbers into the mask that matches the repetition type; the other masks are cleared.
+    public static void applyRepetitionDates(TaskEntity task, Set<Integer> dates) {
+        task.setRepetitionWeekdayMask(null);
+        task.setRepetitionMonthDayMask(null);
+        task.setRepetitionYearDayMask(null);
+        if (task.getRepetitionType() == null || dates == null || dates.isEmpty()) {
+            return;
+        }
+
+        switch (task.getRepetitionType()) {
+            case WEEKLY:
+                task.setRepetitionWeekdayMask(toIntMask(dates));
+                break;
+            case MONTHLY:
+                task.setRepetitionMonthDayMask(toIntMask(dates));
+                break;
+            case YEARLY:
+                task.setRepetitionYearDayMask(toYearDayMask(dates));
+                break;
+            default:
+                break;
+        }
+    }
+
+    public static Set<Integer> getRepetitionDates(TaskEntity task) {
+        if (task.getRepetitionType() == null) {
+            return Collections.emptySet();
+        }
+
+        switch (task.getRepetitionType()) {
+            case WEEKLY:
+                return fromIntMask(task.getRepetitionWeekdayMask(), 7);
+            case MONTHLY:
+                return fromIntMask(task.getRepetitionMonthDayMask(), 31);
+            case YEARLY:
+                Set<Integer> days = new TreeSet<>();
+                for (int day = 1; day <= 366; day++) {
+                    if (isDaySet(task.getRepetitionYearDayMask(), day)) {
+                        days.add(day);
+                    }
+                }
+                return days;
+            default:
+                return Collections.emptySet();
+        }
+    }
+
+    public static boolean isDaySet(Integer mask, int day) {
+        return mask != null && (mask & (1 << (day - 1))) != 0;
+    }
+
+    // Bit n of the year mask lives in byte n / 8 at position n % 8, the same layout PostgreSQL's get_bit() reads.
+    public static boolean isDaySet(byte[] mask, int day) {
+        int bit = day - 1;
+        return mask != null && bit / 8 < mask.length && (mask[bit / 8] & (1 << (bit % 8))) != 0;
+    }
+
+    private static Integer toIntMask(Set<Integer> days) {
+        int mask = 0;
+        for (Integer day : days) {
+            mask |= 1 << (day - 1);
+        }
+        return mask;
+    }
+
+    private static Set<Integer> fromIntMask(Integer mask, int maxDay) {
+        Set<Integer> days = new TreeSet<>();
+        for (int day = 1; day <= maxDay; day++) {
+            if (isDaySet(mask, day)) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    private static byte[] toYearDayMask(Set<Integer> days) {
+        byte[] mask = new byte[YEAR_DAY_MASK_BYTES];
+        for (Integer day : days) {
+            int bit = day - 1;
+            mask[bit / 8] |= (byte) (1 << (bit % 8));
+        }
+        return mask;
+    }
+}
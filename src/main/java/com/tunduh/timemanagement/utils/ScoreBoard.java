@@ -0,0 +1,168 @@
+package com.tunduh.timemanagement.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Ranks users by an integer score. A Fenwick tree over score buckets counts the users in each bucket, so the number
+// of users in higher buckets is a prefix sum; a map from score to users, highest first, serves the top of the board
+// and resolves the few distinct scores that share a bucket. Scores below 1024 get a bucket each, higher scores are
+// bucketed by their top 10 bits, so the tree has a fixed 11776 slots whatever the scores are. Updates and rank
+// lookups are O(log b) plus the distinct scores above the user's within its bucket (at most 1/512 of its value),
+// top-N reads walk only the returned entries. Ranking is competition style (equal scores share a rank) and
+// negative scores rank as 0.
+public class ScoreBoard {
+    private static final int EXACT_BUCKETS = 1024;
+    private static final int BUCKETS_PER_OCTAVE = 512;
+    private static final int EXACT_BITS = Integer.numberOfTrailingZeros(EXACT_BUCKETS);
+    private static final int BUCKETS = EXACT_BUCKETS + (31 - EXACT_BITS) * BUCKETS_PER_OCTAVE;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> scores = new HashMap<>();
+    private final NavigableMap<Integer, NavigableSet<String>> usersByScore = new TreeMap<>(Collections.reverseOrder());
+    private final long[] tree = new long[BUCKETS + 1];
+
+    // Returns the previous score, or null when the user was not on the board.
+    public Integer set(String userId, int score) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = scores.put(userId, score);
+            if (previous != null) {
+                if (previous == score) {
+                    return previous;
+                }
+                remove(userId, previous);
+            }
+            insert(userId, score);
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void add(String userId, int delta) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = scores.get(userId);
+            int score = (previous != null ? previous : 0) + delta;
+            scores.put(userId, score);
+            if (previous != null) {
+                remove(userId, previous);
+            }
+            insert(userId, score);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return scores.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Entry> entry(String userId) {
+        lock.readLock().lock();
+        try {
+            Integer score = scores.get(userId);
+            if (score == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new Entry(userId, score, 1 + ahead(score)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Entry> top(int limit) {
+        lock.readLock().lock();
+        try {
+            List<Entry> entries = new ArrayList<>(Math.min(limit, scores.size()));
+            long ahead = 0;
+            for (Map.Entry<Integer, NavigableSet<String>> group : usersByScore.entrySet()) {
+                for (String userId : group.getValue()) {
+                    if (entries.size() >= limit) {
+                        return entries;
+                    }
+                    entries.add(new Entry(userId, group.getKey(), ahead + 1));
+                }
+                ahead += group.getValue().size();
+            }
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insert(String userId, int score) {
+        usersByScore.computeIfAbsent(score, s -> new TreeSet<>()).add(userId);
+        update(index(score), 1);
+    }
+
+    private void remove(String userId, int score) {
+        NavigableSet<String> users = usersByScore.get(score);
+        users.remove(userId);
+        if (users.isEmpty()) {
+            usersByScore.remove(score);
+        }
+        update(index(score), -1);
+    }
+
+    // Users ranked ahead of a score: everyone in a higher bucket, plus those in the same bucket with a higher score.
+    private long ahead(int score) {
+        int index = index(score);
+        long ahead = scores.size() - prefix(index);
+        NavigableMap<Integer, NavigableSet<String>> higher = usersByScore.headMap(Math.max(score, 0), false).descendingMap();
+        for (Map.Entry<Integer, NavigableSet<String>> group : higher.entrySet()) {
+            if (index(group.getKey()) != index) {
+                break;
+            }
+            ahead += group.getValue().size();
+        }
+        return ahead;
+    }
+
+    // Fenwick positions are 1-based; bucket b lives at b + 1.
+    private int index(int score) {
+        return bucket(Math.max(score, 0)) + 1;
+    }
+
+    // Exact below EXACT_BUCKETS; above, the octave plus the 9 bits after the leading one.
+    private static int bucket(int score) {
+        if (score < EXACT_BUCKETS) {
+            return score;
+        }
+        int octave = 31 - Integer.numberOfLeadingZeros(score);
+        int mantissa = (score >>> (octave - EXACT_BITS + 1)) - BUCKETS_PER_OCTAVE;
+        return EXACT_BUCKETS + (octave - EXACT_BITS) * BUCKETS_PER_OCTAVE + mantissa;
+    }
+
+    private void update(int index, long delta) {
+        for (int i = index; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // Number of users in the buckets up to and including the one at index.
+    private long prefix(int index) {
+        long sum = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    public record Entry(String userId, int score, long rank) {
+    }
+}
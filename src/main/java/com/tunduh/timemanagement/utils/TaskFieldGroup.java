@@ -0,0 +1,107 @@
+package com.tunduh.timemanagement.utils;
+
+import com.tunduh.timemanagement.dto.request.TaskSyncRequest;
+import com.tunduh.timemanagement.entity.TaskEntity;
+
+import java.util.List;
+import java.util.Objects;
+
+// Task fields that sync merges together. Each group remembers the task version at which it last changed, so an
+// edit based on an older version only conflicts when the server touched the same group since then.
+public enum TaskFieldGroup {
+    DETAILS(List.of("title", "notes")),
+    STATUS(List.of("status")),
+    PLANNING(List.of("energy", "duration", "priority"));
+
+    public static final List<String> ALL_FIELDS = List.of("title", "notes", "status", "energy", "duration", "priority");
+
+    private final List<String> fields;
+
+    TaskFieldGroup(List<String> fields) {
+        this.fields = fields;
+    }
+
+    public List<String> fields() {
+        return fields;
+    }
+
+    public static TaskFieldGroup of(String field) {
+        for (TaskFieldGroup group : values()) {
+            if (group.fields.contains(field)) {
+                return group;
+            }
+        }
+        throw new IllegalArgumentException("Unknown task field: " + field);
+    }
+
+    public long version(TaskEntity task) {
+        Long version = switch (this) {
+            case DETAILS -> task.getDetailsVersion();
+            case STATUS -> task.getStatusVersion();
+            case PLANNING -> task.getPlanningVersion();
+        };
+        return version != null ? version : 0L;
+    }
+
+    public void setVersion(TaskEntity task, long version) {
+        switch (this) {
+            case DETAILS -> task.setDetailsVersion(version);
+            case STATUS -> task.setStatusVersion(version);
+            case PLANNING -> task.setPlanningVersion(version);
+        }
+    }
+
+    public boolean sameValues(TaskEntity a, TaskEntity b) {
+        for (String field : fields) {
+            if (!Objects.equals(value(a, field), value(b, field))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Stamps every group whose values differ from the previous state with the version the write will produce.
+    public static void markChanged(TaskEntity before, TaskEntity after, long newVersion) {
+        for (TaskFieldGroup group : values()) {
+            if (!group.sameValues(before, after)) {
+                group.setVersion(after, newVersion);
+            }
+        }
+    }
+
+    public static Object value(TaskEntity task, String field) {
+        return switch (field) {
+            case "title" -> task.getTitle();
+            case "notes" -> task.getNotes();
+            case "status" -> task.getStatus();
+            case "energy" -> task.getEnergy();
+            case "duration" -> task.getDuration();
+            case "priority" -> task.getPriority();
+            default -> throw new IllegalArgumentException("Unknown task field: " + field);
+        };
+    }
+
+    public static Object value(TaskSyncRequest request, String field) {
+        return switch (field) {
+            case "title" -> request.getTitle();
+            case "notes" -> request.getNotes();
+            case "status" -> request.getStatus();
+            case "energy" -> request.getEnergy();
+            case "duration" -> request.getDuration();
+            case "priority" -> request.getPriority();
+            default -> throw new IllegalArgumentException("Unknown task field: " + field);
+        };
+    }
+
+    public static void setValue(TaskEntity task, String field, Object value) {
+        switch (field) {
+            case "title" -> task.setTitle((String) value);
+            case "notes" -> task.setNotes((String) value);
+            case "status" -> task.setStatus((String) value);
+            case "energy" -> task.setEnergy((Integer) value);
+            case "duration" -> task.setDuration((Integer) value);
+            case "priority" -> task.setPriority((String) value);
+            default -> throw new IllegalArgumentException("Unknown task field: " + field);
+        }
+    }
+}
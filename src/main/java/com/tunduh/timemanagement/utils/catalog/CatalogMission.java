@@ -0,0 +1,54 @@
+package com.tunduh.timemanagement.utils.catalog;
+
+import com.tunduh.timemanagement.entity.MissionEntity;
+import com.tunduh.timemanagement.utils.criteria.CriteriaCondition;
+import com.tunduh.timemanagement.utils.criteria.CriteriaMetric;
+import com.tunduh.timemanagement.utils.criteria.CriteriaWindow;
+import com.tunduh.timemanagement.utils.criteria.MissionCriteria;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// A mission as the catalog holds it, with its completion rule resolved once at load.
+public record CatalogMission(String id, String name, String description, Integer pointReward, Integer criteriaValue,
+                             Integer criteriaCompleted, String missionIcon, MissionEntity.Type type,
+                             CriteriaMetric criteriaMetric, CriteriaWindow criteriaWindow,
+                             List<CriteriaCondition> criteriaFilter, LocalDateTime startDate, LocalDateTime endDate,
+                             MissionEntity.MissionStatus status, LocalDateTime expiredAt, LocalDateTime createdAt,
+                             LocalDateTime updatedAt, MissionCriteria criteria) {
+
+    public static final Map<String, Comparator<CatalogMission>> SORT_KEYS = Map.ofEntries(
+            Map.entry("id", by(CatalogMission::id)),
+            Map.entry("name", by(CatalogMission::name)),
+            Map.entry("pointReward", by(CatalogMission::pointReward)),
+            Map.entry("criteriaValue", by(CatalogMission::criteriaValue)),
+            Map.entry("criteriaCompleted", by(CatalogMission::criteriaCompleted)),
+            Map.entry("type", by(CatalogMission::type)),
+            Map.entry("startDate", by(CatalogMission::startDate)),
+            Map.entry("endDate", by(CatalogMission::endDate)),
+            Map.entry("status", by(CatalogMission::status)),
+            Map.entry("createdAt", by(CatalogMission::createdAt)),
+            Map.entry("updatedAt", by(CatalogMission::updatedAt)));
+
+    public static CatalogMission of(MissionEntity mission) {
+        List<CriteriaCondition> filter = mission.getCriteriaFilter() != null
+                ? List.copyOf(mission.getCriteriaFilter()) : null;
+        return new CatalogMission(mission.getId(), mission.getName(), mission.getDescription(),
+                mission.getPointReward(), mission.getCriteriaValue(), mission.getCriteriaCompleted(),
+                mission.getMissionIcon(), mission.getType(), mission.getCriteriaMetric(), mission.getCriteriaWindow(),
+                filter, mission.getStartDate(), mission.getEndDate(), mission.getStatus(), mission.getExpiredAt(),
+                mission.getCreatedAt(), mission.getUpdatedAt(), MissionCriteria.of(mission));
+    }
+
+    // Progress can still move: not expired and not past the end date.
+    public boolean isLive(LocalDateTime now) {
+        return status != MissionEntity.MissionStatus.EXPIRED && endDate.isAfter(now);
+    }
+
+    private static <U extends Comparable<? super U>> Comparator<CatalogMission> by(Function<CatalogMission, U> key) {
+        return Comparator.comparing(key, Comparator.nullsLast(Comparator.naturalOrder()));
+    }
+}
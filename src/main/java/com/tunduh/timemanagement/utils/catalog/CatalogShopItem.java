@@ -0,0 +1,40 @@
+package com.tunduh.timemanagement.utils.catalog;
+
+import com.tunduh.timemanagement.entity.ShopItemEntity;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.function.Function;
+
+public record CatalogShopItem(String id, String name, String itemPicture, Integer price, Integer stock,
+                              ShopItemEntity.ItemCategory category, String description, LocalDateTime createdAt,
+                              LocalDateTime updatedAt) {
+
+    public static final Map<String, Comparator<CatalogShopItem>> SORT_KEYS = Map.of(
+            "id", by(CatalogShopItem::id),
+            "name", by(CatalogShopItem::name),
+            "price", by(CatalogShopItem::price),
+            "stock", by(CatalogShopItem::stock),
+            "category", by(CatalogShopItem::category),
+            "createdAt", by(CatalogShopItem::createdAt),
+            "updatedAt", by(CatalogShopItem::updatedAt));
+
+    public static CatalogShopItem of(ShopItemEntity shopItem) {
+        return new CatalogShopItem(shopItem.getId(), shopItem.getName(), shopItem.getItemPicture(),
+                shopItem.getPrice(), shopItem.getStock(), shopItem.getCategory(), shopItem.getDescription(),
+                shopItem.getCreatedAt(), shopItem.getUpdatedAt());
+    }
+
+    // Same filter the repository specification applied: case-insensitive name substring, price ceiling, category.
+    public boolean matches(String nameFilter, Integer maxPrice, ShopItemEntity.ItemCategory categoryFilter) {
+        return (nameFilter == null || nameFilter.isEmpty()
+                || (name != null && name.toLowerCase().contains(nameFilter.toLowerCase())))
+                && (maxPrice == null || (price != null && price <= maxPrice))
+                && (categoryFilter == null || categoryFilter == category);
+    }
+
+    private static <U extends Comparable<? super U>> Comparator<CatalogShopItem> by(Function<CatalogShopItem, U> key) {
+        return Comparator.comparing(key, Comparator.nullsLast(Comparator.naturalOrder()));
+    }
+}
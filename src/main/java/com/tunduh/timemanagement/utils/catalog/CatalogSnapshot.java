@@ -0,0 +1,92 @@
+package com.tunduh.timemanagement.utils.catalog;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// Immutable copy of a whole catalog. Readers share one instance without locking; a change produces a new snapshot
+// that replaces the old one in a single reference swap. Sorting accepts the same property names the repository
+// queries did, mapped to comparators by each catalog.
+public final class CatalogSnapshot<T> {
+    private final Map<String, T> byId;
+    private final List<T> items;
+    private final Function<T, String> idOf;
+    private final Map<String, Comparator<T>> sortKeys;
+
+    private CatalogSnapshot(Map<String, T> byId, Function<T, String> idOf, Map<String, Comparator<T>> sortKeys) {
+        this.byId = Collections.unmodifiableMap(byId);
+        this.items = List.copyOf(byId.values());
+        this.idOf = idOf;
+        this.sortKeys = sortKeys;
+    }
+
+    public static <T> CatalogSnapshot<T> of(List<T> items, Function<T, String> idOf,
+                                            Map<String, Comparator<T>> sortKeys) {
+        Map<String, T> byId = new LinkedHashMap<>();
+        items.forEach(item -> byId.put(idOf.apply(item), item));
+        return new CatalogSnapshot<>(byId, idOf, sortKeys);
+    }
+
+    // A copy with one item added or replaced, or removed when item is null.
+    public CatalogSnapshot<T> with(String id, T item) {
+        Map<String, T> byId = new LinkedHashMap<>(this.byId);
+        if (item != null) {
+            byId.put(idOf.apply(item), item);
+        } else {
+            byId.remove(id);
+        }
+        return new CatalogSnapshot<>(byId, idOf, sortKeys);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public List<T> items() {
+        return items;
+    }
+
+    public Optional<T> find(String id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    public Page<T> query(Predicate<T> filter, Pageable pageable) {
+        List<T> matches = new ArrayList<>();
+        for (T item : items) {
+            if (filter.test(item)) {
+                matches.add(item);
+            }
+        }
+        Comparator<T> order = comparator(pageable.getSort());
+        if (order != null) {
+            matches.sort(order);
+        }
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        return new PageImpl<>(List.copyOf(matches.subList(from, to)), pageable, matches.size());
+    }
+
+    private Comparator<T> comparator(Sort sort) {
+        Comparator<T> order = null;
+        for (Sort.Order property : sort) {
+            Comparator<T> key = sortKeys.get(property.getProperty());
+            if (key == null) {
+                throw new IllegalArgumentException("Unknown sort property: " + property.getProperty());
+            }
+            key = property.isDescending() ? key.reversed() : key;
+            order = order == null ? key : order.thenComparing(key);
+        }
+        return order;
+    }
+}
@@ -0,0 +1,17 @@
+package com.tunduh.timemanagement.utils.criteria;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// One filter term, e.g. PRIORITY IN [HIGH, MEDIUM] or ENERGY GTE [20]. All terms of a mission must hold.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CriteriaCondition {
+    private CriteriaField field;
+    private CriteriaOperator operator;
+    private List<String> values;
+}
@@ -0,0 +1,40 @@
+package com.tunduh.timemanagement.utils.criteria;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.List;
+
+// Stores a mission's filter as a JSON array in a TEXT column.
+@Converter
+public class CriteriaConditionsConverter implements AttributeConverter<List<CriteriaCondition>, String> {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<List<CriteriaCondition>> TYPE = new TypeReference<>() {};
+
+    @Override
+    public String convertToDatabaseColumn(List<CriteriaCondition> conditions) {
+        if (conditions == null || conditions.isEmpty()) {
+            return null;
+        }
+        try {
+            return OBJECT_MAPPER.writeValueAsString(conditions);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid mission criteria filter", e);
+        }
+    }
+
+    @Override
+    public List<CriteriaCondition> convertToEntityAttribute(String json) {
+        if (json == null || json.isBlank()) {
+            return List.of();
+        }
+        try {
+            return OBJECT_MAPPER.readValue(json, TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable mission criteria filter: " + json, e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.tunduh.timemanagement.utils.criteria;
+
+import java.util.List;
+
+// In-memory counterpart of CriteriaSqlCompiler for the incremental event path. For a fact and a mission it returns
+// how much the fact moves the mission's progress, using the same source, window and filter semantics as the SQL.
+public final class CriteriaEvaluator {
+
+    private CriteriaEvaluator() {
+    }
+
+    // Progress contributed by the fact, or 0 when it does not count towards the mission. For snapshot metrics the
+    // result is the new absolute value instead of an increment.
+    public static long contribution(MissionCriteria criteria, CriteriaFact fact) {
+        CriteriaMetric metric = criteria.metric();
+        if (fact.source() != metric.source()) {
+            return 0;
+        }
+        if (metric.snapshot()) {
+            return fact.amount();
+        }
+        if (!criteria.window().contains(fact.time(), criteria.startDate(), criteria.endDate())
+                || !matches(criteria.conditions(), fact)) {
+            return 0;
+        }
+        switch (metric) {
+            case SESSION_TIME:
+                return fact.amount();
+            case COMPLETED_TASKS:
+                return 1;
+            case COMPLETED_TASK_ENERGY:
+                Object energy = fact.attributes().get(CriteriaField.ENERGY);
+                return energy instanceof Number number ? number.longValue() : 0;
+            default:
+                return 0;
+        }
+    }
+
+    public static boolean matches(List<CriteriaCondition> conditions, CriteriaFact fact) {
+        for (CriteriaCondition condition : conditions) {
+            if (!matches(condition, fact.attributes().get(condition.getField()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // A missing attribute never matches, like NULL in SQL.
+    private static boolean matches(CriteriaCondition condition, Object value) {
+        if (value == null) {
+            return false;
+        }
+        boolean numeric = condition.getField().numeric();
+        for (String expected : condition.getValues()) {
+            int comparison = numeric
+                    ? Long.compare(((Number) value).longValue(), Long.parseLong(expected))
+                    : value.toString().compareTo(expected);
+            boolean holds = switch (condition.getOperator()) {
+                case EQ, IN -> comparison == 0;
+                case NE -> comparison != 0;
+                case GT -> comparison > 0;
+                case GTE -> comparison >= 0;
+                case LT -> comparison < 0;
+                case LTE -> comparison <= 0;
+            };
+            if (holds) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,11 @@
+package com.tunduh.timemanagement.utils.criteria;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// A single piece of activity seen on the event path: a completed session (amount is the change in seconds), a
+// completed task (amount is 1) or a balance change (amount is the new balance). Attributes carry the task columns
+// that filter conditions can test.
+public record CriteriaFact(String userId, CriteriaSource source, LocalDateTime time, long amount,
+                           Map<CriteriaField, Object> attributes) {
+}
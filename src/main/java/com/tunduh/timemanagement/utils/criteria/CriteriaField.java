@@ -0,0 +1,24 @@
+package com.tunduh.timemanagement.utils.criteria;
+
+// Task attributes a criteria filter may test. Only these columns can appear in compiled SQL.
+public enum CriteriaField {
+    PRIORITY("t.priority", false),
+    ENERGY("t.energy", true),
+    DURATION("t.duration", true);
+
+    private final String column;
+    private final boolean numeric;
+
+    CriteriaField(String column, boolean numeric) {
+        this.column = column;
+        this.numeric = numeric;
+    }
+
+    public String column() {
+        return column;
+    }
+
+    public boolean numeric() {
+        return numeric;
+    }
+}
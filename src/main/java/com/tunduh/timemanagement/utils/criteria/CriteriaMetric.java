@@ -0,0 +1,65 @@
+package com.tunduh.timemanagement.utils.criteria;
+
+import com.tunduh.timemanagement.entity.MissionEntity;
+
+// What a mission counts. Progress is stored in the metric's base unit; criteria_value is given in the display unit,
+// which is the base unit divided by scale (session time is stored in seconds and targeted in minutes).
+public enum CriteriaMetric {
+    SESSION_TIME(MissionEntity.Type.TIME_BASED, CriteriaSource.SESSION, "SUM(s.duration_in_seconds)", 60, "minutes"),
+    COMPLETED_TASKS(MissionEntity.Type.TASK_BASED, CriteriaSource.TASK, "COUNT(t.id)", 1, "tasks"),
+    COMPLETED_TASK_ENERGY(MissionEntity.Type.TASK_BASED, CriteriaSource.TASK, "SUM(t.energy)", 1, "energy"),
+    POINT_BALANCE(MissionEntity.Type.POINT_BASED, CriteriaSource.BALANCE, "MAX(u.user_point)", 1, "points");
+
+    private final MissionEntity.Type type;
+    private final CriteriaSource source;
+    private final String aggregate;
+    private final long scale;
+    private final String unit;
+
+    CriteriaMetric(MissionEntity.Type type, CriteriaSource source, String aggregate, long scale, String unit) {
+        this.type = type;
+        this.source = source;
+        this.aggregate = aggregate;
+        this.scale = scale;
+        this.unit = unit;
+    }
+
+    public MissionEntity.Type type() {
+        return type;
+    }
+
+    public CriteriaSource source() {
+        return source;
+    }
+
+    public String aggregate() {
+        return aggregate;
+    }
+
+    public long scale() {
+        return scale;
+    }
+
+    public String unit() {
+        return unit;
+    }
+
+    // The balance is a current value, not a sum of events; progress is replaced rather than incremented.
+    public boolean snapshot() {
+        return source == CriteriaSource.BALANCE;
+    }
+
+    // Metric used by missions created before criteria were configurable.
+    public static CriteriaMetric forType(MissionEntity.Type type) {
+        switch (type) {
+            case TIME_BASED:
+                return SESSION_TIME;
+            case TASK_BASED:
+                return COMPLETED_TASKS;
+            case POINT_BASED:
+                return POINT_BALANCE;
+            default:
+                throw new IllegalArgumentException("Unknown mission type: " + type);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.tunduh.timemanagement.utils.criteria;
+
+public enum CriteriaOperator {
+    EQ("=", false),
+    NE("<>", false),
+    GT(">", true),
+    GTE(">=", true),
+    LT("<", true),
+    LTE("<=", true),
+    IN("IN", false);
+
+    private final String sql;
+    private final boolean ordering;
+
+    CriteriaOperator(String sql, boolean ordering) {
+        this.sql = sql;
+        this.ordering = ordering;
+    }
+
+    public String sql() {
+        return sql;
+    }
+
+    // Ordering comparisons are only defined for numeric fields.
+    public boolean ordering() {
+        return ordering;
+    }
+}
@@ -0,0 +1,42 @@
+package com.tunduh.timemanagement.utils.criteria;
+
+// Rows a metric aggregates, as joined to user_missions um2 on the owning user. The time column is what a
+// criteria window is applied to; the balance has no history and therefore no window.
+public enum CriteriaSource {
+    SESSION("(tasks t JOIN task_sessions s ON s.task_id = t.id)", "t.user_id", "s.status = 'COMPLETED'", "s.start_time"),
+    TASK("tasks t", "t.user_id", "t.status = 'COMPLETED'", "t.created_at"),
+    BALANCE("users u", "u.id", null, null);
+
+    private final String from;
+    private final String userColumn;
+    private final String predicate;
+    private final String timeColumn;
+
+    CriteriaSource(String from, String userColumn, String predicate, String timeColumn) {
+        this.from = from;
+        this.userColumn = userColumn;
+        this.predicate = predicate;
+        this.timeColumn = timeColumn;
+    }
+
+    public String from() {
+        return from;
+    }
+
+    public String userColumn() {
+        return userColumn;
+    }
+
+    public String predicate() {
+        return predicate;
+    }
+
+    public String timeColumn() {
+        return timeColumn;
+    }
+
+    // Task columns are reachable from sessions as well, since sessions are joined through their task.
+    public boolean hasTaskColumns() {
+        return this != BALANCE;
+    }
+}
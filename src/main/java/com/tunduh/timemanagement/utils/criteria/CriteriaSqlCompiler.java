@@ -0,0 +1,72 @@
+package com.tunduh.timemanagement.utils.criteria;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Compiles a mission's criteria into one parameterized aggregate over all of its user missions in a scope. The
+// scope is a predicate on user_missions um2 (an id range, a user partition, a single row) with its own parameters.
+// Only enum-defined columns reach the SQL text; every filter value is bound as a parameter.
+public final class CriteriaSqlCompiler {
+
+    private CriteriaSqlCompiler() {
+    }
+
+    // SELECT of (user mission id, progress) for every user mission of the mission in the scope.
+    public static CompiledQuery progressQuery(MissionCriteria criteria, String scope, Object... scopeParams) {
+        CriteriaMetric metric = criteria.metric();
+        CriteriaSource source = metric.source();
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT um2.id, COALESCE(").append(metric.aggregate())
+                .append(", 0) AS value FROM user_missions um2 LEFT JOIN ").append(source.from())
+                .append(" ON ").append(source.userColumn()).append(" = um2.user_id");
+        if (source.predicate() != null) {
+            sql.append(" AND ").append(source.predicate());
+        }
+        if (source.timeColumn() != null) {
+            sql.append(" AND ").append(source.timeColumn()).append(" > ?");
+            params.add(Timestamp.valueOf(criteria.startDate()));
+            if (criteria.window() == CriteriaWindow.DURING_MISSION) {
+                sql.append(" AND ").append(source.timeColumn()).append(" <= ?");
+                params.add(Timestamp.valueOf(criteria.endDate()));
+            }
+        }
+        for (CriteriaCondition condition : criteria.conditions()) {
+            sql.append(" AND ").append(condition.getField().column()).append(' ');
+            if (condition.getOperator() == CriteriaOperator.IN) {
+                sql.append("IN (").append(String.join(", ", Collections.nCopies(condition.getValues().size(), "?")))
+                        .append(')');
+            } else {
+                sql.append(condition.getOperator().sql()).append(" ?");
+            }
+            for (String value : condition.getValues()) {
+                params.add(condition.getField().numeric() ? (Object) Long.parseLong(value) : value);
+            }
+        }
+        sql.append(" WHERE um2.mission_id = ? AND (").append(scope).append(") GROUP BY um2.id");
+        params.add(criteria.missionId());
+        Collections.addAll(params, scopeParams);
+        return new CompiledQuery(sql.toString(), params.toArray());
+    }
+
+    // Writes the recomputed progress, touching only rows whose stored value differs.
+    public static CompiledQuery progressUpdate(MissionCriteria criteria, String scope, Object... scopeParams) {
+        CompiledQuery query = progressQuery(criteria, scope, scopeParams);
+        return new CompiledQuery("UPDATE user_missions um SET progress_value = d.value FROM (" + query.sql() + ") d " +
+                "WHERE um.id = d.id AND um.progress_value IS DISTINCT FROM d.value", query.params());
+    }
+
+    // Completes every open user mission in the scope whose stored progress reached the target.
+    public static CompiledQuery completeReached(MissionCriteria criteria, Timestamp now, String scope,
+                                               Object... scopeParams) {
+        List<Object> params = new ArrayList<>(List.of(now, now, criteria.missionId(), criteria.target()));
+        Collections.addAll(params, scopeParams);
+        return new CompiledQuery("UPDATE user_missions um2 SET is_completed = true, completed_at = ?, updated_at = ? " +
+                "WHERE um2.mission_id = ? AND um2.is_completed = false AND um2.progress_value >= ? AND (" + scope + ")",
+                params.toArray());
+    }
+
+    public record CompiledQuery(String sql, Object[] params) {
+    }
+}
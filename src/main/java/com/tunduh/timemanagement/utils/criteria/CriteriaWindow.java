@@ -0,0 +1,16 @@
+package com.tunduh.timemanagement.utils.criteria;
+
+import java.time.LocalDateTime;
+
+// Which activity counts towards a mission, by the time column of the metric's source.
+public enum CriteriaWindow {
+    SINCE_START,
+    DURING_MISSION;
+
+    public boolean contains(LocalDateTime time, LocalDateTime startDate, LocalDateTime endDate) {
+        if (time == null || !time.isAfter(startDate)) {
+            return false;
+        }
+        return this == SINCE_START || !time.isAfter(endDate);
+    }
+}
@@ -0,0 +1,64 @@
+package com.tunduh.timemanagement.utils.criteria;
+
+import com.tunduh.timemanagement.entity.MissionEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Declarative completion rule of a mission: aggregate the metric over the rows of its source that fall in the
+// window and pass every condition, and complete the mission once the total reaches the threshold. The same rule
+// is compiled to SQL for batch evaluation and applied in memory to single events.
+public record MissionCriteria(String missionId, CriteriaMetric metric, CriteriaWindow window,
+                              List<CriteriaCondition> conditions, long threshold,
+                              LocalDateTime startDate, LocalDateTime endDate) {
+
+    public static MissionCriteria of(MissionEntity mission) {
+        CriteriaMetric metric = mission.getCriteriaMetric() != null
+                ? mission.getCriteriaMetric() : CriteriaMetric.forType(mission.getType());
+        CriteriaWindow window = mission.getCriteriaWindow() != null
+                ? mission.getCriteriaWindow() : CriteriaWindow.SINCE_START;
+        List<CriteriaCondition> conditions = mission.getCriteriaFilter() != null ? mission.getCriteriaFilter() : List.of();
+        return new MissionCriteria(mission.getId(), metric, window, conditions, mission.getCriteriaValue(),
+                mission.getStartDate(), mission.getEndDate());
+    }
+
+    // Target in the unit progress is stored in.
+    public long target() {
+        return threshold * metric.scale();
+    }
+
+    // Stored progress converted to the unit the threshold is given in.
+    public long displayValue(long progress) {
+        return progress / metric.scale();
+    }
+
+    public void validate(MissionEntity.Type type) {
+        if (metric.type() != type) {
+            throw new IllegalArgumentException("Metric " + metric + " does not belong to mission type " + type);
+        }
+        if (!conditions.isEmpty() && !metric.source().hasTaskColumns()) {
+            throw new IllegalArgumentException("Metric " + metric + " does not support filter conditions");
+        }
+        for (CriteriaCondition condition : conditions) {
+            if (condition.getField() == null || condition.getOperator() == null
+                    || condition.getValues() == null || condition.getValues().isEmpty()) {
+                throw new IllegalArgumentException("Filter conditions need a field, an operator and a value");
+            }
+            if (condition.getOperator() != CriteriaOperator.IN && condition.getValues().size() != 1) {
+                throw new IllegalArgumentException("Operator " + condition.getOperator() + " takes exactly one value");
+            }
+            if (condition.getOperator().ordering() && !condition.getField().numeric()) {
+                throw new IllegalArgumentException("Operator " + condition.getOperator() + " needs a numeric field");
+            }
+            if (condition.getField().numeric()) {
+                for (String value : condition.getValues()) {
+                    try {
+                        Long.parseLong(value);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Filter value for " + condition.getField() + " must be a number");
+                    }
+                }
+            }
+        }
+    }
+}
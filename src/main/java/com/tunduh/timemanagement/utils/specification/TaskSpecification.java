@@ -6,6 +6,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -37,4 +38,14 @@ public class TaskSpecification {
             return criteriaBuilder.and(predicateArray);
         };
     }
-}
\ No newline at end of file
+
+    // One-off tasks created in [start, end): neither recurring templates nor occurrences generated from one.
+    public static Specification<TaskEntity> standaloneCreatedBetween(LocalDateTime start, LocalDateTime end) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.and(
+                criteriaBuilder.or(criteriaBuilder.isNull(root.get("repetitionType")),
+                        criteriaBuilder.equal(root.get("repetitionType"), TaskEntity.RepetitionType.NONE)),
+                criteriaBuilder.isNull(root.get("recurrenceParentId")),
+                criteriaBuilder.greaterThanOrEqualTo(root.get("createdAt"), start),
+                criteriaBuilder.lessThan(root.get("createdAt"), end));
+    }
+}
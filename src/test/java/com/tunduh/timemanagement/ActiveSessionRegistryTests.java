@@ -0,0 +1,168 @@
+package com.tunduh.timemanagement;
+
+import com.tunduh.timemanagement.entity.TaskEntity;
+import com.tunduh.timemanagement.entity.TaskSessionEntity;
+import com.tunduh.timemanagement.entity.UserEntity;
+import com.tunduh.timemanagement.repository.TaskSessionRepository;
+import com.tunduh.timemanagement.service.ActiveSessionRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ActiveSessionRegistryTests {
+	private static final String USER_ID = "user-1";
+
+	private JdbcTemplate jdbcTemplate;
+	private ActiveSessionRegistry registry;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = mock(JdbcTemplate.class);
+		registry = new ActiveSessionRegistry(mock(TaskSessionRepository.class), jdbcTemplate, new SimpleMeterRegistry());
+		ReflectionTestUtils.invokeMethod(registry, "init");
+	}
+
+	@Test
+	void flushedEntryMovesToTheNextRowVersion() {
+		registry.register(session("s1", 4L));
+		whenRowIs(TaskSessionEntity.SessionStatus.IN_PROGRESS, 4L, LocalDateTime.of(2024, 9, 1, 8, 0));
+		pause("s1");
+		whenFlushed(1);
+
+		registry.flush();
+
+		ActiveSessionRegistry.ActiveSession active = registry.find("s1", USER_ID).orElseThrow();
+		assertThat(active.getVersion()).isEqualTo(5L);
+		assertThat(active.isCurrentFor(session("s1", 5L))).isTrue();
+	}
+
+	@Test
+	void transitionLaterThanTheConflictingWriteIsReappliedOnTheNewVersion() {
+		registry.register(session("s1", 4L));
+		whenRowIs(TaskSessionEntity.SessionStatus.IN_PROGRESS, 4L, LocalDateTime.of(2024, 9, 1, 8, 0));
+		pause("s1");
+		whenRowIs(TaskSessionEntity.SessionStatus.IN_PROGRESS, 5L, LocalDateTime.of(2024, 9, 1, 8, 5));
+		whenFlushed(0);
+
+		registry.flush();
+
+		whenFlushed(1);
+		registry.flush();
+
+		ActiveSessionRegistry.ActiveSession active = registry.find("s1", USER_ID).orElseThrow();
+		assertThat(active.getStatus()).isEqualTo(TaskSessionEntity.SessionStatus.PAUSED);
+		assertThat(active.getVersion()).isEqualTo(6L);
+	}
+
+	@Test
+	void transitionOlderThanTheConflictingWriteIsRejectedForTheRow() {
+		registry.register(session("s1", 4L));
+		whenRowIs(TaskSessionEntity.SessionStatus.IN_PROGRESS, 4L, LocalDateTime.of(2024, 9, 1, 8, 0));
+		pause("s1");
+		whenRowIs(TaskSessionEntity.SessionStatus.IN_PROGRESS, 6L, LocalDateTime.now().plusMinutes(1));
+		whenFlushed(0);
+
+		registry.flush();
+
+		ActiveSessionRegistry.ActiveSession active = registry.find("s1", USER_ID).orElseThrow();
+		assertThat(active.getStatus()).isEqualTo(TaskSessionEntity.SessionStatus.IN_PROGRESS);
+		assertThat(active.getVersion()).isEqualTo(6L);
+		registry.flush();
+		verify(jdbcTemplate, times(1))
+				.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+	}
+
+	@Test
+	void transitionOnASessionCompletedElsewhereIsDropped() {
+		registry.register(session("s1", 4L));
+		whenRowIs(TaskSessionEntity.SessionStatus.IN_PROGRESS, 4L, LocalDateTime.of(2024, 9, 1, 8, 0));
+		pause("s1");
+		whenRowIs(TaskSessionEntity.SessionStatus.COMPLETED, 5L, LocalDateTime.of(2024, 9, 1, 8, 5));
+		whenFlushed(0);
+
+		registry.flush();
+
+		assertThat(registry.find("s1", USER_ID)).isEmpty();
+	}
+
+	@Test
+	void entryBehindTheRowIsEvictedInsteadOfUpdated() {
+		registry.register(session("s1", 4L));
+		whenRowIs(TaskSessionEntity.SessionStatus.PAUSED, 5L, LocalDateTime.of(2024, 9, 1, 8, 5));
+
+		assertThat(pause("s1")).isEmpty();
+		assertThat(registry.find("s1", USER_ID)).isEmpty();
+	}
+
+	@Test
+	void entryBehindTheRowIsNotCurrent() {
+		registry.register(session("s1", 4L));
+
+		ActiveSessionRegistry.ActiveSession active = registry.find("s1", USER_ID).orElseThrow();
+
+		assertThat(active.isCurrentFor(session("s1", 4L))).isTrue();
+		assertThat(active.isCurrentFor(session("s1", 6L))).isFalse();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void whenFlushed(int count) {
+		when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+				.thenReturn(new int[][]{{count}});
+	}
+
+	// Answers the registry's row reads for s1 with the given state.
+	private void whenRowIs(TaskSessionEntity.SessionStatus status, long version, LocalDateTime updatedAt) {
+		doAnswer(invocation -> {
+			ResultSet rs = mock(ResultSet.class);
+			when(rs.getString("id")).thenReturn("s1");
+			when(rs.getString("status")).thenReturn(status.name());
+			when(rs.getTimestamp("start_time")).thenReturn(Timestamp.valueOf(LocalDateTime.of(2024, 9, 1, 8, 0)));
+			when(rs.getLong("duration_in_seconds")).thenReturn(0L);
+			when(rs.getTimestamp("updated_at")).thenReturn(Timestamp.valueOf(updatedAt));
+			when(rs.getLong("version")).thenReturn(version);
+			invocation.<RowCallbackHandler>getArgument(1).processRow(rs);
+			return null;
+		}).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+	}
+
+	private Optional<ActiveSessionRegistry.ActiveSession> pause(String sessionId) {
+		return registry.update(sessionId, USER_ID, active -> {
+			active.setStatus(TaskSessionEntity.SessionStatus.PAUSED);
+			return active;
+		});
+	}
+
+	private TaskSessionEntity session(String id, Long version) {
+		UserEntity user = new UserEntity();
+		user.setId(USER_ID);
+		TaskEntity task = TaskEntity.builder().id("task-1").user(user).build();
+		return TaskSessionEntity.builder()
+				.id(id)
+				.task(task)
+				.startTime(LocalDateTime.of(2024, 9, 1, 8, 0))
+				.durationInSeconds(0L)
+				.status(TaskSessionEntity.SessionStatus.IN_PROGRESS)
+				.version(version)
+				.build();
+	}
+}
@@ -0,0 +1,157 @@
+package com.tunduh.timemanagement;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.tunduh.timemanagement.config.WebConfig;
+import com.tunduh.timemanagement.controller.TaskController;
+import com.tunduh.timemanagement.dto.request.TaskSessionSyncRequest;
+import com.tunduh.timemanagement.dto.request.TaskSyncRequest;
+import com.tunduh.timemanagement.dto.response.TaskResponse;
+import com.tunduh.timemanagement.dto.response.TaskSyncResponse;
+import com.tunduh.timemanagement.entity.UserEntity;
+import com.tunduh.timemanagement.service.SyncJobService;
+import com.tunduh.timemanagement.service.TaskService;
+import com.tunduh.timemanagement.service.TaskSyncStreamService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Round trips CBOR and Smile bodies through TaskController with the message converters WebConfig registers.
+@ExtendWith(MockitoExtension.class)
+class BinaryFormatControllerTests {
+	private static final String USER_ID = "user-1";
+	private static final String CBOR = "application/cbor";
+	private static final String SMILE = "application/x-jackson-smile";
+	private static final LocalDateTime SYNCED_AT = LocalDateTime.of(2024, 9, 1, 8, 30, 15);
+
+	@Mock
+	private TaskService taskService;
+	@Mock
+	private TaskSyncStreamService taskSyncStreamService;
+	@Mock
+	private SyncJobService syncJobService;
+
+	private MockMvc mockMvc;
+	private UsernamePasswordAuthenticationToken authentication;
+
+	@BeforeEach
+	void setUp() {
+		List<HttpMessageConverter<?>> converters = new ArrayList<>();
+		converters.add(new MappingJackson2HttpMessageConverter(new Jackson2ObjectMapperBuilder().build()));
+		new WebConfig(new Jackson2ObjectMapperBuilder()).extendMessageConverters(converters);
+		mockMvc = MockMvcBuilders.standaloneSetup(new TaskController(taskService, taskSyncStreamService, syncJobService))
+				.setMessageConverters(converters.toArray(HttpMessageConverter[]::new))
+				.build();
+		UserEntity user = new UserEntity();
+		user.setId(USER_ID);
+		authentication = new UsernamePasswordAuthenticationToken(user, null, List.of());
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {CBOR, SMILE})
+	void syncRequestAndResponseRoundTrip(String format) throws Exception {
+		ObjectMapper mapper = mapper(format);
+		String taskId = UUID.randomUUID().toString();
+		TaskSyncRequest request = new TaskSyncRequest();
+		request.setTaskId(taskId);
+		request.setTitle("Write report");
+		request.setEnergy(30);
+		request.setVersion(4L);
+		request.setChangedFields(Set.of("title", "energy"));
+		request.setLastSyncedAt(SYNCED_AT);
+		TaskSessionSyncRequest session = new TaskSessionSyncRequest();
+		session.setSessionId(UUID.randomUUID().toString());
+		session.setStartTime(SYNCED_AT.minusMinutes(25));
+		session.setDurationInSeconds(1500L);
+		session.setStatus("COMPLETED");
+		request.setSessions(List.of(session));
+		when(taskService.synchronizeTasks(eq(USER_ID), anyList())).thenReturn(List.of(
+				TaskSyncResponse.builder().taskId(taskId).title("Write report").energy(30).version(5L)
+						.lastSyncedAt(SYNCED_AT).build()));
+
+		MvcResult result = mockMvc.perform(post("/api/tasks/sync")
+						.principal(authentication)
+						.contentType(format)
+						.accept(format)
+						.content(mapper.writeValueAsBytes(List.of(request))))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(format))
+				.andReturn();
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<TaskSyncRequest>> captor = ArgumentCaptor.forClass(List.class);
+		verify(taskService).synchronizeTasks(eq(USER_ID), captor.capture());
+		assertThat(captor.getValue()).containsExactly(request);
+
+		JsonNode data = mapper.readTree(result.getResponse().getContentAsByteArray()).get("data").get(0);
+		assertThat(data.get("taskId").asText()).isEqualTo(taskId);
+		assertThat(data.get("version").asLong()).isEqualTo(5L);
+		assertThat(mapper.treeToValue(data, TaskSyncResponse.class).getLastSyncedAt()).isEqualTo(SYNCED_AT);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {CBOR, SMILE})
+	void taskResponseIsWrittenInTheAcceptedFormat(String format) throws Exception {
+		ObjectMapper mapper = mapper(format);
+		UUID taskId = UUID.randomUUID();
+		TaskResponse task = TaskResponse.builder().id(taskId).title("Review").priority("HIGH").version(2L)
+				.createdAt(SYNCED_AT).updatedAt(SYNCED_AT).build();
+		when(taskService.getTaskById(taskId.toString(), USER_ID)).thenReturn(task);
+
+		MvcResult result = mockMvc.perform(get("/api/tasks/{id}", taskId).principal(authentication).accept(format))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(format))
+				.andReturn();
+
+		JsonNode data = mapper.readTree(result.getResponse().getContentAsByteArray()).get("data");
+		assertThat(mapper.treeToValue(data, TaskResponse.class)).isEqualTo(task);
+	}
+
+	@Test
+	void jsonStaysTheDefaultFormat() throws Exception {
+		UUID taskId = UUID.randomUUID();
+		when(taskService.getTaskById(taskId.toString(), USER_ID))
+				.thenReturn(TaskResponse.builder().id(taskId).title("Review").build());
+
+		mockMvc.perform(get("/api/tasks/{id}", taskId).principal(authentication).accept(MediaType.ALL))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+	}
+
+	private ObjectMapper mapper(String format) {
+		JsonFactory factory = CBOR.equals(format) ? new CBORFactory() : new SmileFactory();
+		return new Jackson2ObjectMapperBuilder().factory(factory).build();
+	}
+}
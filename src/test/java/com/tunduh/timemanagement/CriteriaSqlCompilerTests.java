@@ -0,0 +1,92 @@
+package com.tunduh.timemanagement;
+
+import com.tunduh.timemanagement.utils.criteria.CriteriaCondition;
+import com.tunduh.timemanagement.utils.criteria.CriteriaField;
+import com.tunduh.timemanagement.utils.criteria.CriteriaMetric;
+import com.tunduh.timemanagement.utils.criteria.CriteriaOperator;
+import com.tunduh.timemanagement.utils.criteria.CriteriaSqlCompiler;
+import com.tunduh.timemanagement.utils.criteria.CriteriaWindow;
+import com.tunduh.timemanagement.utils.criteria.MissionCriteria;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Each placeholder must line up with its parameter; the compiled SQL is checked with the parameters inlined.
+class CriteriaSqlCompilerTests {
+	private static final LocalDateTime START = LocalDateTime.of(2024, 9, 1, 0, 0);
+	private static final LocalDateTime END = LocalDateTime.of(2024, 9, 30, 0, 0);
+	private static final String SCOPE = "um2.id > ? AND um2.id <= ?";
+
+	@Test
+	void progressQueryBindsWindowConditionsMissionAndScopeInOrder() {
+		MissionCriteria criteria = new MissionCriteria("mission-1", CriteriaMetric.SESSION_TIME,
+				CriteriaWindow.DURING_MISSION, List.of(
+						new CriteriaCondition(CriteriaField.PRIORITY, CriteriaOperator.IN, List.of("HIGH", "MEDIUM")),
+						new CriteriaCondition(CriteriaField.ENERGY, CriteriaOperator.GTE, List.of("20"))),
+				30, START, END);
+
+		CriteriaSqlCompiler.CompiledQuery query = CriteriaSqlCompiler.progressQuery(criteria, SCOPE, "a", "b");
+
+		assertThat(query.params()).containsExactly(Timestamp.valueOf(START), Timestamp.valueOf(END), "HIGH", "MEDIUM",
+				20L, "mission-1", "a", "b");
+		assertThat(inline(query)).contains(
+				"s.start_time > '2024-09-01 00:00:00.0' AND s.start_time <= '2024-09-30 00:00:00.0'",
+				"t.priority IN ('HIGH', 'MEDIUM') AND t.energy >= 20",
+				"WHERE um2.mission_id = 'mission-1' AND (um2.id > 'a' AND um2.id <= 'b')");
+	}
+
+	@Test
+	void sourceWithoutTimeColumnBindsNoWindow() {
+		MissionCriteria criteria = new MissionCriteria("mission-2", CriteriaMetric.POINT_BALANCE,
+				CriteriaWindow.DURING_MISSION, List.of(), 500, START, END);
+
+		CriteriaSqlCompiler.CompiledQuery query = CriteriaSqlCompiler.progressQuery(criteria, "um2.id = ?", "row-1");
+
+		assertThat(query.params()).containsExactly("mission-2", "row-1");
+		assertThat(inline(query)).contains("WHERE um2.mission_id = 'mission-2' AND (um2.id = 'row-1')");
+	}
+
+	@Test
+	void progressUpdateKeepsTheQueryParameters() {
+		MissionCriteria criteria = new MissionCriteria("mission-3", CriteriaMetric.COMPLETED_TASKS,
+				CriteriaWindow.SINCE_START, List.of(
+						new CriteriaCondition(CriteriaField.DURATION, CriteriaOperator.LT, List.of("45"))),
+				5, START, null);
+
+		CriteriaSqlCompiler.CompiledQuery update = CriteriaSqlCompiler.progressUpdate(criteria, SCOPE, "a", "b");
+
+		assertThat(update.params()).containsExactly(Timestamp.valueOf(START), 45L, "mission-3", "a", "b");
+		assertThat(inline(update)).startsWith("UPDATE user_missions um SET progress_value = d.value FROM (SELECT")
+				.contains("t.created_at > '2024-09-01 00:00:00.0' AND t.duration < 45 WHERE um2.mission_id = 'mission-3'");
+	}
+
+	@Test
+	void completeReachedBindsTheTargetInStoredUnits() {
+		MissionCriteria criteria = new MissionCriteria("mission-4", CriteriaMetric.SESSION_TIME,
+				CriteriaWindow.SINCE_START, List.of(), 30, START, null);
+		Timestamp now = Timestamp.valueOf(LocalDateTime.of(2024, 9, 15, 12, 0));
+
+		CriteriaSqlCompiler.CompiledQuery query = CriteriaSqlCompiler.completeReached(criteria, now,
+				"um2.user_id = ?", "user-1");
+
+		assertThat(query.params()).containsExactly(now, now, "mission-4", 1800L, "user-1");
+		assertThat(inline(query)).contains("um2.mission_id = 'mission-4'", "um2.progress_value >= 1800",
+				"(um2.user_id = 'user-1')");
+	}
+
+	// Replaces each placeholder with its parameter, quoting everything but numbers.
+	private static String inline(CriteriaSqlCompiler.CompiledQuery query) {
+		String[] parts = query.sql().split("\\?", -1);
+		assertThat(parts).hasSize(query.params().length + 1);
+		StringBuilder sql = new StringBuilder(parts[0]);
+		for (int i = 0; i < query.params().length; i++) {
+			Object param = query.params()[i];
+			sql.append(param instanceof Number ? param.toString() : "'" + param + "'").append(parts[i + 1]);
+		}
+		return sql.toString();
+	}
+}
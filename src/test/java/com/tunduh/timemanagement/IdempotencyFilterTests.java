@@ -0,0 +1,159 @@
+package com.tunduh.timemanagement;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tunduh.timemanagement.config.IdempotencyFilter;
+import com.tunduh.timemanagement.entity.UserEntity;
+import com.tunduh.timemanagement.service.IdempotencyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Drives the filter with an in-memory stand-in for the idempotency_keys rows IdempotencyService keeps.
+class IdempotencyFilterTests {
+	private static final String KEY = "create-task-1";
+	private static final String BODY = "{\"title\":\"Write report\"}";
+
+	private final Map<String, IdempotencyService.StoredResponse> keys = new HashMap<>();
+	private IdempotencyFilter filter;
+	private int controllerCalls;
+
+	@BeforeEach
+	void setUp() {
+		IdempotencyService idempotencyService = mock(IdempotencyService.class);
+		filter = new IdempotencyFilter(idempotencyService, new ObjectMapper());
+		ReflectionTestUtils.setField(filter, "excludedPaths", new String[]{"/api/tasks/sync/stream", "/api/events/**"});
+		ReflectionTestUtils.setField(filter, "maxRequestBytes", 1024);
+		ReflectionTestUtils.setField(filter, "maxResponseBytes", 1024);
+
+		when(idempotencyService.find(anyString(), anyString()))
+				.thenAnswer(invocation -> Optional.ofNullable(keys.get(invocation.<String>getArgument(1))));
+		when(idempotencyService.reserve(anyString(), anyString(), anyString())).thenAnswer(invocation ->
+				keys.putIfAbsent(invocation.getArgument(1), new IdempotencyService.StoredResponse(
+						invocation.getArgument(2), null, null, null, LocalDateTime.now().plusHours(1))) == null);
+		doAnswer(invocation -> keys.put(invocation.getArgument(1), new IdempotencyService.StoredResponse(
+				invocation.getArgument(2), invocation.getArgument(3), invocation.getArgument(4),
+				invocation.getArgument(5), LocalDateTime.now().plusHours(1))))
+				.when(idempotencyService).complete(anyString(), anyString(), anyString(), anyInt(), any(), any());
+		doAnswer(invocation -> keys.computeIfPresent(invocation.getArgument(1),
+				(key, stored) -> stored.completed() ? stored : null))
+				.when(idempotencyService).release(anyString(), anyString());
+
+		UserEntity user = new UserEntity();
+		user.setId("user-1");
+		SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void retryReplaysTheStoredResponseWithoutReachingTheController() throws Exception {
+		FilterChain controller = created();
+
+		MockHttpServletResponse first = perform(post(BODY), controller);
+		MockHttpServletResponse retry = perform(post(BODY), controller);
+
+		assertThat(controllerCalls).isEqualTo(1);
+		assertThat(first.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+		assertThat(retry.getStatus()).isEqualTo(201);
+		assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+		assertThat(retry.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+		assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString());
+	}
+
+	@Test
+	void reusingTheKeyForADifferentRequestIsUnprocessable() throws Exception {
+		FilterChain controller = created();
+		perform(post(BODY), controller);
+
+		MockHttpServletResponse response = perform(post("{\"title\":\"Something else\"}"), controller);
+
+		assertThat(controllerCalls).isEqualTo(1);
+		assertThat(response.getStatus()).isEqualTo(422);
+		assertThat(response.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+	}
+
+	@Test
+	void retryWhileTheFirstRequestIsRunningConflicts() throws Exception {
+		MockHttpServletResponse[] retry = new MockHttpServletResponse[1];
+		// The retry arrives while the controller is still handling the first request.
+		FilterChain controller = (request, response) -> {
+			controllerCalls++;
+			retry[0] = perform(post(BODY), (retryRequest, retryResponse) -> controllerCalls++);
+			response.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+		};
+
+		MockHttpServletResponse first = perform(post(BODY), controller);
+
+		assertThat(controllerCalls).isEqualTo(1);
+		assertThat(first.getStatus()).isEqualTo(200);
+		assertThat(retry[0].getStatus()).isEqualTo(409);
+	}
+
+	@Test
+	void serverErrorReleasesTheKeySoTheRequestCanBeRetried() throws Exception {
+		perform(post(BODY), (request, response) -> {
+			controllerCalls++;
+			((HttpServletResponse) response).setStatus(503);
+		});
+
+		MockHttpServletResponse retry = perform(post(BODY), created());
+
+		assertThat(controllerCalls).isEqualTo(2);
+		assertThat(retry.getStatus()).isEqualTo(201);
+		assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+	}
+
+	private FilterChain created() {
+		return (request, response) -> {
+			controllerCalls++;
+			assertThat(request.getInputStream().readAllBytes()).isEqualTo(BODY.getBytes(StandardCharsets.UTF_8));
+			((HttpServletResponse) response).setStatus(201);
+			response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+			response.getOutputStream().write(("{\"id\":" + controllerCalls + "}").getBytes(StandardCharsets.UTF_8));
+		};
+	}
+
+	private MockHttpServletRequest post(String body) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/tasks");
+		request.addHeader(IdempotencyFilter.HEADER, KEY);
+		request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		request.setContent(body.getBytes(StandardCharsets.UTF_8));
+		return request;
+	}
+
+	private MockHttpServletResponse perform(MockHttpServletRequest request, FilterChain chain) {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		try {
+			filter.doFilter(request, response, chain);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+		return response;
+	}
+}
@@ -0,0 +1,69 @@
+package com.tunduh.timemanagement;
+
+import com.tunduh.timemanagement.repository.IdempotencyKeyRepository;
+import com.tunduh.timemanagement.service.IdempotencyService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTests {
+	private IdempotencyKeyRepository repository;
+	private IdempotencyService idempotencyService;
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(IdempotencyKeyRepository.class);
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		idempotencyService = new IdempotencyService(repository, jdbcTemplate, new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(idempotencyService, "ttlHours", 24L);
+		ReflectionTestUtils.setField(idempotencyService, "cacheSize", 100);
+		ReflectionTestUtils.setField(idempotencyService, "cacheMaxBytes", 250L);
+		ReflectionTestUtils.setField(idempotencyService, "cacheMaxBodyBytes", 100);
+		ReflectionTestUtils.invokeMethod(idempotencyService, "init");
+		when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+		when(repository.findActive(anyString(), anyString(), any())).thenReturn(Optional.empty());
+	}
+
+	@Test
+	void smallResponsesAreServedFromMemory() {
+		idempotencyService.complete("user-1", "key-1", "hash", 201, "application/json", new byte[80]);
+
+		assertThat(idempotencyService.find("user-1", "key-1")).hasValueSatisfying(stored ->
+				assertThat(stored.statusCode()).isEqualTo(201));
+		verify(repository, never()).findActive(anyString(), anyString(), any());
+	}
+
+	@Test
+	void responsesAboveTheBodyLimitAreReadFromTheTable() {
+		idempotencyService.complete("user-1", "key-1", "hash", 201, "application/json", new byte[101]);
+
+		assertThat(idempotencyService.find("user-1", "key-1")).isEmpty();
+		verify(repository).findActive(anyString(), anyString(), any());
+	}
+
+	@Test
+	void leastRecentlyUsedResponsesAreEvictedToStayWithinTheByteBound() {
+		idempotencyService.complete("user-1", "key-1", "hash", 201, null, new byte[100]);
+		idempotencyService.complete("user-1", "key-2", "hash", 201, null, new byte[100]);
+		idempotencyService.find("user-1", "key-1");
+		idempotencyService.complete("user-1", "key-3", "hash", 201, null, new byte[100]);
+
+		assertThat(idempotencyService.find("user-1", "key-1")).isPresent();
+		assertThat(idempotencyService.find("user-1", "key-3")).isPresent();
+		assertThat(idempotencyService.find("user-1", "key-2")).isEmpty();
+		verify(repository).findActive(eq("user-1"), eq("key-2"), any());
+	}
+}
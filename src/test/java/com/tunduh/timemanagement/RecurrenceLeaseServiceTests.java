@@ -0,0 +1,58 @@
+package com.tunduh.timemanagement;
+
+import com.tunduh.timemanagement.service.RecurrenceLeaseService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecurrenceLeaseServiceTests {
+	private JdbcTemplate jdbcTemplate;
+	private RecurrenceLeaseService leaseService;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = mock(JdbcTemplate.class);
+		leaseService = new RecurrenceLeaseService(jdbcTemplate);
+		ReflectionTestUtils.setField(leaseService, "configuredNodeId", "node-1");
+		ReflectionTestUtils.setField(leaseService, "leaseSeconds", 300L);
+	}
+
+	@Test
+	void partitionsAreSeededOnceAndAcquiredByTheirOwnId() {
+		when(jdbcTemplate.update(startsWith("UPDATE recurrence_leases SET owner = ?"), any(), any(), eq(7), any(), any()))
+				.thenReturn(1, 0);
+
+		assertThat(leaseService.tryAcquire(7)).isTrue();
+		assertThat(leaseService.tryAcquire(7)).isFalse();
+
+		verify(jdbcTemplate, times(1)).batchUpdate(startsWith("INSERT INTO recurrence_leases"), anyList());
+	}
+
+	@Test
+	void jobLeasesDoNotOverlapRecurrencePartitionsOrEachOther() {
+		when(jdbcTemplate.update(startsWith("UPDATE recurrence_leases SET owner = ?"), any(), any(), any(), any(), any()))
+				.thenReturn(1);
+
+		leaseService.tryAcquire(RecurrenceLeaseService.Job.MISSION_EVALUATION, 3);
+		leaseService.tryAcquire(RecurrenceLeaseService.Job.MISSION_EVALUATION, 3);
+		leaseService.tryAcquire(RecurrenceLeaseService.Job.PROGRESS_RECONCILE, 3);
+		leaseService.release(RecurrenceLeaseService.Job.PROGRESS_RECONCILE, 3);
+
+		verify(jdbcTemplate, times(1)).update(startsWith("INSERT INTO recurrence_leases"), eq(65536 + 3));
+		verify(jdbcTemplate, times(1)).update(startsWith("INSERT INTO recurrence_leases"), eq(2 * 65536 + 3));
+		verify(jdbcTemplate, times(2)).update(startsWith("UPDATE recurrence_leases SET owner = ?"), eq("node-1"), any(),
+				eq(65536 + 3), eq("node-1"), any());
+		verify(jdbcTemplate).update(startsWith("UPDATE recurrence_leases SET owner = NULL"), eq(2 * 65536 + 3), eq("node-1"));
+	}
+}
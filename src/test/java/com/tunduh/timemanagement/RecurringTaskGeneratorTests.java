@@ -0,0 +1,174 @@
+package com.tunduh.timemanagement;
+
+import com.tunduh.timemanagement.entity.TaskEntity;
+import com.tunduh.timemanagement.entity.UserEntity;
+import com.tunduh.timemanagement.repository.TaskRepository;
+import com.tunduh.timemanagement.service.RecurrenceLeaseService;
+import com.tunduh.timemanagement.service.RecurringTaskGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Runs the generator against an in-memory task_generation_ledger, so repeated runs and on-demand materialization
+// race for the same (template, date) keys the way separate nodes would.
+class RecurringTaskGeneratorTests {
+	private static final int PARTITION = 3;
+
+	private final LocalDate today = LocalDate.now(ZoneOffset.UTC);
+	private final Set<String> ledger = new HashSet<>();
+	private final List<Object[]> insertedTasks = new ArrayList<>();
+
+	private TaskRepository taskRepository;
+	private RecurrenceLeaseService leaseService;
+	private RecurringTaskGenerator generator;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		taskRepository = mock(TaskRepository.class);
+		leaseService = mock(RecurrenceLeaseService.class);
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+		generator = new RecurringTaskGenerator(taskRepository, leaseService, jdbcTemplate, transactionTemplate,
+				new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(generator, "chunkSize", 500);
+		ReflectionTestUtils.setField(generator, "catchUpDays", 7);
+		ReflectionTestUtils.setField(generator, "staggerMinutes", 60);
+
+		when(leaseService.nodeId()).thenReturn("node-1");
+		when(leaseService.lowerBound(PARTITION)).thenReturn("3");
+		when(leaseService.upperBound(PARTITION)).thenReturn("4");
+		when(leaseService.tryAcquire(PARTITION)).thenReturn(true);
+		when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+				((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(mock(TransactionStatus.class)));
+		when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+				.thenAnswer(invocation -> {
+					String sql = invocation.getArgument(0);
+					ParameterizedPreparedStatementSetter<Object> setter = invocation.getArgument(3);
+					List<Integer> counts = new ArrayList<>();
+					for (Object row : (Collection<?>) invocation.getArgument(1)) {
+						Object[] values = parameters(setter, row);
+						if (sql.startsWith("INSERT INTO task_generation_ledger")) {
+							counts.add(ledger.add(values[2] + "|" + values[3]) ? 1 : 0);
+						} else {
+							if (sql.startsWith("INSERT INTO tasks")) {
+								insertedTasks.add(values);
+							}
+							counts.add(1);
+						}
+					}
+					return new int[][]{counts.stream().mapToInt(Integer::intValue).toArray()};
+				});
+		when(taskRepository.findRecurringTasksWithoutNextDueAfter(any(), anyString(), anyString(), any()))
+				.thenReturn(List.of());
+	}
+
+	@Test
+	void repeatedRunForTheSameDayGeneratesNothing() {
+		TaskEntity template = dailyTemplate("3a000000-0000-4000-8000-000000000001", today.minusDays(1));
+		dueTemplates(List.of(template));
+		LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+
+		RecurringTaskGenerator.GenerationResult first = generator.generate(PARTITION, now);
+		RecurringTaskGenerator.GenerationResult second = generator.generate(PARTITION, now);
+
+		assertThat(first.generated()).isEqualTo(2);
+		assertThat(first.skipped()).isZero();
+		assertThat(second.generated()).isZero();
+		assertThat(second.skipped()).isEqualTo(2);
+		assertThat(insertedTasks).extracting(values -> values[10]).containsExactly(today.minusDays(1), today);
+	}
+
+	@Test
+	void materializingAnOccurrenceTheGeneratorClaimedIsANoOp() {
+		TaskEntity template = dailyTemplate("3a000000-0000-4000-8000-000000000002", today);
+		dueTemplates(List.of(template));
+		generator.generate(PARTITION, LocalDateTime.now(ZoneOffset.UTC));
+
+		String tomorrow = generator.materializeOccurrence(template, today.plusDays(1));
+
+		assertThat(generator.materializeOccurrence(template, today)).isNull();
+		assertThat(tomorrow).isNotNull();
+		assertThat(generator.materializeOccurrence(template, today.plusDays(1))).isNull();
+		assertThat(insertedTasks).extracting(values -> values[1]).hasSize(2).contains(tomorrow);
+	}
+
+	@Test
+	void generationStopsWhenThePartitionLeaseIsLost() {
+		ReflectionTestUtils.setField(generator, "chunkSize", 1);
+		TaskEntity first = dailyTemplate("3a000000-0000-4000-8000-000000000003", today);
+		TaskEntity second = dailyTemplate("3b000000-0000-4000-8000-000000000004", today);
+		when(taskRepository.findDueRecurringTasksAfter(any(), eq("3"), eq("4"), any())).thenReturn(List.of(first));
+		when(taskRepository.findDueRecurringTasksAfter(any(), eq(first.getId()), eq("4"), any()))
+				.thenReturn(List.of(second));
+		// Another node took the partition over after our first chunk.
+		when(leaseService.tryAcquire(PARTITION)).thenReturn(false);
+
+		RecurringTaskGenerator.GenerationResult result = generator.generate(PARTITION, LocalDateTime.now(ZoneOffset.UTC));
+
+		assertThat(result.chunks()).isEqualTo(1);
+		assertThat(result.generated()).isEqualTo(1);
+		assertThat(insertedTasks).extracting(values -> values[9]).containsExactly(first.getId());
+	}
+
+	private void dueTemplates(List<TaskEntity> templates) {
+		when(taskRepository.findDueRecurringTasksAfter(any(), eq("3"), eq("4"), any())).thenReturn(templates);
+	}
+
+	private TaskEntity dailyTemplate(String id, LocalDate nextOccurrence) {
+		TaskEntity template = new TaskEntity();
+		template.setId(id);
+		template.setTitle("Stretch");
+		template.setStatus("PENDING");
+		template.setPriority("LOW");
+		template.setEnergy(10);
+		template.setDuration(15);
+		template.setRepetitionType(TaskEntity.RepetitionType.DAILY);
+		template.setRepetitionStartDate(today.minusDays(30).atStartOfDay());
+		template.setNextOccurrenceAt(nextOccurrence.atStartOfDay());
+		template.setNextDueAt(nextOccurrence.atStartOfDay());
+		template.setUser(UserEntity.builder().id("user-1").timeZone("UTC").build());
+		return template;
+	}
+
+	// Captures the values a statement setter binds, indexed by parameter position.
+	private static Object[] parameters(ParameterizedPreparedStatementSetter<Object> setter, Object row)
+			throws SQLException {
+		Object[] values = new Object[16];
+		PreparedStatement statement = mock(PreparedStatement.class, invocation -> {
+			if (invocation.getMethod().getName().startsWith("set")) {
+				values[(int) invocation.getArgument(0)] = invocation.getArgument(1);
+			}
+			return null;
+		});
+		setter.setValues(statement, row);
+		return values;
+	}
+}
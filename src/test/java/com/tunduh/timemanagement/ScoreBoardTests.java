@@ -0,0 +1,83 @@
+package com.tunduh.timemanagement;
+
+import com.tunduh.timemanagement.utils.ScoreBoard;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScoreBoardTests {
+
+	@Test
+	void ranksScoresUpToIntegerMaxValue() {
+		ScoreBoard board = new ScoreBoard();
+		board.set("max", Integer.MAX_VALUE);
+		board.set("billion", 1 << 30);
+		board.set("hundred-million", 100_000_000);
+		board.set("low", 10);
+
+		assertThat(board.entry("max").orElseThrow().rank()).isEqualTo(1);
+		assertThat(board.entry("billion").orElseThrow().rank()).isEqualTo(2);
+		assertThat(board.entry("hundred-million").orElseThrow().rank()).isEqualTo(3);
+		assertThat(board.entry("low").orElseThrow().rank()).isEqualTo(4);
+	}
+
+	@Test
+	void separatesDistinctScoresThatShareABucket() {
+		ScoreBoard board = new ScoreBoard();
+		board.set("a", 100_000_000);
+		board.set("b", 100_000_001);
+		board.set("c", 100_000_001);
+		board.set("d", 100_000_002);
+
+		assertThat(board.entry("d").orElseThrow().rank()).isEqualTo(1);
+		assertThat(board.entry("b").orElseThrow().rank()).isEqualTo(2);
+		assertThat(board.entry("c").orElseThrow().rank()).isEqualTo(2);
+		assertThat(board.entry("a").orElseThrow().rank()).isEqualTo(4);
+	}
+
+	@Test
+	void negativeScoresRankAsZero() {
+		ScoreBoard board = new ScoreBoard();
+		board.set("zero", 0);
+		board.set("negative", -5);
+		board.set("positive", 1);
+
+		assertThat(board.entry("positive").orElseThrow().rank()).isEqualTo(1);
+		assertThat(board.entry("zero").orElseThrow().rank()).isEqualTo(2);
+		assertThat(board.entry("negative").orElseThrow().rank()).isEqualTo(2);
+	}
+
+	@Test
+	void matchesACountOfHigherScoresUnderRandomUpdates() {
+		Random random = new Random(42);
+		ScoreBoard board = new ScoreBoard();
+		Map<String, Integer> expected = new HashMap<>();
+		for (int i = 0; i < 5_000; i++) {
+			String userId = "u" + random.nextInt(300);
+			int score = switch (random.nextInt(3)) {
+				case 0 -> random.nextInt(2_000);
+				case 1 -> 1_000_000 + random.nextInt(5_000);
+				default -> random.nextInt(Integer.MAX_VALUE);
+			};
+			if (random.nextBoolean() || !expected.containsKey(userId)) {
+				board.set(userId, score);
+				expected.put(userId, score);
+			} else {
+				int delta = random.nextInt(1_000) - 500;
+				board.add(userId, delta);
+				expected.merge(userId, delta, Integer::sum);
+			}
+		}
+
+		for (Map.Entry<String, Integer> user : expected.entrySet()) {
+			int score = Math.max(user.getValue(), 0);
+			long higher = expected.values().stream().filter(other -> Math.max(other, 0) > score).count();
+			assertThat(board.entry(user.getKey()).orElseThrow().rank()).as(user.getKey()).isEqualTo(higher + 1);
+		}
+		assertThat(board.top(1).get(0).rank()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,141 @@
+package com.tunduh.timemanagement;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.tunduh.timemanagement.dto.response.TaskResponse;
+import com.tunduh.timemanagement.dto.response.TaskSyncResponse;
+import com.tunduh.timemanagement.entity.TaskEntity;
+import com.tunduh.timemanagement.utils.pagination.CustomPagination;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Compares payload size and serialize/deserialize time of JSON, CBOR and Smile for a sync response batch and a
+// task list page. Timings are logged for comparison only; sizes are asserted. Excluded from the default build;
+// run with mvn test -Pbenchmark.
+@Tag("benchmark")
+class SerializationFormatBenchmarkTests {
+	private static final Logger logger = LoggerFactory.getLogger(SerializationFormatBenchmarkTests.class);
+	private static final int ITEMS = 500;
+	private static final int WARMUP_ROUNDS = 50;
+	private static final int MEASURED_ROUNDS = 200;
+
+	@Test
+	void compareFormats() throws Exception {
+		Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+		mappers.put("json", mapper(new JsonFactory()));
+		mappers.put("cbor", mapper(new CBORFactory()));
+		mappers.put("smile", mapper(new SmileFactory()));
+
+		List<TaskSyncResponse> syncPayload = syncResponses();
+		CustomPagination<TaskResponse> pagePayload = new CustomPagination<>(taskResponses(), ITEMS * 4L, 0, ITEMS);
+
+		Map<String, Integer> syncSizes = new LinkedHashMap<>();
+		Map<String, Integer> pageSizes = new LinkedHashMap<>();
+		for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+			ObjectMapper mapper = entry.getValue();
+			syncSizes.put(entry.getKey(), measure(entry.getKey(), "TaskSyncResponse[]", mapper, syncPayload,
+					bytes -> mapper.readValue(bytes, new TypeReference<List<TaskSyncResponse>>() {})));
+			pageSizes.put(entry.getKey(), measure(entry.getKey(), "CustomPagination<TaskResponse>", mapper, pagePayload,
+					mapper::readTree));
+		}
+
+		assertThat(syncSizes.get("cbor")).isLessThan(syncSizes.get("json"));
+		assertThat(syncSizes.get("smile")).isLessThan(syncSizes.get("json"));
+		assertThat(pageSizes.get("cbor")).isLessThan(pageSizes.get("json"));
+		assertThat(pageSizes.get("smile")).isLessThan(pageSizes.get("json"));
+	}
+
+	private int measure(String format, String payloadName, ObjectMapper mapper, Object payload, Reader reader) throws Exception {
+		byte[] bytes = mapper.writeValueAsBytes(payload);
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			reader.read(mapper.writeValueAsBytes(payload));
+		}
+
+		long serializeNanos = 0;
+		long deserializeNanos = 0;
+		for (int i = 0; i < MEASURED_ROUNDS; i++) {
+			long start = System.nanoTime();
+			bytes = mapper.writeValueAsBytes(payload);
+			long serialized = System.nanoTime();
+			reader.read(bytes);
+			deserializeNanos += System.nanoTime() - serialized;
+			serializeNanos += serialized - start;
+		}
+		logger.info(String.format("%-32s %-6s %9d bytes  serialize %8.1f us  deserialize %8.1f us", payloadName, format,
+				bytes.length, serializeNanos / 1000.0 / MEASURED_ROUNDS, deserializeNanos / 1000.0 / MEASURED_ROUNDS));
+		return bytes.length;
+	}
+
+	// Same settings Spring Boot applies to the application's mappers.
+	private ObjectMapper mapper(JsonFactory factory) {
+		return Jackson2ObjectMapperBuilder.json().factory(factory)
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.build();
+	}
+
+	private List<TaskSyncResponse> syncResponses() {
+		LocalDateTime now = LocalDateTime.of(2024, 9, 1, 8, 30);
+		List<TaskSyncResponse> responses = new ArrayList<>();
+		for (int i = 0; i < ITEMS; i++) {
+			responses.add(TaskSyncResponse.builder()
+					.taskId(UUID.randomUUID().toString())
+					.title("Task " + i)
+					.energy(10 + i % 40)
+					.notes(i % 3 == 0 ? "Review the weekly plan and update estimates" : null)
+					.status(i % 4 == 0 ? "COMPLETED" : "PENDING")
+					.duration(25 + i % 60)
+					.priority(i % 2 == 0 ? "HIGH" : "LOW")
+					.lastSyncedAt(now.plusSeconds(i))
+					.version((long) i % 7)
+					.conflicted(false)
+					.conflicts(List.of())
+					.build());
+		}
+		return responses;
+	}
+
+	private List<TaskResponse> taskResponses() {
+		LocalDateTime now = LocalDateTime.of(2024, 9, 1, 8, 30);
+		List<TaskResponse> tasks = new ArrayList<>();
+		for (int i = 0; i < ITEMS; i++) {
+			tasks.add(TaskResponse.builder()
+					.id(UUID.randomUUID())
+					.title("Task " + i)
+					.energy(10 + i % 40)
+					.notes(i % 3 == 0 ? "Review the weekly plan and update estimates" : null)
+					.status(i % 4 == 0 ? "COMPLETED" : "PENDING")
+					.duration(25 + i % 60)
+					.priority(i % 2 == 0 ? "HIGH" : "LOW")
+					.repetitionType(i % 5 == 0 ? TaskEntity.RepetitionType.WEEKLY : TaskEntity.RepetitionType.NONE)
+					.repetitionDates(i % 5 == 0 ? Set.of(1, 3, 5) : Set.of())
+					.repetitionStartDate(i % 5 == 0 ? now : null)
+					.version((long) i % 7)
+					.createdAt(now.minusDays(i % 30))
+					.updatedAt(now.plusSeconds(i))
+					.build());
+		}
+		return tasks;
+	}
+
+	@FunctionalInterface
+	private interface Reader {
+		Object read(byte[] bytes) throws Exception;
+	}
+}
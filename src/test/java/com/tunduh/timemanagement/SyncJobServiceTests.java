@@ -0,0 +1,156 @@
+package com.tunduh.timemanagement;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tunduh.timemanagement.dto.request.TaskSyncRequest;
+import com.tunduh.timemanagement.dto.response.TaskSyncResponse;
+import com.tunduh.timemanagement.entity.SyncJobEntity;
+import com.tunduh.timemanagement.entity.UserEntity;
+import com.tunduh.timemanagement.repository.SyncJobRepository;
+import com.tunduh.timemanagement.repository.UserRepository;
+import com.tunduh.timemanagement.service.SyncJobService;
+import com.tunduh.timemanagement.service.TaskSyncProcessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Resumes a job that was interrupted after its first chunk committed and while its second chunk was being written.
+class SyncJobServiceTests {
+	private static final String JOB_ID = "job-1";
+
+	@TempDir
+	Path spoolDir;
+
+	private final ObjectMapper objectMapper = new Jackson2ObjectMapperBuilder().build();
+	private final List<List<String>> processedChunks = new ArrayList<>();
+	private final List<Object[]> statements = new ArrayList<>();
+
+	private SyncJobRepository syncJobRepository;
+	private SyncJobService syncJobService;
+
+	@BeforeEach
+	void setUp() {
+		syncJobRepository = mock(SyncJobRepository.class);
+		UserRepository userRepository = mock(UserRepository.class);
+		TaskSyncProcessor taskSyncProcessor = mock(TaskSyncProcessor.class);
+		TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		syncJobService = new SyncJobService(syncJobRepository, userRepository, taskSyncProcessor, transactionTemplate,
+				jdbcTemplate, objectMapper);
+		ReflectionTestUtils.setField(syncJobService, "configuredNodeId", "node-1");
+		ReflectionTestUtils.setField(syncJobService, "spoolDirectory", spoolDir.toString());
+		ReflectionTestUtils.setField(syncJobService, "workerCount", 1);
+		ReflectionTestUtils.setField(syncJobService, "chunkSize", 2);
+		ReflectionTestUtils.invokeMethod(syncJobService, "init");
+
+		when(userRepository.findById("user-1")).thenReturn(Optional.of(UserEntity.builder().id("user-1").build()));
+		when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+				((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(mock(TransactionStatus.class)));
+		when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+			Object[] arguments = invocation.getArguments();
+			statements.add(arguments);
+			return 1;
+		});
+		when(taskSyncProcessor.synchronize(any(), anyList())).thenAnswer(invocation -> {
+			List<TaskSyncRequest> chunk = invocation.getArgument(1);
+			processedChunks.add(chunk.stream().map(TaskSyncRequest::getTaskId).toList());
+			return chunk.stream()
+					.map(request -> TaskSyncResponse.builder().taskId(request.getTaskId()).version(1L).build())
+					.toList();
+		});
+	}
+
+	@Test
+	void interruptedJobResumesFromItsLastCheckpoint() throws Exception {
+		byte[] first = line(request("task-1"));
+		byte[] second = line(request("task-2"));
+		ByteArrayOutputStream spool = new ByteArrayOutputStream();
+		for (String taskId : List.of("task-1", "task-2", "task-3", "task-4", "task-5")) {
+			spool.write(line(request(taskId)));
+		}
+		Files.write(spoolDir.resolve(JOB_ID + ".spool.ndjson"), spool.toByteArray());
+		// Chunk one (task-1, task-2) committed; part of chunk two reached the result file before the crash.
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		result.write(line(response("task-1")));
+		result.write(line(response("task-2")));
+		long committedResultBytes = result.size();
+		result.write("{\"taskId\":\"task-3\",\"ver".getBytes(StandardCharsets.UTF_8));
+		Files.write(spoolDir.resolve(JOB_ID + ".result.ndjson"), result.toByteArray());
+		SyncJobEntity job = SyncJobEntity.builder()
+				.id(JOB_ID)
+				.userId("user-1")
+				.nodeId("node-1")
+				.status(SyncJobEntity.JobStatus.RUNNING)
+				.totalEntries(5)
+				.processedEntries(2)
+				.spoolOffset(first.length + second.length)
+				.resultBytes(committedResultBytes)
+				.createdAt(LocalDateTime.now())
+				.build();
+		when(syncJobRepository.findByNodeIdAndStatusInOrderByCreatedAt(eq("node-1"), any())).thenReturn(List.of(job));
+		when(syncJobRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
+
+		syncJobService.resumePendingJobs();
+		ExecutorService workers = (ExecutorService) ReflectionTestUtils.getField(syncJobService, "workers");
+		workers.shutdown();
+		assertThat(workers.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(processedChunks).containsExactly(List.of("task-3", "task-4"), List.of("task-5"));
+		List<String> lines = Files.readAllLines(spoolDir.resolve(JOB_ID + ".result.ndjson"));
+		assertThat(lines).extracting(line -> objectMapper.readValue(line, TaskSyncResponse.class).getTaskId())
+				.containsExactly("task-1", "task-2", "task-3", "task-4", "task-5");
+		List<Object[]> checkpoints = statements.stream()
+				.filter(statement -> ((String) statement[0]).startsWith("UPDATE sync_jobs SET spool_offset"))
+				.toList();
+		assertThat(checkpoints).last().satisfies(checkpoint -> {
+			assertThat(checkpoint[1]).isEqualTo((long) spool.size());
+			assertThat(checkpoint[2]).isEqualTo(Files.size(spoolDir.resolve(JOB_ID + ".result.ndjson")));
+			assertThat(checkpoint[3]).isEqualTo(5L);
+		});
+		assertThat(statements).extracting(statement -> (String) statement[0])
+				.anyMatch(sql -> sql.startsWith("UPDATE sync_jobs SET status = 'COMPLETED'"));
+		assertThat(spoolDir.resolve(JOB_ID + ".spool.ndjson")).doesNotExist();
+	}
+
+	private TaskSyncRequest request(String taskId) {
+		TaskSyncRequest request = new TaskSyncRequest();
+		request.setTaskId(taskId);
+		request.setTitle("Task " + taskId);
+		return request;
+	}
+
+	private TaskSyncResponse response(String taskId) {
+		return TaskSyncResponse.builder().taskId(taskId).version(1L).build();
+	}
+
+	private byte[] line(Object value) throws Exception {
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		line.write(objectMapper.writeValueAsBytes(value));
+		line.write('\n');
+		return line.toByteArray();
+	}
+}
@@ -0,0 +1,171 @@
+package com.tunduh.timemanagement;
+
+import com.tunduh.timemanagement.dto.response.TaskChangesResponse;
+import com.tunduh.timemanagement.entity.SyncTombstoneEntity;
+import com.tunduh.timemanagement.entity.TaskEntity;
+import com.tunduh.timemanagement.entity.TaskSessionEntity;
+import com.tunduh.timemanagement.repository.SyncTombstoneRepository;
+import com.tunduh.timemanagement.repository.TaskRepository;
+import com.tunduh.timemanagement.repository.TaskSessionRepository;
+import com.tunduh.timemanagement.service.SyncTombstonePurger;
+import com.tunduh.timemanagement.service.impl.TaskServiceImpl;
+import com.tunduh.timemanagement.utils.ChangeCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TaskChangeFeedTests {
+	private static final String USER_ID = "user-1";
+	private static final long VISIBLE_XID = 900;
+
+	@Mock
+	private TaskRepository taskRepository;
+	@Mock
+	private TaskSessionRepository taskSessionRepository;
+	@Mock
+	private SyncTombstoneRepository syncTombstoneRepository;
+	@Mock
+	private SyncTombstonePurger syncTombstonePurger;
+	@InjectMocks
+	private TaskServiceImpl taskService;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(taskService, "maxChangesLimit", 1000);
+	}
+
+	@Test
+	void cursorTokensRoundTripAndOrderByTransactionFirst() {
+		assertThat(ChangeCursor.parse("12.345")).isEqualTo(new ChangeCursor(12, 345));
+		assertThat(new ChangeCursor(12, 345).token()).isEqualTo("12.345");
+		assertThat(new ChangeCursor(11, 900)).isLessThan(new ChangeCursor(12, 1));
+		assertThat(new ChangeCursor(12, 1)).isLessThan(new ChangeCursor(12, 2));
+	}
+
+	@Test
+	void bareSequenceNumbersAndGarbageRestartFromTheBeginning() {
+		assertThat(ChangeCursor.parse("0")).isEqualTo(ChangeCursor.START);
+		assertThat(ChangeCursor.parse("4711")).isEqualTo(ChangeCursor.START);
+		assertThat(ChangeCursor.parse("a.b")).isEqualTo(ChangeCursor.START);
+		assertThat(ChangeCursor.parse(null)).isEqualTo(ChangeCursor.START);
+	}
+
+	@Test
+	void readsOnlyBelowTheOldestRunningTransaction() {
+		when(syncTombstoneRepository.findVisibleXidHorizon()).thenReturn(VISIBLE_XID);
+		when(syncTombstonePurger.purgedThrough()).thenReturn(Optional.empty());
+		when(taskRepository.findChangesSince(eq(USER_ID), eq(5L), eq(7L), eq(VISIBLE_XID), any())).thenReturn(List.of());
+		when(taskSessionRepository.findChangesSince(eq(USER_ID), eq(5L), eq(7L), eq(VISIBLE_XID), any())).thenReturn(List.of());
+		when(syncTombstoneRepository.findChangesSince(eq(USER_ID), eq(5L), eq(7L), eq(VISIBLE_XID), any())).thenReturn(List.of());
+
+		TaskChangesResponse changes = taskService.getChanges(USER_ID, "5.7", 10);
+
+		assertThat(changes.getCursor()).isEqualTo("5.7");
+		assertThat(changes.isHasMore()).isFalse();
+		assertThat(changes.isResyncRequired()).isFalse();
+	}
+
+	@Test
+	void truncatedTypeHoldsTheCursorBackForAllTypes() {
+		when(syncTombstoneRepository.findVisibleXidHorizon()).thenReturn(VISIBLE_XID);
+		// Tasks fill the page (limit + 1 rows) up to (20, 3); the session at (20, 5) lies beyond that boundary.
+		List<TaskEntity> tasks = List.of(task(10, 1), task(20, 2), task(20, 3), task(30, 4));
+		List<TaskSessionEntity> sessions = List.of(session(10, 6), session(20, 5));
+		List<SyncTombstoneEntity> tombstones = List.of(tombstone(15, 9));
+		when(taskRepository.findChangesSince(eq(USER_ID), eq(0L), eq(0L), eq(VISIBLE_XID), any())).thenReturn(tasks);
+		when(taskSessionRepository.findChangesSince(eq(USER_ID), eq(0L), eq(0L), eq(VISIBLE_XID), any())).thenReturn(sessions);
+		when(syncTombstoneRepository.findChangesSince(eq(USER_ID), eq(0L), eq(0L), eq(VISIBLE_XID), any())).thenReturn(tombstones);
+
+		TaskChangesResponse changes = taskService.getChanges(USER_ID, "0", 3);
+
+		assertThat(changes.isHasMore()).isTrue();
+		assertThat(changes.getCursor()).isEqualTo("20.3");
+		assertThat(changes.getTasks()).hasSize(3);
+		assertThat(changes.getSessions()).hasSize(1);
+		assertThat(changes.getDeleted()).hasSize(1);
+		verify(syncTombstonePurger, never()).purgedThrough();
+	}
+
+	@Test
+	void completePageAdvancesToTheNewestChange() {
+		when(syncTombstoneRepository.findVisibleXidHorizon()).thenReturn(VISIBLE_XID);
+		when(syncTombstonePurger.purgedThrough()).thenReturn(Optional.of(new ChangeCursor(3, 3)));
+		when(taskRepository.findChangesSince(eq(USER_ID), eq(4L), eq(1L), eq(VISIBLE_XID), any()))
+				.thenReturn(List.of(task(40, 8)));
+		when(taskSessionRepository.findChangesSince(eq(USER_ID), eq(4L), eq(1L), eq(VISIBLE_XID), any()))
+				.thenReturn(List.of(session(41, 2)));
+		when(syncTombstoneRepository.findChangesSince(eq(USER_ID), eq(4L), eq(1L), eq(VISIBLE_XID), any()))
+				.thenReturn(List.of(tombstone(40, 9)));
+
+		TaskChangesResponse changes = taskService.getChanges(USER_ID, "4.1", 10);
+
+		assertThat(changes.isHasMore()).isFalse();
+		assertThat(changes.getCursor()).isEqualTo("41.2");
+		assertThat(changes.getTasks()).hasSize(1);
+		assertThat(changes.getSessions()).hasSize(1);
+		assertThat(changes.getDeleted()).hasSize(1);
+	}
+
+	@Test
+	void cursorBehindPurgedTombstonesRequiresResync() {
+		when(syncTombstonePurger.purgedThrough()).thenReturn(Optional.of(new ChangeCursor(50, 10)));
+
+		TaskChangesResponse changes = taskService.getChanges(USER_ID, "50.9", 10);
+
+		assertThat(changes.isResyncRequired()).isTrue();
+		assertThat(changes.getCursor()).isEqualTo(ChangeCursor.START.token());
+		verify(taskRepository, never()).findChangesSince(any(), anyLong(), anyLong(), anyLong(), any());
+	}
+
+	private TaskEntity task(long xid, long seq) {
+		return TaskEntity.builder()
+				.id(UUID.randomUUID().toString())
+				.title("Task " + seq)
+				.status("PENDING")
+				.repetitionType(TaskEntity.RepetitionType.NONE)
+				.changeXid(xid)
+				.changeSeq(seq)
+				.build();
+	}
+
+	private TaskSessionEntity session(long xid, long seq) {
+		return TaskSessionEntity.builder()
+				.id(UUID.randomUUID().toString())
+				.task(task(1, 1))
+				.startTime(LocalDateTime.of(2024, 9, 1, 8, 0))
+				.durationInSeconds(0L)
+				.status(TaskSessionEntity.SessionStatus.PAUSED)
+				.changeXid(xid)
+				.changeSeq(seq)
+				.build();
+	}
+
+	private SyncTombstoneEntity tombstone(long xid, long seq) {
+		return SyncTombstoneEntity.builder()
+				.changeXid(xid)
+				.changeSeq(seq)
+				.entityType("TASK")
+				.entityId(UUID.randomUUID().toString())
+				.userId(USER_ID)
+				.deletedAt(LocalDateTime.of(2024, 9, 1, 9, 0))
+				.build();
+	}
+}
@@ -0,0 +1,89 @@
+package com.tunduh.timemanagement;
+
+import com.tunduh.timemanagement.dto.response.TaskResponse;
+import com.tunduh.timemanagement.entity.TaskEntity;
+import com.tunduh.timemanagement.repository.TaskGenerationLedgerRepository;
+import com.tunduh.timemanagement.repository.TaskRepository;
+import com.tunduh.timemanagement.service.impl.TaskServiceImpl;
+import com.tunduh.timemanagement.utils.pagination.CustomPagination;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TaskListingTests {
+	private static final String USER_ID = "user-1";
+	private static final LocalDate FROM = LocalDate.of(2024, 9, 2);
+	private static final LocalDate TO = LocalDate.of(2024, 9, 3);
+
+	@Mock
+	private TaskRepository taskRepository;
+	@Mock
+	private TaskGenerationLedgerRepository ledgerRepository;
+	@InjectMocks
+	private TaskServiceImpl taskService;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(taskService, "maxRangeDays", 92);
+		TaskEntity template = task("Stretch", TaskEntity.RepetitionType.DAILY, FROM.minusDays(10).atStartOfDay());
+		when(taskRepository.findByUserIdAndOccurrenceDateBetween(USER_ID, FROM, TO)).thenReturn(List.of());
+		when(taskRepository.findRecurringTemplatesForUserInRange(eq(USER_ID), any(), any())).thenReturn(List.of(template));
+		when(ledgerRepository.findByTemplateIdInAndOccurrenceDateBetween(anyList(), eq(FROM), eq(TO))).thenReturn(List.of());
+		when(taskRepository.findAll(any(Specification.class))).thenReturn(List.of(
+				task("Call bank", TaskEntity.RepetitionType.NONE, FROM.atTime(9, 0)),
+				task("Archive mail", TaskEntity.RepetitionType.NONE, TO.atTime(17, 0))));
+	}
+
+	@Test
+	void rangeMergesOneOffTasksWithOccurrencesByDay() {
+		CustomPagination<TaskResponse> page = taskService.getAllTasks(USER_ID, 0, 10, null, null, null, FROM, TO);
+
+		assertThat(page.getTotalElements()).isEqualTo(4);
+		assertThat(page.getContent()).extracting(TaskResponse::getTitle)
+				.containsExactly("Call bank", "Stretch", "Archive mail", "Stretch");
+		assertThat(page.getContent()).filteredOn(TaskResponse::isVirtual).extracting(TaskResponse::getOccurrenceDate)
+				.containsExactly(FROM, TO);
+	}
+
+	@Test
+	void rangeHonorsSortAndPagesTheMergedList() {
+		CustomPagination<TaskResponse> page = taskService.getAllTasks(USER_ID, 1, 2, "title:desc", null, null, FROM, TO);
+
+		assertThat(page.getTotalElements()).isEqualTo(4);
+		assertThat(page.getTotalPages()).isEqualTo(2);
+		assertThat(page.getContent()).extracting(TaskResponse::getTitle).containsExactly("Call bank", "Archive mail");
+	}
+
+	private TaskEntity task(String title, TaskEntity.RepetitionType type, LocalDateTime createdAt) {
+		TaskEntity task = new TaskEntity();
+		task.setId(UUID.randomUUID().toString());
+		task.setTitle(title);
+		task.setStatus("PENDING");
+		task.setPriority("LOW");
+		task.setEnergy(10);
+		task.setDuration(30);
+		task.setRepetitionType(type);
+		task.setCreatedAt(createdAt);
+		if (type != TaskEntity.RepetitionType.NONE) {
+			task.setRepetitionStartDate(createdAt);
+		}
+		return task;
+	}
+}
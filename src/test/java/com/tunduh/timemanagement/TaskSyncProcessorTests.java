@@ -0,0 +1,372 @@
+package com.tunduh.timemanagement;
+
+import com.tunduh.timemanagement.dto.request.TaskSessionSyncRequest;
+import com.tunduh.timemanagement.dto.request.TaskSyncRequest;
+import com.tunduh.timemanagement.dto.response.TaskSyncResponse;
+import com.tunduh.timemanagement.entity.TaskEntity;
+import com.tunduh.timemanagement.entity.TaskSessionEntity;
+import com.tunduh.timemanagement.entity.UserEntity;
+import com.tunduh.timemanagement.event.SessionsSyncedEvent;
+import com.tunduh.timemanagement.service.MissionProgressTracker;
+import com.tunduh.timemanagement.service.TaskSyncProcessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Runs the sync processor against an in-memory stand-in for the tasks and task_sessions rows it reads and writes.
+class TaskSyncProcessorTests {
+	private static final String TASK_ID = "0b7e7c1e-4d4b-4d4f-9a51-3f1f0c5a2b10";
+	private static final String SESSION_ID = "5f0c2d3a-8e1b-4c6d-9f7a-1b2c3d4e5f60";
+	private static final LocalDateTime START = LocalDateTime.of(2024, 9, 1, 8, 0);
+
+	private final UserEntity user = UserEntity.builder().id("user-1").build();
+	private final Map<String, Map<String, Object>> taskRows = new HashMap<>();
+	private final Map<String, Map<String, Object>> sessionRows = new HashMap<>();
+	private final Map<String, List<List<?>>> batches = new HashMap<>();
+	private final List<Object[]> durationUpdates = new ArrayList<>();
+
+	private JdbcTemplate jdbcTemplate;
+	private ApplicationEventPublisher eventPublisher;
+	private TaskSyncProcessor processor;
+	// Decides the row count of each batched statement; everything succeeds unless a test says otherwise.
+	private Function<Object, Integer> taskUpdateCount = row -> 1;
+	private Function<Object, Integer> sessionInsertCount = row -> 1;
+	private Function<Object, Integer> sessionUpdateCount = row -> 1;
+	private int taskLoads;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = mock(JdbcTemplate.class);
+		eventPublisher = mock(ApplicationEventPublisher.class);
+		processor = new TaskSyncProcessor(jdbcTemplate, mock(MissionProgressTracker.class), eventPublisher);
+
+		doAnswer(invocation -> {
+			taskLoads++;
+			return select(invocation.getArgument(1), (String[]) invocation.getArgument(2), taskRows);
+		}).when(jdbcTemplate).query(startsWith("SELECT id, user_id"), any(RowCallbackHandler.class), any(Object.class));
+		doAnswer(invocation -> select(invocation.getArgument(1), (String[]) invocation.getArgument(2), sessionRows))
+				.when(jdbcTemplate).query(startsWith("SELECT id, task_id"), any(RowCallbackHandler.class), any(Object.class));
+		when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+				.thenAnswer(invocation -> {
+					String sql = invocation.getArgument(0);
+					List<?> rows = new ArrayList<>((Collection<?>) invocation.getArgument(1));
+					batches.computeIfAbsent(sql.substring(0, sql.indexOf(' ')) + " " + table(sql), k -> new ArrayList<>())
+							.add(rows);
+					Function<Object, Integer> count = sql.startsWith("UPDATE tasks") ? taskUpdateCount
+							: sql.startsWith("INSERT INTO task_sessions") ? sessionInsertCount
+							: sql.startsWith("UPDATE task_sessions") ? sessionUpdateCount : row -> 1;
+					return new int[][]{rows.stream().mapToInt(count::apply).toArray()};
+				});
+		when(jdbcTemplate.batchUpdate(startsWith("UPDATE tasks SET completed_duration_seconds"), anyList()))
+				.thenAnswer(invocation -> {
+					List<Object[]> updates = invocation.getArgument(1);
+					durationUpdates.addAll(updates);
+					return new int[updates.size()];
+				});
+	}
+
+	@Test
+	void rejectsTaskIdsThatAreNotCanonicalUuids() {
+		TaskSyncRequest valid = newTask(TASK_ID, "Valid");
+		TaskSyncRequest readable = newTask("my-task", "Readable id");
+		TaskSyncRequest uppercase = newTask(TASK_ID.toUpperCase(), "Uppercase id");
+
+		List<TaskSyncResponse> responses = processor.synchronize(user, List.of(valid, readable, uppercase));
+
+		assertThat(responses).extracting(TaskSyncResponse::isConflicted).containsExactly(false, true, true);
+		assertThat(responses.get(1).getConflicts()).singleElement()
+				.satisfies(conflict -> assertThat(conflict.getField()).isEqualTo("taskId"));
+		assertThat(written("INSERT tasks")).extracting("id").containsExactly(TASK_ID);
+	}
+
+	@Test
+	void rejectsTheWholeEntryWhenASessionIdIsNotACanonicalUuid() {
+		TaskSyncRequest request = newTask(TASK_ID, "Task");
+		request.setSessions(List.of(session("session-1", 1L, "COMPLETED", 60L)));
+
+		List<TaskSyncResponse> responses = processor.synchronize(user, List.of(request));
+
+		assertThat(responses.get(0).isConflicted()).isTrue();
+		assertThat(responses.get(0).getConflicts()).singleElement()
+				.satisfies(conflict -> assertThat(conflict.getField()).isEqualTo("sessionId"));
+		assertThat(batches).isEmpty();
+	}
+
+	@Test
+	void sessionInsertedConcurrentlyIsMergedAsAnUpdate() {
+		taskRows.put(TASK_ID, taskRow(TASK_ID, 3L));
+		// Another sync commits the same new session between our read and our insert.
+		sessionInsertCount = row -> {
+			sessionRows.put(SESSION_ID, sessionRow(SESSION_ID, TASK_ID, 1L, "COMPLETED", 100L));
+			return 0;
+		};
+		TaskSyncRequest request = existingTask(TASK_ID, 3L);
+		request.setSessions(List.of(session(SESSION_ID, 2L, "COMPLETED", 150L)));
+
+		List<TaskSyncResponse> responses = processor.synchronize(user, List.of(request));
+
+		assertThat(responses.get(0).isConflicted()).isFalse();
+		assertThat(written("UPDATE task_sessions")).singleElement()
+				.satisfies(row -> assertThat(((TaskSessionEntity) row).getDurationInSeconds()).isEqualTo(150L));
+		// Only the difference to the row the other sync wrote is added to the task.
+		assertThat(durationUpdates).singleElement().satisfies(update -> assertThat(update).containsExactly(50L, TASK_ID));
+		// Handed to the active session registry only once the transaction commits.
+		verify(eventPublisher).publishEvent(argThat((SessionsSyncedEvent event) ->
+				event.sessions().size() == 1 && event.sessions().get(0).getId().equals(SESSION_ID)));
+	}
+
+	@Test
+	void sessionWrittenConcurrentlyIsMergedAgainOnTheNewerRow() {
+		taskRows.put(TASK_ID, taskRow(TASK_ID, 3L));
+		sessionRows.put(SESSION_ID, sessionRow(SESSION_ID, TASK_ID, 1L, "COMPLETED", 100L));
+		// A timer operation writes the session, and adds its own 20 seconds, between our read and our update.
+		sessionUpdateCount = row -> {
+			if (sessionRows.get(SESSION_ID).get("version").equals(2L)) {
+				return 1;
+			}
+			sessionRows.put(SESSION_ID, sessionRow(SESSION_ID, TASK_ID, 2L, "COMPLETED", 120L));
+			return 0;
+		};
+		TaskSyncRequest request = existingTask(TASK_ID, 3L);
+		request.setSessions(List.of(session(SESSION_ID, 3L, "COMPLETED", 150L)));
+
+		List<TaskSyncResponse> responses = processor.synchronize(user, List.of(request));
+
+		assertThat(responses.get(0).isConflicted()).isFalse();
+		assertThat(batches.get("UPDATE task_sessions")).hasSize(2);
+		// Only the difference to the row the timer wrote is added to the task.
+		assertThat(durationUpdates).singleElement().satisfies(update -> assertThat(update).containsExactly(30L, TASK_ID));
+	}
+
+	@Test
+	void sessionThatStaysStaleIsReportedAndNotCounted() {
+		taskRows.put(TASK_ID, taskRow(TASK_ID, 3L));
+		sessionRows.put(SESSION_ID, sessionRow(SESSION_ID, TASK_ID, 1L, "COMPLETED", 100L));
+		long[] version = {1L};
+		sessionUpdateCount = row -> {
+			version[0]++;
+			sessionRows.put(SESSION_ID, sessionRow(SESSION_ID, TASK_ID, version[0], "COMPLETED", 100L));
+			return 0;
+		};
+		TaskSyncRequest request = existingTask(TASK_ID, 3L);
+		request.setSessions(List.of(session(SESSION_ID, 10L, "COMPLETED", 150L)));
+
+		List<TaskSyncResponse> responses = processor.synchronize(user, List.of(request));
+
+		assertThat(responses.get(0).isConflicted()).isTrue();
+		assertThat(responses.get(0).getConflicts()).singleElement().satisfies(conflict -> {
+			assertThat(conflict.getField()).isEqualTo("sessionId");
+			assertThat(conflict.getClientValue()).isEqualTo(SESSION_ID);
+		});
+		assertThat(batches.get("UPDATE task_sessions")).hasSize(3);
+		assertThat(durationUpdates).isEmpty();
+	}
+
+	@Test
+	void editToAGroupTheServerChangedSinceTheBaseVersionConflicts() {
+		Map<String, Object> row = taskRow(TASK_ID, 5L);
+		row.put("title", "Server title");
+		row.put("details_version", 5L);
+		taskRows.put(TASK_ID, row);
+		TaskSyncRequest request = existingTask(TASK_ID, 4L);
+		request.setTitle("Client title");
+		request.setChangedFields(Set.of("title"));
+
+		List<TaskSyncResponse> responses = processor.synchronize(user, List.of(request));
+
+		assertThat(responses.get(0).isConflicted()).isTrue();
+		assertThat(responses.get(0).getTitle()).isEqualTo("Server title");
+		assertThat(responses.get(0).getConflicts()).singleElement().satisfies(conflict -> {
+			assertThat(conflict.getField()).isEqualTo("title");
+			assertThat(conflict.getServerValue()).isEqualTo("Server title");
+			assertThat(conflict.getClientValue()).isEqualTo("Client title");
+		});
+		assertThat(written("UPDATE tasks")).isEmpty();
+	}
+
+	@Test
+	void editToAnotherGroupMergesWithTheServerChange() {
+		Map<String, Object> row = taskRow(TASK_ID, 5L);
+		row.put("title", "Server title");
+		row.put("details_version", 5L);
+		taskRows.put(TASK_ID, row);
+		TaskSyncRequest request = existingTask(TASK_ID, 4L);
+		request.setTitle("Stale title");
+		request.setPriority("HIGH");
+		request.setChangedFields(Set.of("priority"));
+
+		List<TaskSyncResponse> responses = processor.synchronize(user, List.of(request));
+
+		assertThat(responses.get(0).isConflicted()).isFalse();
+		assertThat(written("UPDATE tasks")).singleElement().satisfies(written -> {
+			TaskEntity task = (TaskEntity) written;
+			assertThat(task.getTitle()).isEqualTo("Server title");
+			assertThat(task.getPriority()).isEqualTo("HIGH");
+			assertThat(task.getVersion()).isEqualTo(6L);
+			assertThat(task.getPlanningVersion()).isEqualTo(6L);
+			assertThat(task.getDetailsVersion()).isEqualTo(5L);
+		});
+	}
+
+	@Test
+	void staleUpdateIsMergedAgainOnTheNewerRow() {
+		taskRows.put(TASK_ID, taskRow(TASK_ID, 5L));
+		// Another writer changes the title between our read and our first conditional update.
+		taskUpdateCount = written -> {
+			if (taskLoads > 1) {
+				return 1;
+			}
+			Map<String, Object> row = taskRow(TASK_ID, 6L);
+			row.put("title", "Concurrent title");
+			row.put("details_version", 6L);
+			taskRows.put(TASK_ID, row);
+			return 0;
+		};
+		TaskSyncRequest request = existingTask(TASK_ID, 5L);
+		request.setPriority("HIGH");
+		request.setChangedFields(Set.of("priority"));
+
+		List<TaskSyncResponse> responses = processor.synchronize(user, List.of(request));
+
+		assertThat(taskLoads).isEqualTo(2);
+		assertThat(responses.get(0).isConflicted()).isFalse();
+		assertThat(responses.get(0).getTitle()).isEqualTo("Concurrent title");
+		assertThat(responses.get(0).getPriority()).isEqualTo("HIGH");
+		assertThat(responses.get(0).getVersion()).isEqualTo(7L);
+	}
+
+	@Test
+	void updateThatStaysStaleEndsConflictedAfterTheLastAttempt() {
+		taskRows.put(TASK_ID, taskRow(TASK_ID, 5L));
+		taskUpdateCount = written -> 0;
+		TaskSyncRequest request = existingTask(TASK_ID, 5L);
+		request.setPriority("HIGH");
+		request.setChangedFields(Set.of("priority"));
+		request.setSessions(List.of(session(SESSION_ID, 1L, "COMPLETED", 60L)));
+
+		List<TaskSyncResponse> responses = processor.synchronize(user, List.of(request));
+
+		assertThat(taskLoads).isEqualTo(3);
+		assertThat(responses.get(0).isConflicted()).isTrue();
+		assertThat(responses.get(0).getConflicts()).isEmpty();
+		assertThat(written("INSERT task_sessions")).isEmpty();
+	}
+
+	private List<Object> written(String statement) {
+		List<Object> rows = new ArrayList<>();
+		batches.getOrDefault(statement, List.of()).forEach(rows::addAll);
+		return rows;
+	}
+
+	private TaskSyncRequest newTask(String taskId, String title) {
+		TaskSyncRequest request = new TaskSyncRequest();
+		request.setTaskId(taskId);
+		request.setTitle(title);
+		request.setStatus("PENDING");
+		request.setEnergy(10);
+		request.setDuration(25);
+		request.setPriority("LOW");
+		return request;
+	}
+
+	private TaskSyncRequest existingTask(String taskId, long baseVersion) {
+		TaskSyncRequest request = newTask(taskId, "Task");
+		request.setBaseVersion(baseVersion);
+		request.setChangedFields(Set.of());
+		return request;
+	}
+
+	private TaskSessionSyncRequest session(String sessionId, long version, String status, long seconds) {
+		TaskSessionSyncRequest request = new TaskSessionSyncRequest();
+		request.setSessionId(sessionId);
+		request.setStartTime(START);
+		request.setEndTime(START.plusSeconds(seconds));
+		request.setDurationInSeconds(seconds);
+		request.setStatus(status);
+		request.setVersion(version);
+		return request;
+	}
+
+	private Map<String, Object> taskRow(String id, long version) {
+		Map<String, Object> row = new HashMap<>();
+		row.put("id", id);
+		row.put("user_id", user.getId());
+		row.put("title", "Task");
+		row.put("status", "PENDING");
+		row.put("energy", 10);
+		row.put("notes", null);
+		row.put("duration", 25);
+		row.put("priority", "LOW");
+		row.put("version", version);
+		row.put("details_version", 0L);
+		row.put("status_version", 0L);
+		row.put("planning_version", 0L);
+		return row;
+	}
+
+	private Map<String, Object> sessionRow(String id, String taskId, long version, String status, long seconds) {
+		Map<String, Object> row = new HashMap<>();
+		row.put("id", id);
+		row.put("task_id", taskId);
+		row.put("start_time", Timestamp.valueOf(START));
+		row.put("end_time", Timestamp.valueOf(START.plusSeconds(seconds)));
+		row.put("duration_in_seconds", seconds);
+		row.put("status", status);
+		row.put("notes", null);
+		row.put("version", version);
+		return row;
+	}
+
+	private static String table(String sql) {
+		return sql.contains("task_sessions") ? "task_sessions" : "tasks";
+	}
+
+	private static Object select(RowCallbackHandler handler, String[] ids, Map<String, Map<String, Object>> rows)
+			throws Exception {
+		for (String id : ids) {
+			Map<String, Object> row = rows.get(id);
+			if (row != null) {
+				handler.processRow(resultSet(row));
+			}
+		}
+		return null;
+	}
+
+	private static ResultSet resultSet(Map<String, Object> row) throws Exception {
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.getString(anyString())).thenAnswer(i -> (String) row.get(i.<String>getArgument(0)));
+		when(rs.getInt(anyString())).thenAnswer(i -> ((Number) row.get(i.<String>getArgument(0))).intValue());
+		when(rs.getLong(anyString())).thenAnswer(i -> ((Number) row.get(i.<String>getArgument(0))).longValue());
+		when(rs.getTimestamp(anyString())).thenAnswer(i -> (Timestamp) row.get(i.<String>getArgument(0)));
+		when(rs.getObject(anyString(), eq(Long.class))).thenAnswer(i -> row.get(i.<String>getArgument(0)));
+		return rs;
+	}
+}